@@ -0,0 +1,261 @@
+#!/usr/bin/env bash
+#
+# Builds rest-fights-quarkus2 and rest-fights-quarkus3 and measures the same workloads against both,
+# using a throwaway MongoDB container and stub Hero/Villain services.
+#
+# Usage: perf/compare.sh [results directory]
+#
+# See perf/README.md for what is measured and the environment variables that tune each run.
+
+set -euo pipefail
+
+PERF_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
+ROOT_DIR="$(dirname "${PERF_DIR}")"
+RESULTS_DIR="${1:-${PERF_DIR}/results/$(date +%Y%m%d-%H%M%S)}"
+
+MODULES="${MODULES:-rest-fights-quarkus2 rest-fights-quarkus3}"
+MONGO_IMAGE="${MONGO_IMAGE:-mongo:5.0}"
+MONGO_PORT="${MONGO_PORT:-27018}"
+STUB_PORT="${STUB_PORT:-8083}"
+STUB_DELAY_MS="${STUB_DELAY_MS:-0}"
+APP_PORT="${APP_PORT:-8082}"
+JAVA_OPTS="${JAVA_OPTS:--Xmx512m}"
+STARTUP_RUNS="${STARTUP_RUNS:-5}"
+FIRST_REQUEST_PATH="${FIRST_REQUEST_PATH:-/api/fights/since}"
+LOAD_PATH="${LOAD_PATH:-${FIRST_REQUEST_PATH}}"
+LOAD_DURATION="${LOAD_DURATION:-30s}"
+LOAD_CONCURRENCY="${LOAD_CONCURRENCY:-50}"
+SKIP_BUILD="${SKIP_BUILD:-false}"
+SKIP_JMH="${SKIP_JMH:-false}"
+JMH_ARGS="${JMH_ARGS:-FightServiceBenchmark -bm thrpt,sample -tu us -prof gc}"
+
+MONGO_CONTAINER="rest-fights-perf-mongo-$$"
+STUB_PID=""
+APP_PID=""
+
+log() {
+	echo "[compare] $*" >&2
+}
+
+# Milliseconds since the epoch. date +%s%3N is GNU-only, so this goes through python3 or perl, which behave the same everywhere
+now_ms() {
+	if command -v python3 >/dev/null 2>&1; then
+		python3 -c 'import time; print(int(time.time() * 1000))'
+	else
+		perl -MTime::HiRes=time -e 'printf "%d\n", time * 1000'
+	fi
+}
+
+cleanup() {
+	[[ -n "${APP_PID}" ]] && kill "${APP_PID}" 2>/dev/null || true
+	[[ -n "${STUB_PID}" ]] && kill "${STUB_PID}" 2>/dev/null || true
+	docker rm -f "${MONGO_CONTAINER}" >/dev/null 2>&1 || true
+}
+trap cleanup EXIT
+
+start_mongo() {
+	log "Starting ${MONGO_IMAGE} on port ${MONGO_PORT}"
+	docker run -d --rm --name "${MONGO_CONTAINER}" -p "${MONGO_PORT}:27017" "${MONGO_IMAGE}" >/dev/null
+
+	for _ in $(seq 1 60); do
+		if docker exec "${MONGO_CONTAINER}" mongo --quiet --eval 'db.runCommand({ ping: 1 }).ok' >/dev/null 2>&1 ||
+		   docker exec "${MONGO_CONTAINER}" mongosh --quiet --eval 'db.runCommand({ ping: 1 }).ok' >/dev/null 2>&1; then
+			return
+		fi
+		sleep 1
+	done
+
+	log "MongoDB did not become ready"
+	exit 1
+}
+
+reset_mongo() {
+	docker exec "${MONGO_CONTAINER}" mongo --quiet fights --eval 'db.dropDatabase()' >/dev/null 2>&1 ||
+		docker exec "${MONGO_CONTAINER}" mongosh --quiet fights --eval 'db.dropDatabase()' >/dev/null 2>&1 || true
+}
+
+start_stubs() {
+	log "Starting stub Hero/Villain services on port ${STUB_PORT}"
+	python3 "${PERF_DIR}/stub_upstreams.py" --port "${STUB_PORT}" --delay-ms "${STUB_DELAY_MS}" >/dev/null 2>&1 &
+	STUB_PID=$!
+
+	for _ in $(seq 1 50); do
+		curl -fs "http://127.0.0.1:${STUB_PORT}/api/heroes/hello" >/dev/null 2>&1 && return
+		sleep 0.1
+	done
+
+	log "The stub services did not start"
+	exit 1
+}
+
+# Starts the application and waits for Quarkus to report that it started.
+# Sets APP_PID and STARTUP_MS
+start_app() {
+	local module="$1"
+	local log_file="$2"
+	local start
+
+	start=$(now_ms)
+	# shellcheck disable=SC2086
+	java ${JAVA_OPTS} \
+		-Dquarkus.http.port="${APP_PORT}" \
+		-Dquarkus.mongodb.connection-string="mongodb://127.0.0.1:${MONGO_PORT}" \
+		-Dquarkus.mongodb.database=fights \
+		-Dquarkus.rest-client.hero-client.url="http://127.0.0.1:${STUB_PORT}" \
+		-Dfight.villain.client-base-url="http://127.0.0.1:${STUB_PORT}" \
+		-jar "${ROOT_DIR}/${module}/target/quarkus-app/quarkus-run.jar" >"${log_file}" 2>&1 &
+	APP_PID=$!
+
+	for _ in $(seq 1 1200); do
+		if grep -q "started in" "${log_file}"; then
+			STARTUP_MS=$(( $(now_ms) - start ))
+			return
+		fi
+
+		if ! kill -0 "${APP_PID}" 2>/dev/null; then
+			log "${module} exited during startup, see ${log_file}"
+			exit 1
+		fi
+		sleep 0.05
+	done
+
+	log "${module} did not start, see ${log_file}"
+	exit 1
+}
+
+stop_app() {
+	kill "${APP_PID}" 2>/dev/null || true
+	wait "${APP_PID}" 2>/dev/null || true
+	APP_PID=""
+}
+
+# Starts the application and measures the time from launching the JVM until the first successful response to FIRST_REQUEST_PATH.
+# Sets APP_PID and TTFR, which is n/a if the application doesn't serve that path
+start_app_and_time_first_request() {
+	local module="$1"
+	local log_file="$2"
+	local launched
+
+	start_app "${module}" "${log_file}"
+	launched=$(( $(now_ms) - STARTUP_MS ))
+
+	for _ in $(seq 1 200); do
+		if curl -fs -o /dev/null "http://127.0.0.1:${APP_PORT}${FIRST_REQUEST_PATH}"; then
+			TTFR=$(( $(now_ms) - launched ))
+			return
+		fi
+		sleep 0.05
+	done
+
+	TTFR="n/a"
+}
+
+rss_kb() {
+	awk '/^VmRSS:/ { print $2 }' "/proc/$1/status" 2>/dev/null || echo "n/a"
+}
+
+median() {
+	sort -n | awk '{ values[NR] = $1 } END { if (NR == 0) print "n/a"; else if (NR % 2) print values[(NR + 1) / 2]; else print (values[NR / 2] + values[NR / 2 + 1]) / 2 }'
+}
+
+# Modules that shouldn't be changed, such as the rest-fights-quarkus2 baseline, have their benchmarks in perf/jmh/<module>.
+# The module is installed into the local repository, and the benchmarks are built and run against it from there.
+# Any other module runs the benchmarks in its own benchmarks profile
+run_jmh() {
+	local module="$1"
+	local benchmarks="${PERF_DIR}/jmh/${module}"
+
+	if [[ -f "${benchmarks}/pom.xml" ]]; then
+		(cd "${ROOT_DIR}/${module}" && ./mvnw -B -q -DskipTests install)
+		(cd "${ROOT_DIR}/${module}" && ./mvnw -B -q -f "${benchmarks}/pom.xml" package exec:exec -Djmh.args="${JMH_ARGS}")
+	else
+		(cd "${ROOT_DIR}/${module}" && ./mvnw -B -q -Pbenchmarks test-compile exec:exec -Djmh.args="${JMH_ARGS}")
+	fi
+}
+
+jmh_result() {
+	local module="$1"
+
+	if [[ -f "${PERF_DIR}/jmh/${module}/pom.xml" ]]; then
+		echo "${PERF_DIR}/jmh/${module}/target/jmh-result.json"
+	else
+		echo "${ROOT_DIR}/${module}/target/jmh-result.json"
+	fi
+}
+
+measure() {
+	local module="$1"
+	local out="${RESULTS_DIR}/${module}"
+	local startups=()
+
+	mkdir -p "${out}"
+	: > "${out}/metrics.tsv"
+
+	log "${module}: measuring startup over ${STARTUP_RUNS} runs"
+	for run in $(seq 1 "${STARTUP_RUNS}"); do
+		reset_mongo
+		start_app "${module}" "${out}/startup-${run}.log"
+		startups+=("${STARTUP_MS}")
+		stop_app
+	done
+	printf '%s\n' "${startups[@]}" | median | xargs printf 'startup.median (ms)\t%s\n' >> "${out}/metrics.tsv"
+
+	log "${module}: measuring time to first request and RSS"
+	reset_mongo
+	start_app_and_time_first_request "${module}" "${out}/run.log"
+	printf 'first-request (ms)\t%s\n' "${TTFR}" >> "${out}/metrics.tsv"
+	printf 'rss.after-startup (KiB)\t%s\n' "$(rss_kb "${APP_PID}")" >> "${out}/metrics.tsv"
+
+	if [[ "${TTFR}" != "n/a" ]] && command -v hey >/dev/null 2>&1; then
+		log "${module}: load testing ${LOAD_PATH} for ${LOAD_DURATION} with ${LOAD_CONCURRENCY} connections"
+		hey -z "${LOAD_DURATION}" -c "${LOAD_CONCURRENCY}" "http://127.0.0.1:${APP_PORT}${LOAD_PATH}" > "${out}/hey.txt"
+		awk '
+			/Requests\/sec:/ { printf "http.throughput (req/s)\t%s\n", $2 }
+			/ 50% in / { printf "http.p50 (ms)\t%.3f\n", $3 * 1000 }
+			/ 90% in / { printf "http.p90 (ms)\t%.3f\n", $3 * 1000 }
+			/ 99% in / { printf "http.p99 (ms)\t%.3f\n", $3 * 1000 }
+		' "${out}/hey.txt" >> "${out}/metrics.tsv"
+		printf 'rss.after-load (KiB)\t%s\n' "$(rss_kb "${APP_PID}")" >> "${out}/metrics.tsv"
+	elif [[ "${TTFR}" == "n/a" ]]; then
+		log "${module}: does not serve ${FIRST_REQUEST_PATH}, skipping the HTTP load test"
+	else
+		log "${module}: hey is not installed, skipping the HTTP load test"
+	fi
+
+	stop_app
+
+	if [[ "${SKIP_JMH}" != "true" ]]; then
+		log "${module}: running JMH (${JMH_ARGS})"
+		run_jmh "${module}" > "${out}/jmh.log" 2>&1
+		cp "$(jmh_result "${module}")" "${out}/jmh-result.json"
+	fi
+}
+
+mkdir -p "${RESULTS_DIR}"
+
+if [[ "${SKIP_BUILD}" != "true" ]]; then
+	for module in ${MODULES}; do
+		log "Building ${module}"
+		(cd "${ROOT_DIR}/${module}" && ./mvnw -B -q -DskipTests package) > "${RESULTS_DIR}/build-${module}.log" 2>&1
+	done
+fi
+
+{
+	echo "date	$(date -u +%Y-%m-%dT%H:%M:%SZ)"
+	echo "commit	$(git -C "${ROOT_DIR}" rev-parse --short HEAD 2>/dev/null || echo unknown)"
+	echo "java	$(java -version 2>&1 | head -1)"
+	echo "cpus	$(nproc 2>/dev/null || echo unknown)"
+	echo "java-opts	${JAVA_OPTS}"
+	echo "jmh-args	${JMH_ARGS}"
+} > "${RESULTS_DIR}/environment.tsv"
+
+start_mongo
+start_stubs
+
+for module in ${MODULES}; do
+	measure "${module}"
+done
+
+# shellcheck disable=SC2086
+python3 "${PERF_DIR}/report.py" "${RESULTS_DIR}" ${MODULES}
+log "Report written to ${RESULTS_DIR}/report.md and ${RESULTS_DIR}/report.tsv"
@@ -0,0 +1,106 @@
+package io.quarkus.sample.superheroes.fight.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.quarkus.runtime.configuration.DurationConverter;
+import io.quarkus.sample.superheroes.fight.Fight;
+import io.quarkus.sample.superheroes.fight.Fighters;
+import io.quarkus.sample.superheroes.fight.client.Hero;
+import io.quarkus.sample.superheroes.fight.client.HeroClient;
+import io.quarkus.sample.superheroes.fight.client.Villain;
+import io.quarkus.sample.superheroes.fight.client.VillainClient;
+import io.quarkus.sample.superheroes.fight.config.FightConfig;
+
+import io.smallrye.config.PropertiesConfigSource;
+import io.smallrye.config.SmallRyeConfigBuilder;
+
+/**
+ * Benchmarks the per-fight CPU and allocation cost of {@link FightService}'s hot path.
+ * <p>
+ *   Kept in {@code perf/} rather than in {@code rest-fights-quarkus2}, so the baseline module stays untouched. {@code perf/compare.sh} installs {@code rest-fights-quarkus2} and then runs this with {@code mvn package exec:exec -Djmh.args="FightServiceBenchmark -prof gc"} from {@code perf/jmh/rest-fights-quarkus2}. The {@code gc.alloc.rate.norm} results are the bytes allocated per operation.
+ * </p>
+ * <p>
+ *   The benchmark names match the ones in {@code rest-fights-quarkus3} so that {@code perf/compare.sh} can line the results up.
+ *   Calls to {@link io.quarkus.logging.Log} aren't rewritten at build time outside of Quarkus, so each one costs a stack walk here. Application logging is turned down to {@code WARNING} so that nothing is actually written.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.jboss.logging.provider=jdk")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FightServiceBenchmark {
+	// Held so the level isn't lost if the logger is garbage collected
+	private static final Logger APPLICATION_LOGGER = Logger.getLogger("io.quarkus.sample.superheroes");
+
+	private FightService fightService;
+	private Fighters fighters;
+	private Fight fight;
+
+	@Setup
+	public void setup() throws IOException {
+		APPLICATION_LOGGER.setLevel(Level.WARNING);
+
+		this.fightService = new FightService(new HeroClient(null), new VillainClient(), createFightConfig());
+		this.fighters = new Fighters(
+			new Hero("Super Baguette", 42, "super_baguette.png", "eats baguette really quickly"),
+			new Villain("Super Chocolatine", 42, "super_chocolatine.png", "does not eat pain au chocolat")
+		);
+		this.fight = this.fightService.heroWonFight(this.fighters);
+	}
+
+	@Benchmark
+	public Fight determineWinner() {
+		return this.fightService.determineWinner(this.fighters).await().indefinitely();
+	}
+
+	@Benchmark
+	public boolean shouldHeroWin() {
+		return this.fightService.shouldHeroWin(this.fighters);
+	}
+
+	@Benchmark
+	public Fight heroWonFight() {
+		return this.fightService.heroWonFight(this.fighters);
+	}
+
+	@Benchmark
+	public Fight villainWonFight() {
+		return this.fightService.villainWonFight(this.fighters);
+	}
+
+	@Benchmark
+	public String fightersToString() {
+		return this.fighters.toString();
+	}
+
+	@Benchmark
+	public String fightToString() {
+		return this.fight.toString();
+	}
+
+	static FightConfig createFightConfig() throws IOException {
+		return new SmallRyeConfigBuilder()
+			.withSources(new PropertiesConfigSource(FightServiceBenchmark.class.getResource("/application.properties"), 250))
+			.withConverter(Duration.class, 100, new DurationConverter())
+			.withMapping(FightConfig.class)
+			.build()
+			.getConfigMapping(FightConfig.class);
+	}
+}
@@ -0,0 +1,112 @@
+#!/usr/bin/env python3
+"""
+Builds the comparison report from the results written by perf/compare.sh.
+
+Reads <results>/<module>/metrics.tsv and <results>/<module>/jmh-result.json for
+every module and writes:
+
+  <results>/report.tsv  one "metric<TAB>module<TAB>value" line per measurement,
+                        sorted so that two runs can be compared with diff
+  <results>/report.md   the same numbers side by side, with the relative change
+                        of the last module against the first
+"""
+import argparse
+import json
+import os
+import sys
+
+
+def read_metrics(module_dir):
+	metrics = {}
+	path = os.path.join(module_dir, "metrics.tsv")
+
+	if os.path.exists(path):
+		with open(path) as f:
+			for line in f:
+				line = line.rstrip("\n")
+				if line:
+					name, value = line.split("\t", 1)
+					metrics[name] = value
+
+	return metrics
+
+
+def read_jmh(module_dir):
+	metrics = {}
+	path = os.path.join(module_dir, "jmh-result.json")
+
+	if not os.path.exists(path):
+		return metrics
+
+	with open(path) as f:
+		results = json.load(f)
+
+	for result in results:
+		name = result["benchmark"].rsplit(".", 1)[-1]
+		mode = result["mode"]
+		primary = result["primaryMetric"]
+		unit = primary["scoreUnit"]
+
+		if mode == "thrpt":
+			metrics[f"jmh.{name}.throughput ({unit})"] = fmt(primary["score"])
+		elif mode == "sample":
+			for percentile in ("50.0", "90.0", "99.0", "99.9"):
+				value = primary.get("scorePercentiles", {}).get(percentile)
+				if value is not None:
+					metrics[f"jmh.{name}.p{percentile.rstrip('0').rstrip('.')} ({unit})"] = fmt(value)
+
+		alloc = result.get("secondaryMetrics", {}).get("·gc.alloc.rate.norm")
+		if alloc is not None and f"jmh.{name}.alloc (B/op)" not in metrics:
+			metrics[f"jmh.{name}.alloc (B/op)"] = fmt(alloc["score"])
+
+	return metrics
+
+
+def fmt(value):
+	return f"{value:.3f}"
+
+
+def change(first, last):
+	try:
+		first, last = float(first), float(last)
+	except (TypeError, ValueError):
+		return ""
+
+	return f"{(last - first) / first * 100:+.1f}%" if first else ""
+
+
+def main():
+	parser = argparse.ArgumentParser(description=__doc__, formatter_class=argparse.RawDescriptionHelpFormatter)
+	parser.add_argument("results")
+	parser.add_argument("modules", nargs="+")
+	args = parser.parse_args()
+
+	by_module = {}
+
+	for module in args.modules:
+		module_dir = os.path.join(args.results, module)
+		by_module[module] = {**read_metrics(module_dir), **read_jmh(module_dir)}
+
+	names = sorted({name for metrics in by_module.values() for name in metrics})
+
+	with open(os.path.join(args.results, "report.tsv"), "w") as f:
+		for name in names:
+			for module in args.modules:
+				f.write(f"{name}\t{module}\t{by_module[module].get(name, 'n/a')}\n")
+
+	first, last = args.modules[0], args.modules[-1]
+
+	with open(os.path.join(args.results, "report.md"), "w") as f:
+		f.write("| Metric | " + " | ".join(args.modules) + f" | {last} vs {first} |\n")
+		f.write("|---" * (len(args.modules) + 2) + "|\n")
+
+		for name in names:
+			values = [by_module[module].get(name, "n/a") for module in args.modules]
+			f.write(f"| {name} | " + " | ".join(values) + f" | {change(values[0], values[-1])} |\n")
+
+	with open(os.path.join(args.results, "report.md")) as f:
+		sys.stdout.write(f.read())
+
+
+if __name__ == "__main__":
+	main()
@@ -0,0 +1,84 @@
+#!/usr/bin/env python3
+"""
+Stub Hero and Villain services for perf/compare.sh.
+
+Serves canned, deterministic responses so that both versions of rest-fights
+see exactly the same upstream behaviour:
+
+  GET /api/heroes             -> every hero
+  GET /api/villains           -> every villain
+  GET /api/heroes/random      -> a random hero
+  GET /api/villains/random    -> a random villain
+  GET /api/heroes/hello       -> "Hello heroes!"
+  GET /api/villains/hello     -> "Hello villains!"
+
+An optional fixed delay (--delay-ms) simulates upstream latency.
+"""
+import argparse
+import json
+import random
+import time
+from http.server import BaseHTTPRequestHandler, ThreadingHTTPServer
+
+HEROES = [
+	{"name": f"Hero {i}", "level": 10 + i, "picture": f"hero_{i}.png", "powers": "stubbed powers"}
+	for i in range(100)
+]
+VILLAINS = [
+	{"name": f"Villain {i}", "level": 10 + i, "picture": f"villain_{i}.png", "powers": "stubbed powers"}
+	for i in range(100)
+]
+
+
+def make_handler(delay_seconds, rng):
+	class Handler(BaseHTTPRequestHandler):
+		protocol_version = "HTTP/1.1"
+
+		def do_GET(self):
+			if delay_seconds:
+				time.sleep(delay_seconds)
+
+			if self.path == "/api/heroes":
+				self.send(200, "application/json", json.dumps(HEROES))
+			elif self.path == "/api/villains":
+				self.send(200, "application/json", json.dumps(VILLAINS))
+			elif self.path == "/api/heroes/random":
+				self.send(200, "application/json", json.dumps(rng.choice(HEROES)))
+			elif self.path == "/api/villains/random":
+				self.send(200, "application/json", json.dumps(rng.choice(VILLAINS)))
+			elif self.path == "/api/heroes/hello":
+				self.send(200, "text/plain", "Hello heroes!")
+			elif self.path == "/api/villains/hello":
+				self.send(200, "text/plain", "Hello villains!")
+			else:
+				self.send(404, "text/plain", "Not found")
+
+		def send(self, status, content_type, body):
+			payload = body.encode("utf-8")
+			self.send_response(status)
+			self.send_header("Content-Type", content_type)
+			self.send_header("Content-Length", str(len(payload)))
+			self.end_headers()
+			self.wfile.write(payload)
+
+		def log_message(self, format, *args):
+			pass
+
+	return Handler
+
+
+def main():
+	parser = argparse.ArgumentParser(description=__doc__, formatter_class=argparse.RawDescriptionHelpFormatter)
+	parser.add_argument("--port", type=int, default=8083)
+	parser.add_argument("--delay-ms", type=int, default=0)
+	parser.add_argument("--seed", type=int, default=42)
+	args = parser.parse_args()
+
+	server = ThreadingHTTPServer(("127.0.0.1", args.port), make_handler(args.delay_ms / 1000, random.Random(args.seed)))
+	server.daemon_threads = True
+	print(f"Stub upstreams listening on http://127.0.0.1:{args.port}", flush=True)
+	server.serve_forever()
+
+
+if __name__ == "__main__":
+	main()
@@ -0,0 +1,57 @@
+package io.quarkus.sample.superheroes.fight.client;
+
+import java.net.ConnectException;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.ws.rs.InternalServerErrorException;
+import jakarta.ws.rs.NotFoundException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link Is404Exception#IS_404}, which classifies every failure returned by the Hero and Villain clients.
+ * <p>
+ *   Run with {@code ./mvnw -Pbenchmarks test-compile exec:exec -Djmh.args="Is404ExceptionBenchmark -prof gc"}.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class Is404ExceptionBenchmark {
+	@Param({ "notFound", "serverError", "connectionFailure" })
+	String failure;
+
+	private Throwable throwable;
+
+	@Setup
+	public void setup() {
+		switch (this.failure) {
+			case "notFound":
+				this.throwable = new NotFoundException();
+				break;
+			case "serverError":
+				this.throwable = new InternalServerErrorException();
+				break;
+			default:
+				this.throwable = new ConnectException("Connection refused");
+		}
+	}
+
+	@Benchmark
+	public boolean is404() {
+		return Is404Exception.IS_404.test(this.throwable);
+	}
+}
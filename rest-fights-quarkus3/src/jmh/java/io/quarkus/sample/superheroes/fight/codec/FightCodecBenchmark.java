@@ -0,0 +1,98 @@
+package io.quarkus.sample.superheroes.fight.codec;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.pojo.PojoCodecProvider;
+import org.bson.io.BasicOutputBuffer;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.quarkus.sample.superheroes.fight.Fight;
+
+import com.mongodb.MongoClientSettings;
+
+/**
+ * Compares the encode/decode throughput of {@link FightCodec} against the reflection-based POJO codec it replaces.
+ * <p>
+ *   Run with {@code ./mvnw -Pbenchmarks test-compile exec:exec -Djmh.args="FightCodecBenchmark -prof gc"}.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FightCodecBenchmark {
+	@Param({ "handWritten", "pojo" })
+	String codec;
+
+	private Codec<Fight> fightCodec;
+	private Fight fight;
+	private byte[] encodedFight;
+
+	@Setup
+	public void setup() {
+		this.fightCodec = "pojo".equals(this.codec) ?
+		                  CodecRegistries.fromRegistries(
+			                  MongoClientSettings.getDefaultCodecRegistry(),
+			                  CodecRegistries.fromProviders(PojoCodecProvider.builder().automatic(true).build())
+		                  ).get(Fight.class) :
+		                  new FightCodec();
+
+		this.fight = createFight();
+		this.encodedFight = encode();
+	}
+
+	@Benchmark
+	public byte[] encode() {
+		var buffer = new BasicOutputBuffer(256);
+
+		try (var writer = new BsonBinaryWriter(buffer)) {
+			this.fightCodec.encode(writer, this.fight, EncoderContext.builder().build());
+		}
+
+		return buffer.toByteArray();
+	}
+
+	@Benchmark
+	public Fight decode() {
+		try (var reader = new BsonBinaryReader(ByteBuffer.wrap(this.encodedFight))) {
+			return this.fightCodec.decode(reader, DecoderContext.builder().build());
+		}
+	}
+
+	static Fight createFight() {
+		var fight = new Fight();
+		fight.id = new ObjectId();
+		fight.fightDate = Instant.now();
+		fight.winnerName = "Super Baguette";
+		fight.winnerLevel = 42;
+		fight.winnerPicture = "super_baguette.png";
+		fight.loserName = "Super Chocolatine";
+		fight.loserLevel = 420;
+		fight.loserPicture = "super_chocolatine.png";
+		fight.winnerTeam = "heroes";
+		fight.loserTeam = "villains";
+
+		return fight;
+	}
+}
@@ -0,0 +1,58 @@
+package io.quarkus.sample.superheroes.fight.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.quarkus.sample.superheroes.fight.metrics.StageTimer.Outcome;
+
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Measures the cost of recording into a {@link StageTimer} backed by the Prometheus registry the application uses.
+ * <p>
+ *   Run with {@code ./mvnw -Pbenchmarks test-compile exec:exec -Djmh.args="StageTimerBenchmark -prof gc"}. {@code gc.alloc.rate.norm} should be {@code 0} for {@link #record()}. {@link #time()} shows what timing a {@link io.smallrye.mutiny.Uni} costs on top of it.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StageTimerBenchmark {
+	private static final Uni<String> ITEM = Uni.createFrom().item("fight");
+
+	private StageTimer stageTimer;
+
+	@Setup
+	public void setup() {
+		this.stageTimer = new StageMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT))
+			.stage("benchmark", Outcome.SUCCESS, Outcome.FAILURE);
+	}
+
+	@Benchmark
+	public void record() {
+		this.stageTimer.record(Outcome.SUCCESS, System.nanoTime());
+	}
+
+	@Benchmark
+	public void time(Blackhole blackhole) {
+		this.stageTimer.time(() -> ITEM)
+			.subscribe().with(blackhole::consume);
+	}
+}
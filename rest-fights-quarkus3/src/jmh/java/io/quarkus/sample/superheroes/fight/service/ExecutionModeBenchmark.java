@@ -0,0 +1,205 @@
+package io.quarkus.sample.superheroes.fight.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.quarkus.sample.superheroes.fight.Fight;
+import io.quarkus.sample.superheroes.fight.client.Deadline;
+import io.quarkus.sample.superheroes.fight.client.Hero;
+import io.quarkus.sample.superheroes.fight.client.HeroClient;
+import io.quarkus.sample.superheroes.fight.client.Villain;
+import io.quarkus.sample.superheroes.fight.client.VillainClient;
+import io.quarkus.sample.superheroes.fight.config.FightConfig;
+import io.quarkus.sample.superheroes.fight.config.FightConfigs;
+import io.quarkus.sample.superheroes.fight.feed.FightFeed;
+import io.quarkus.sample.superheroes.fight.leaderboard.Leaderboard;
+import io.quarkus.sample.superheroes.fight.metrics.StageMetrics;
+import io.quarkus.sample.superheroes.fight.service.RandomSources.ThreadLocalRandomSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Compares the {@code reactive} and {@code virtual-threads} values of {@code fight.execution.mode} under the same load: finding random fighters and then performing a fight between them.
+ * <p>
+ *   Run with {@code ./mvnw -Pbenchmarks test-compile exec:exec -Djmh.args="ExecutionModeBenchmark -prof gc"} on Java 21 or later. Each invocation performs {@value #FIGHTS_PER_INVOCATION} fights, keeping exactly {@code concurrency} of them in flight at all times, like that many clients that each wait for their fight before starting the next one.
+ *   The same single benchmark thread drives both modes, so neither is limited by how many threads JMH runs. Throughput is in fights per millisecond, and {@code gc.alloc.rate.norm} is the memory allocated per fight.
+ * </p>
+ * <p>
+ *   The Hero and Villain services and the database are replaced by stubs that answer after {@code latencyMillis}, without any network or database behind them. That way the results only reflect the cost of each execution mode, rather than of its I/O.
+ *   Fights are written the way each mode writes them without write-behind: {@code reactive} through a non-blocking write, and {@code virtual-threads} through a blocking one that holds its virtual thread for {@code latencyMillis}, like the blocking MongoDB driver does.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.jboss.logging.provider=jdk")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ExecutionModeBenchmark {
+	static final int FIGHTS_PER_INVOCATION = 1000;
+
+	// Held so the level isn't lost if the logger is garbage collected
+	private static final Logger APPLICATION_LOGGER = Logger.getLogger("io.quarkus.sample.superheroes");
+
+	@Param({ "reactive", "virtual-threads" })
+	public String mode;
+
+	@Param({ "1", "10" })
+	public long latencyMillis;
+
+	@Param({ "16", "256" })
+	public int concurrency;
+
+	private FightService fightService;
+
+	@Setup
+	public void setup() {
+		APPLICATION_LOGGER.setLevel(Level.WARNING);
+
+		var fightConfig = FightConfigs.create(Map.of(
+			"fight.execution.mode", this.mode,
+			"fight.persistence.write-behind.enabled", "false"
+		));
+		var meterRegistry = new SimpleMeterRegistry();
+		var stageMetrics = new StageMetrics(meterRegistry);
+		var latency = Duration.ofMillis(this.latencyMillis);
+		var heroClient = new StubHeroClient(latency, stageMetrics, fightConfig, meterRegistry);
+		var villainClient = new StubVillainClient(latency, stageMetrics, fightConfig, meterRegistry);
+		var fightSignal = new FightSignal();
+		var fighterReservoirs = new FighterReservoirs(heroClient, villainClient, fightConfig, meterRegistry);
+		var fallbackFighters = new FallbackFighters(fightConfig, ThreadLocalRandomSource.INSTANCE, meterRegistry);
+		var fightCache = new FightCache(fightConfig, meterRegistry);
+		var persistedFights = new PersistedFights(fightCache, new FightFeed(fightConfig, meterRegistry), fightSignal, new Leaderboard(fightConfig, meterRegistry));
+		var fightWriteBehind = new FightWriteBehind(fightConfig, persistedFights, meterRegistry);
+
+		this.fightService = new StubFightService(
+			latency,
+			heroClient,
+			villainClient,
+			fightConfig,
+			fightWriteBehind,
+			fighterReservoirs,
+			fallbackFighters,
+			fightCache,
+			fightSignal,
+			persistedFights,
+			new StubBlockingFightService(latency, heroClient, villainClient, fightConfig, fightWriteBehind, fighterReservoirs, fallbackFighters, fightCache, persistedFights, stageMetrics),
+			new VirtualThreadExecutor(fightConfig),
+			stageMetrics
+		);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(FIGHTS_PER_INVOCATION)
+	public List<Fight> findFightersAndFight() {
+		return Multi.createFrom().range(0, FIGHTS_PER_INVOCATION)
+			.onItem().transformToUni(i ->
+				this.fightService.findRandomFighters()
+					.chain(this.fightService::performFight)
+			)
+			.merge(this.concurrency)
+			.collect().asList()
+			.await().indefinitely();
+	}
+
+	private static <T> Uni<T> answerAfter(Duration latency, T item) {
+		return Uni.createFrom().item(item)
+			.onItem().delayIt().by(latency);
+	}
+
+	private static final class StubHeroClient extends HeroClient {
+		private static final Hero HERO = new Hero("Super Baguette", 42, "super_baguette.png", "eats baguette really quickly");
+
+		private final Duration latency;
+
+		private StubHeroClient(Duration latency, StageMetrics stageMetrics, FightConfig fightConfig, MeterRegistry meterRegistry) {
+			super(null, stageMetrics, fightConfig, meterRegistry);
+			this.latency = latency;
+		}
+
+		@Override
+		public Uni<Hero> findRandomHero(Deadline deadline) {
+			return answerAfter(this.latency, HERO);
+		}
+	}
+
+	private static final class StubVillainClient extends VillainClient {
+		private static final Villain VILLAIN = new Villain("Super Chocolatine", 42, "super_chocolatine.png", "does not eat pain au chocolat");
+
+		private final Duration latency;
+
+		private StubVillainClient(Duration latency, StageMetrics stageMetrics, FightConfig fightConfig, MeterRegistry meterRegistry) {
+			super(null, stageMetrics, fightConfig, meterRegistry);
+			this.latency = latency;
+		}
+
+		@Override
+		public Uni<Villain> findRandomVillain(Deadline deadline) {
+			return answerAfter(this.latency, VILLAIN);
+		}
+	}
+
+	/**
+	 * Stands in for the reactive database driver: every fight is "written" after {@code latency}, without blocking
+	 */
+	private static final class StubFightService extends FightService {
+		private final Duration latency;
+
+		private StubFightService(Duration latency, HeroClient heroClient, VillainClient villainClient, FightConfig fightConfig, FightWriteBehind fightWriteBehind, FighterReservoirs fighterReservoirs, FallbackFighters fallbackFighters, FightCache fightCache, FightSignal fightSignal, PersistedFights persistedFights, BlockingFightService blockingFightService, VirtualThreadExecutor virtualThreadExecutor, StageMetrics stageMetrics) {
+			super(heroClient, villainClient, fightConfig, fightWriteBehind, fighterReservoirs, fallbackFighters, fightCache, fightSignal, persistedFights, blockingFightService, virtualThreadExecutor, ThreadLocalRandomSource.INSTANCE, FightServiceBenchmark.createValidator(), stageMetrics);
+			this.latency = latency;
+		}
+
+		@Override
+		Uni<Fight> insert(Fight fight) {
+			fight.id = new ObjectId();
+			return answerAfter(this.latency, fight);
+		}
+	}
+
+	/**
+	 * Stands in for the blocking database driver: every fight is "written" after blocking the calling thread for {@code latency}
+	 */
+	private static final class StubBlockingFightService extends BlockingFightService {
+		private final Duration latency;
+
+		private StubBlockingFightService(Duration latency, HeroClient heroClient, VillainClient villainClient, FightConfig fightConfig, FightWriteBehind fightWriteBehind, FighterReservoirs fighterReservoirs, FallbackFighters fallbackFighters, FightCache fightCache, PersistedFights persistedFights, StageMetrics stageMetrics) {
+			super(heroClient, villainClient, fightConfig, fightWriteBehind, fighterReservoirs, fallbackFighters, fightCache, persistedFights, null, stageMetrics);
+			this.latency = latency;
+		}
+
+		@Override
+		void insert(Fight fight) {
+			try {
+				Thread.sleep(this.latency.toMillis());
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while writing a fight", e);
+			}
+
+			fight.id = new ObjectId();
+		}
+	}
+}
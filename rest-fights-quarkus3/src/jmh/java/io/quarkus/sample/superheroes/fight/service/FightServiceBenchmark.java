@@ -0,0 +1,160 @@
+package io.quarkus.sample.superheroes.fight.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+
+import org.hibernate.validator.messageinterpolation.ParameterMessageInterpolator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.quarkus.sample.superheroes.fight.Fight;
+import io.quarkus.sample.superheroes.fight.Fighters;
+import io.quarkus.sample.superheroes.fight.client.Hero;
+import io.quarkus.sample.superheroes.fight.client.HeroClient;
+import io.quarkus.sample.superheroes.fight.client.Villain;
+import io.quarkus.sample.superheroes.fight.client.VillainClient;
+import io.quarkus.sample.superheroes.fight.config.FightConfig;
+import io.quarkus.sample.superheroes.fight.config.FightConfigs;
+import io.quarkus.sample.superheroes.fight.feed.FightFeed;
+import io.quarkus.sample.superheroes.fight.leaderboard.Leaderboard;
+import io.quarkus.sample.superheroes.fight.metrics.StageMetrics;
+import io.quarkus.sample.superheroes.fight.service.RandomSources.ThreadLocalRandomSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Benchmarks the per-fight CPU and allocation cost of {@link FightService}'s hot path.
+ * <p>
+ *   Run with {@code ./mvnw -Pbenchmarks test-compile exec:exec -Djmh.args="FightServiceBenchmark -prof gc"}. The {@code gc.alloc.rate.norm} results are the bytes allocated per operation.
+ * </p>
+ * <p>
+ *   The service is built by hand from {@code application.properties}, outside of Quarkus. That means calls to {@link io.quarkus.logging.Log} aren't rewritten at build time the way they are in the application, so each one costs a stack walk here.
+ *   Application logging is turned down to {@code WARNING} so that nothing is actually written.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Dorg.jboss.logging.provider=jdk")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FightServiceBenchmark {
+	// Held so the level isn't lost if the logger is garbage collected
+	private static final Logger APPLICATION_LOGGER = Logger.getLogger("io.quarkus.sample.superheroes");
+
+	private FightService fightService;
+	private Fighters fighters;
+	private Fight fight;
+
+	@Setup
+	public void setup() {
+		APPLICATION_LOGGER.setLevel(Level.WARNING);
+
+		this.fightService = createFightService();
+		this.fighters = new Fighters(
+			new Hero("Super Baguette", 42, "super_baguette.png", "eats baguette really quickly"),
+			new Villain("Super Chocolatine", 42, "super_chocolatine.png", "does not eat pain au chocolat")
+		);
+		this.fight = this.fightService.heroWonFight(this.fighters);
+	}
+
+	@Benchmark
+	public Fight determineWinner() {
+		return this.fightService.determineWinner(this.fighters).await().indefinitely();
+	}
+
+	@Benchmark
+	public boolean shouldHeroWin() {
+		return this.fightService.shouldHeroWin(this.fighters);
+	}
+
+	@Benchmark
+	public Fight heroWonFight() {
+		return this.fightService.heroWonFight(this.fighters);
+	}
+
+	@Benchmark
+	public Fight villainWonFight() {
+		return this.fightService.villainWonFight(this.fighters);
+	}
+
+	@Benchmark
+	public String fightersToString() {
+		return this.fighters.toString();
+	}
+
+	@Benchmark
+	public String fightToString() {
+		return this.fight.toString();
+	}
+
+	/**
+	 * Builds a {@link FightService} configured from {@code application.properties}, without any upstream services or database behind it
+	 */
+	static FightService createFightService() {
+		var fightConfig = FightConfigs.create();
+		var meterRegistry = new SimpleMeterRegistry();
+		var stageMetrics = new StageMetrics(meterRegistry);
+
+		return createFightService(
+			fightConfig,
+			new HeroClient(null, stageMetrics, fightConfig, meterRegistry),
+			new VillainClient(null, stageMetrics, fightConfig, meterRegistry),
+			meterRegistry,
+			stageMetrics
+		);
+	}
+
+	/**
+	 * Builds a {@link FightService} around the given clients, without a database behind it
+	 */
+	static FightService createFightService(FightConfig fightConfig, HeroClient heroClient, VillainClient villainClient, MeterRegistry meterRegistry, StageMetrics stageMetrics) {
+		var fighterReservoirs = new FighterReservoirs(heroClient, villainClient, fightConfig, meterRegistry);
+		var fallbackFighters = new FallbackFighters(fightConfig, ThreadLocalRandomSource.INSTANCE, meterRegistry);
+		var fightCache = new FightCache(fightConfig, meterRegistry);
+		var fightSignal = new FightSignal();
+		var persistedFights = new PersistedFights(fightCache, new FightFeed(fightConfig, meterRegistry), fightSignal, new Leaderboard(fightConfig, meterRegistry));
+		var fightWriteBehind = new FightWriteBehind(fightConfig, persistedFights, meterRegistry);
+
+		return new FightService(
+			heroClient,
+			villainClient,
+			fightConfig,
+			fightWriteBehind,
+			fighterReservoirs,
+			fallbackFighters,
+			fightCache,
+			fightSignal,
+			persistedFights,
+			new BlockingFightService(heroClient, villainClient, fightConfig, fightWriteBehind, fighterReservoirs, fallbackFighters, fightCache, persistedFights, null, stageMetrics),
+			new VirtualThreadExecutor(fightConfig),
+			ThreadLocalRandomSource.INSTANCE,
+			createValidator(),
+			stageMetrics
+		);
+	}
+
+	/**
+	 * Interpolates messages without Expression Language, which isn't on the benchmark classpath
+	 */
+	static Validator createValidator() {
+		return Validation.byDefaultProvider()
+			.configure()
+			.messageInterpolator(new ParameterMessageInterpolator())
+			.buildValidatorFactory()
+			.getValidator();
+	}
+}
@@ -0,0 +1,89 @@
+package io.quarkus.sample.superheroes.fight.service;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.quarkus.sample.superheroes.fight.service.RandomSources.SeededRandomSource;
+import io.quarkus.sample.superheroes.fight.service.RandomSources.ThreadLocalRandomSource;
+
+/**
+ * Compares the {@link RandomSource} implementations against the single {@link Random} that used to be shared by every thread deciding fights.
+ * <p>
+ *   The state is shared by all benchmark threads, the same way a single {@link FightService} is shared by all event loops. Run with {@code ./mvnw -Pbenchmarks test-compile exec:exec -Djmh.args="RandomSourceBenchmark -prof gc"}, adding {@code -t <threads>} to change the contention.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RandomSourceBenchmark {
+	private static final int ADJUST_BOUND = 20;
+
+	@Param({ "sharedRandom", "threadLocal", "seeded" })
+	String source;
+
+	private RandomSource randomSource;
+
+	@Setup
+	public void setup() {
+		switch (this.source) {
+			case "sharedRandom":
+				this.randomSource = new SharedRandomSource();
+				break;
+			case "seeded":
+				this.randomSource = new SeededRandomSource(42);
+				break;
+			default:
+				this.randomSource = ThreadLocalRandomSource.INSTANCE;
+		}
+	}
+
+	/**
+	 * The draws made by {@link FightService#shouldHeroWin(io.quarkus.sample.superheroes.fight.Fighters)}
+	 */
+	@Benchmark
+	public int adjustments() {
+		return this.randomSource.nextInt(ADJUST_BOUND) + this.randomSource.nextInt(ADJUST_BOUND);
+	}
+
+	/**
+	 * The draw made by {@link FightService#getRandomWinner(io.quarkus.sample.superheroes.fight.Fighters)}
+	 */
+	@Benchmark
+	public boolean coinFlip() {
+		return this.randomSource.nextBoolean();
+	}
+
+	/**
+	 * What {@link FightService} did before {@link RandomSource} existed
+	 */
+	private static final class SharedRandomSource implements RandomSource {
+		private final Random random = new Random();
+
+		@Override
+		public int nextInt(int bound) {
+			return this.random.nextInt(bound);
+		}
+
+		@Override
+		public boolean nextBoolean() {
+			return this.random.nextBoolean();
+		}
+	}
+}
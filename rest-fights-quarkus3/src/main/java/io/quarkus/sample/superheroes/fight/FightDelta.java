@@ -0,0 +1,60 @@
+package io.quarkus.sample.superheroes.fight;
+
+import java.util.List;
+
+/**
+ * The {@link Fight}s persisted after a cursor, along with the cursor to pass back in next time to get only the fights persisted after these
+ */
+public class FightDelta {
+	private List<Fight> fights;
+	private String cursor;
+	private boolean more;
+
+	public FightDelta(List<Fight> fights, String cursor, boolean more) {
+		this.fights = fights;
+		this.cursor = cursor;
+		this.more = more;
+	}
+
+	public FightDelta() {
+	}
+
+	public List<Fight> getFights() {
+		return this.fights;
+	}
+
+	public void setFights(List<Fight> fights) {
+		this.fights = fights;
+	}
+
+	/**
+	 * The cursor to pass back in next time. This is the cursor that was passed in if there were no new fights, and {@code null} only if there have never been any fights.
+	 */
+	public String getCursor() {
+		return this.cursor;
+	}
+
+	public void setCursor(String cursor) {
+		this.cursor = cursor;
+	}
+
+	/**
+	 * Whether or not more fights may already be waiting, because as many fights as were asked for were returned
+	 */
+	public boolean isMore() {
+		return this.more;
+	}
+
+	public void setMore(boolean more) {
+		this.more = more;
+	}
+
+	@Override
+	public String toString() {
+		return "FightDelta{" +
+			"fights=" + this.fights +
+			", cursor='" + this.cursor + '\'' +
+			", more=" + this.more +
+			'}';
+	}
+}
@@ -0,0 +1,46 @@
+package io.quarkus.sample.superheroes.fight;
+
+import java.util.List;
+
+/**
+ * A single page of {@link Fight}s, along with an opaque cursor that can be used to fetch the next page
+ */
+public class FightPage {
+	private List<Fight> fights;
+	private String nextCursor;
+
+	public FightPage(List<Fight> fights, String nextCursor) {
+		this.fights = fights;
+		this.nextCursor = nextCursor;
+	}
+
+	public FightPage() {
+	}
+
+	public List<Fight> getFights() {
+		return this.fights;
+	}
+
+	public void setFights(List<Fight> fights) {
+		this.fights = fights;
+	}
+
+	/**
+	 * The cursor to pass back in to retrieve the next page, or {@code null} if this is the last page
+	 */
+	public String getNextCursor() {
+		return this.nextCursor;
+	}
+
+	public void setNextCursor(String nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+
+	@Override
+	public String toString() {
+		return "FightPage{" +
+			"fights=" + this.fights +
+			", nextCursor='" + this.nextCursor + '\'' +
+			'}';
+	}
+}
@@ -0,0 +1,59 @@
+package io.quarkus.sample.superheroes.fight;
+
+/**
+ * The outcome of one of the fights in a batch: either the {@link Fight} that was performed, or the reason it could not be
+ */
+public class FightResult {
+	private Fight fight;
+	private String error;
+
+	public FightResult(Fight fight, String error) {
+		this.fight = fight;
+		this.error = error;
+	}
+
+	public FightResult() {
+	}
+
+	public static FightResult succeeded(Fight fight) {
+		return new FightResult(fight, null);
+	}
+
+	public static FightResult failed(String error) {
+		return new FightResult(null, error);
+	}
+
+	/**
+	 * The fight that was performed, or {@code null} if it failed
+	 */
+	public Fight getFight() {
+		return this.fight;
+	}
+
+	public void setFight(Fight fight) {
+		this.fight = fight;
+	}
+
+	/**
+	 * Why the fight failed, or {@code null} if it succeeded
+	 */
+	public String getError() {
+		return this.error;
+	}
+
+	public void setError(String error) {
+		this.error = error;
+	}
+
+	public boolean isSuccessful() {
+		return this.error == null;
+	}
+
+	@Override
+	public String toString() {
+		return "FightResult{" +
+			"fight=" + this.fight +
+			", error='" + this.error + '\'' +
+			'}';
+	}
+}
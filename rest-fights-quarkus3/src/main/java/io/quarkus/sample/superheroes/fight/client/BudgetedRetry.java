@@ -0,0 +1,119 @@
+package io.quarkus.sample.superheroes.fight.client;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.eclipse.microprofile.faulttolerance.exceptions.CircuitBreakerOpenException;
+
+import io.quarkus.logging.Log;
+import io.quarkus.sample.superheroes.fight.config.FightConfig.Client.Retry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Retries failed requests to a single upstream service with full-jitter exponential backoff, within a {@link TokenBudget} shared by every request to that service.
+ * <p>
+ *   The budget means that when a service starts failing, retries are limited to {@link Retry#budgetPercent()} of the traffic to it rather than multiplying it.
+ *   Failures from an open circuit breaker or a {@link ConcurrencyLimiter} are never retried, since they are already shedding load.
+ *   Retries that would only start after the request's {@link Deadline} has passed are skipped, as is anything once the deadline has been exceeded.
+ * </p>
+ * <p>
+ *   See {@link Retry} for the configuration.
+ * </p>
+ */
+final class BudgetedRetry {
+	private static final Predicate<Throwable> RETRYABLE = failure ->
+		!(failure instanceof CircuitBreakerOpenException) &&
+			!(failure instanceof ConcurrencyLimitExceededException) &&
+			!(failure instanceof DeadlineExceededException);
+
+	private final String upstream;
+	private final Retry config;
+	private final TokenBudget budget;
+	private final Counter retried;
+	private final Counter budgetExhausted;
+	private final Counter retriesExhausted;
+	private final Counter deadlineExceeded;
+
+	BudgetedRetry(String upstream, Retry config, MeterRegistry meterRegistry) {
+		this.upstream = upstream;
+		this.config = config;
+		this.budget = new TokenBudget(config.budgetPercent(), config.budgetMaxTokens());
+		this.retried = meterRegistry.counter("fights.client.retries", "upstream", upstream, "outcome", "retried");
+		this.budgetExhausted = meterRegistry.counter("fights.client.retries", "upstream", upstream, "outcome", "budget_exhausted");
+		this.retriesExhausted = meterRegistry.counter("fights.client.retries", "upstream", upstream, "outcome", "retries_exhausted");
+		this.deadlineExceeded = meterRegistry.counter("fights.client.retries", "upstream", upstream, "outcome", "deadline_exceeded");
+		meterRegistry.gauge("fights.client.retry.budget", Tags.of("upstream", upstream), this.budget, TokenBudget::getAvailableTokens);
+	}
+
+	/**
+	 * Makes a request, retrying it if it fails and the budget allows
+	 * @param attempt Makes a single attempt. Called again for every retry.
+	 */
+	<T> Uni<T> retry(Supplier<Uni<T>> attempt) {
+		return retry(attempt, Deadline.NONE);
+	}
+
+	/**
+	 * Makes a request, retrying it if it fails and both the budget and the {@link Deadline} allow
+	 * @param attempt Makes a single attempt. Called again for every retry.
+	 * @param deadline When the request, including every retry, has to be finished by. Each attempt fails with a {@link DeadlineExceededException} once it has passed.
+	 */
+	<T> Uni<T> retry(Supplier<Uni<T>> attempt, Deadline deadline) {
+		return Uni.createFrom().deferred(() -> {
+			this.budget.deposit();
+			var retries = new int[1];
+
+			return deadline.bound(Uni.createFrom().deferred(attempt))
+				.onFailure(RETRYABLE).retry().when(failures ->
+					failures.onItem().transformToUniAndConcatenate(failure -> {
+						if (retries[0] >= this.config.maxRetries()) {
+							this.retriesExhausted.increment();
+							return Uni.createFrom().<Void>failure(failure);
+						}
+
+						var backoff = backoff(retries[0] + 1);
+
+						if (!deadline.allows(backoff)) {
+							this.deadlineExceeded.increment();
+							Log.debugf("Not retrying request to the %s service, it wouldn't start before the deadline", this.upstream);
+							return Uni.createFrom().<Void>failure(failure);
+						}
+
+						if (!this.budget.tryAcquire()) {
+							this.budgetExhausted.increment();
+							Log.debugf("Not retrying request to the %s service, the retry budget is exhausted", this.upstream);
+							return Uni.createFrom().<Void>failure(failure);
+						}
+
+						retries[0]++;
+						this.retried.increment();
+
+						Log.debugf(failure, "Retrying request to the %s service in %s (retry %d)", this.upstream, backoff, retries[0]);
+
+						return backoff.isZero() ?
+						       Uni.createFrom().voidItem() :
+						       Uni.createFrom().voidItem().onItem().delayIt().by(backoff);
+					})
+				);
+		});
+	}
+
+	/**
+	 * Full jitter: a uniformly random delay between {@code 0} and the exponential backoff for this retry
+	 */
+	Duration backoff(int retry) {
+		var initialNanos = this.config.initialBackoff().toNanos();
+		var maxNanos = this.config.maxBackoff().toNanos();
+		var boundNanos = (retry > 62) || (initialNanos > (maxNanos >> (retry - 1))) ?
+		                 maxNanos :
+		                 Math.min(maxNanos, initialNanos << (retry - 1));
+
+		return Duration.ofNanos((boundNanos > 0) ? ThreadLocalRandom.current().nextLong(boundNanos + 1) : 0);
+	}
+}
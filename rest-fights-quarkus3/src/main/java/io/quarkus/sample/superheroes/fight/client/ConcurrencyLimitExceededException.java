@@ -0,0 +1,11 @@
+package io.quarkus.sample.superheroes.fight.client;
+
+/**
+ * Thrown when a request isn't made because too many requests to the same service are already in flight
+ * @see ConcurrencyLimiter
+ */
+public class ConcurrencyLimitExceededException extends RuntimeException {
+	public ConcurrencyLimitExceededException(String upstream, int limit) {
+		super(String.format("Concurrency limit of %d requests to the %s service exceeded", limit, upstream), null, false, false);
+	}
+}
@@ -0,0 +1,167 @@
+package io.quarkus.sample.superheroes.fight.client;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.eclipse.microprofile.faulttolerance.exceptions.CircuitBreakerOpenException;
+
+import io.quarkus.logging.Log;
+import io.quarkus.sample.superheroes.fight.config.FightConfig.Client.Limiter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Limits the number of concurrent requests to a single upstream service, learning the limit from observed latencies.
+ * <p>
+ *   The limit follows the gradient algorithm: every successful request compares its latency with a long-term average. When latency rises above {@link Limiter#rttTolerance()} times the average, the service is queueing and the limit shrinks in proportion. Otherwise it grows by roughly the square root of the limit.
+ *   The limit only grows while at least half of it is in use, so a quiet period doesn't inflate it.
+ * </p>
+ * <p>
+ *   Requests that fail, or that are given up on (for example by a {@code @Timeout} or a deadline) after taking more than {@link Limiter#rttTolerance()} times the average, are drops: the limit is multiplied by {@link Limiter#backoffRatio()} straight away. A request given up on sooner, for example because the other fighter wasn't found, says nothing about the service and doesn't change the limit.
+ *   Neither does a {@link CircuitBreakerOpenException}, since the request never reached the service.
+ * </p>
+ * <p>
+ *   Requests over the limit fail immediately with a {@link ConcurrencyLimitExceededException}.
+ * </p>
+ * <p>
+ *   Only active when {@code fight.client.limiter.enabled} is {@code true}. See {@link Limiter} for the configuration.
+ * </p>
+ */
+final class ConcurrencyLimiter {
+	private final String upstream;
+	private final Limiter config;
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final Counter rejections;
+	private volatile int limit;
+
+	// Only accessed while synchronized on this
+	private double estimatedLimit;
+	private double longRttNanos;
+	private long samples;
+
+	ConcurrencyLimiter(String upstream, Limiter config, MeterRegistry meterRegistry) {
+		this.upstream = upstream;
+		this.config = config;
+		this.limit = config.initialLimit();
+		this.estimatedLimit = config.initialLimit();
+		this.rejections = meterRegistry.counter("fights.client.limiter.rejections", "upstream", upstream);
+		meterRegistry.gauge("fights.client.limiter.limit", Tags.of("upstream", upstream), this, ConcurrencyLimiter::getLimit);
+		meterRegistry.gauge("fights.client.limiter.inflight", Tags.of("upstream", upstream), this.inFlight);
+	}
+
+	/**
+	 * Makes a request if the limit allows it
+	 * @return The request, or a {@link ConcurrencyLimitExceededException} failure if the limit has been reached
+	 */
+	<T> Uni<T> limit(Supplier<Uni<T>> request) {
+		if (!this.config.enabled()) {
+			return request.get();
+		}
+
+		return Uni.createFrom().deferred(() -> {
+			var currentLimit = this.limit;
+			var inFlightAtStart = tryAcquire(currentLimit);
+
+			if (inFlightAtStart < 0) {
+				this.rejections.increment();
+				Log.debugf("Rejecting request to the %s service, %d requests are already in flight", this.upstream, currentLimit);
+				return Uni.createFrom().failure(new ConcurrencyLimitExceededException(this.upstream, currentLimit));
+			}
+
+			var start = System.nanoTime();
+			var released = new AtomicBoolean();
+
+			return request.get()
+				.onItemOrFailure().invoke((item, failure) -> {
+					if (released.compareAndSet(false, true)) {
+						this.inFlight.decrementAndGet();
+
+						if (failure == null) {
+							onSample(System.nanoTime() - start, inFlightAtStart);
+						}
+						else if (!(failure instanceof CircuitBreakerOpenException)) {
+							onDrop();
+						}
+					}
+				})
+				.onCancellation().invoke(() -> {
+					if (released.compareAndSet(false, true)) {
+						this.inFlight.decrementAndGet();
+						onCancelled(System.nanoTime() - start);
+					}
+				});
+		});
+	}
+
+	int getLimit() {
+		return this.limit;
+	}
+
+	int getInFlight() {
+		return this.inFlight.get();
+	}
+
+	/**
+	 * @return The number of requests in flight including this one, or {@code -1} if the limit has been reached
+	 */
+	private int tryAcquire(int currentLimit) {
+		int current;
+
+		do {
+			current = this.inFlight.get();
+
+			if (current >= currentLimit) {
+				return -1;
+			}
+		} while (!this.inFlight.compareAndSet(current, current + 1));
+
+		return current + 1;
+	}
+
+	synchronized void onSample(long rttNanos, int inFlightAtStart) {
+		if (this.samples++ == 0) {
+			this.longRttNanos = rttNanos;
+		}
+		else {
+			var window = Math.min(this.samples, this.config.longWindow());
+			this.longRttNanos += (rttNanos - this.longRttNanos) / window;
+		}
+
+		// After a sustained rise in latency the long-term average catches up with it, which would hide the queueing.
+		// Pull it back down once latency recovers so the limit can grow again.
+		if (this.longRttNanos > 2 * rttNanos) {
+			this.longRttNanos *= 0.95;
+		}
+
+		// Don't grow the limit when it isn't being used
+		if (inFlightAtStart < this.estimatedLimit / 2) {
+			return;
+		}
+
+		var gradient = Math.max(0.5, Math.min(1.0, this.config.rttTolerance() * this.longRttNanos / rttNanos));
+		var newLimit = (this.estimatedLimit * gradient) + Math.sqrt(this.estimatedLimit);
+		newLimit = (this.estimatedLimit * (1 - this.config.smoothing())) + (newLimit * this.config.smoothing());
+		newLimit = Math.max(this.config.minLimit(), Math.min(this.config.maxLimit(), newLimit));
+
+		this.estimatedLimit = newLimit;
+		this.limit = (int) newLimit;
+	}
+
+	synchronized void onCancelled(long rttNanos) {
+		// Only a request that was already slow was given up on because of the service
+		if ((this.samples > 0) && (rttNanos > this.config.rttTolerance() * this.longRttNanos)) {
+			onDrop();
+		}
+	}
+
+	synchronized void onDrop() {
+		var newLimit = Math.max(this.config.minLimit(), this.estimatedLimit * this.config.backoffRatio());
+
+		this.estimatedLimit = newLimit;
+		this.limit = (int) newLimit;
+	}
+}
@@ -0,0 +1,76 @@
+package io.quarkus.sample.superheroes.fight.client;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import io.smallrye.mutiny.Uni;
+
+/**
+ * The point in time by which a request, and everything it does, has to be finished.
+ * <p>
+ *   A deadline is created once, where a request starts, and handed down to every call made on its behalf, so that each of them only waits for as long as the request as a whole has left.
+ * </p>
+ */
+public final class Deadline {
+	/**
+	 * No deadline: nothing is ever cut short
+	 */
+	public static final Deadline NONE = new Deadline(0);
+
+	private final long expiresAtNanos;
+
+	private Deadline(long expiresAtNanos) {
+		this.expiresAtNanos = expiresAtNanos;
+	}
+
+	/**
+	 * @return A deadline {@code budget} from now
+	 */
+	public static Deadline after(Duration budget) {
+		return new Deadline(System.nanoTime() + budget.toNanos());
+	}
+
+	/**
+	 * @return A deadline {@code budget} from now, or {@link #NONE} if there is no budget
+	 */
+	public static Deadline after(Optional<Duration> budget) {
+		return budget.map(Deadline::after).orElse(NONE);
+	}
+
+	public boolean isNone() {
+		return this == NONE;
+	}
+
+	/**
+	 * @return The time left before the deadline, which is {@link Duration#ZERO} once it has passed
+	 */
+	public Duration remaining() {
+		return isNone() ?
+		       Duration.ofNanos(Long.MAX_VALUE) :
+		       Duration.ofNanos(Math.max(0, this.expiresAtNanos - System.nanoTime()));
+	}
+
+	/**
+	 * @return {@code true} if waiting for {@code delay} would still leave some time before the deadline
+	 */
+	public boolean allows(Duration delay) {
+		return isNone() || (this.expiresAtNanos - System.nanoTime() > delay.toNanos());
+	}
+
+	/**
+	 * Fails {@code uni} with a {@link DeadlineExceededException} if it hasn't produced its item by the deadline
+	 */
+	public <T> Uni<T> bound(Uni<T> uni) {
+		if (isNone()) {
+			return uni;
+		}
+
+		return Uni.createFrom().deferred(() -> {
+			var remaining = remaining();
+
+			return remaining.isZero() ?
+			       Uni.createFrom().failure(new DeadlineExceededException()) :
+			       uni.ifNoItem().after(remaining).failWith(DeadlineExceededException::new);
+		});
+	}
+}
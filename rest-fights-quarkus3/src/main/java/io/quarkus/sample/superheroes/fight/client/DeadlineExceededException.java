@@ -0,0 +1,10 @@
+package io.quarkus.sample.superheroes.fight.client;
+
+/**
+ * Thrown when work doesn't finish before its {@link Deadline}
+ */
+public class DeadlineExceededException extends RuntimeException {
+	public DeadlineExceededException() {
+		super("Deadline exceeded", null, false, false);
+	}
+}
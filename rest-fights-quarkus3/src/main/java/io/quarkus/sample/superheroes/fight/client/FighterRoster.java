@@ -0,0 +1,136 @@
+package io.quarkus.sample.superheroes.fight.client;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import io.quarkus.logging.Log;
+import io.quarkus.sample.superheroes.fight.config.FightConfig.Client.Roster;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.Cancellable;
+
+/**
+ * In-memory copy of every fighter of a single kind that an upstream service has, so random fighters can be picked locally instead of asking the service for each one.
+ * <p>
+ *   The whole roster is fetched in one request, and fetched again every {@link Roster#refreshInterval()}. Each refresh builds a new array and swaps it in, so picking a fighter never waits on a refresh. If a refresh fails the previous roster is kept.
+ *   Rosters bigger than {@link Roster#maxSize()} are cut down to a random sample of that size.
+ * </p>
+ * <p>
+ *   Only active when {@code fight.client.roster.enabled} is {@code true}. See {@link Roster} for the configuration.
+ * </p>
+ * @param <T> The kind of fighter
+ */
+final class FighterRoster<T> {
+	private static final Object[] NOT_LOADED = new Object[0];
+
+	private final String upstream;
+	private final Supplier<Uni<List<T>>> fetcher;
+	private final Roster config;
+	private final Counter successfulRefreshes;
+	private final Counter failedRefreshes;
+	private volatile Object[] fighters = NOT_LOADED;
+	private volatile Cancellable ticker;
+
+	FighterRoster(String upstream, Supplier<Uni<List<T>>> fetcher, Roster config, MeterRegistry meterRegistry) {
+		this.upstream = upstream;
+		this.fetcher = fetcher;
+		this.config = config;
+		this.successfulRefreshes = meterRegistry.counter("fights.client.roster.refreshes", "upstream", upstream, "outcome", "success");
+		this.failedRefreshes = meterRegistry.counter("fights.client.roster.refreshes", "upstream", upstream, "outcome", "failure");
+		meterRegistry.gauge("fights.client.roster.size", Tags.of("upstream", upstream), this, roster -> roster.fighters.length);
+	}
+
+	/**
+	 * Loads the roster and starts refreshing it, if enabled
+	 */
+	void start() {
+		if (this.config.enabled()) {
+			Log.infof("%s roster enabled: refreshed every %s", this.upstream, this.config.refreshInterval());
+
+			refresh().subscribe().with(ignored -> {});
+
+			this.ticker = Multi.createFrom().ticks().every(this.config.refreshInterval())
+				.onOverflow().drop()
+				.onItem().transformToUniAndConcatenate(tick -> refresh())
+				.subscribe().with(ignored -> {});
+		}
+	}
+
+	void stop() {
+		if (this.ticker != null) {
+			this.ticker.cancel();
+		}
+	}
+
+	/**
+	 * @return {@code true} once the roster has been fetched at least once, even if it turned out to be empty
+	 */
+	boolean isLoaded() {
+		return this.fighters != NOT_LOADED;
+	}
+
+	/**
+	 * Picks a random fighter from the roster
+	 * @return A fighter, or {@code null} if the roster is empty or hasn't been loaded yet
+	 */
+	@SuppressWarnings("unchecked")
+	T pick() {
+		var current = this.fighters;
+
+		return (current.length > 0) ?
+		       (T) current[ThreadLocalRandom.current().nextInt(current.length)] :
+		       null;
+	}
+
+	int size() {
+		return this.fighters.length;
+	}
+
+	/**
+	 * Fetches the roster and swaps it in. Never fails: a failed fetch keeps the previous roster.
+	 */
+	Uni<Void> refresh() {
+		return Uni.createFrom().deferred(this.fetcher)
+			.invoke(fetched -> {
+				this.fighters = toArray(fetched);
+				this.successfulRefreshes.increment();
+				Log.debugf("Refreshed %s roster with %d fighters", this.upstream, this.fighters.length);
+			})
+			.onFailure().invoke(failure -> {
+				this.failedRefreshes.increment();
+				Log.warnf(failure, "Failed refreshing %s roster, keeping the %d fighters already loaded", this.upstream, this.fighters.length);
+			})
+			.replaceWithVoid()
+			.onFailure().recoverWithNull();
+	}
+
+	private Object[] toArray(List<T> fetched) {
+		if (fetched == null) {
+			// The service answered without a body, which means it has no fighters
+			return new Object[0];
+		}
+
+		var all = fetched.toArray();
+
+		if (all.length <= this.config.maxSize()) {
+			return all;
+		}
+
+		// Partial Fisher-Yates shuffle, which leaves a uniform random sample at the start of the array
+		var random = ThreadLocalRandom.current();
+		var sample = new Object[this.config.maxSize()];
+
+		for (var i = 0; i < sample.length; i++) {
+			var j = i + random.nextInt(all.length - i);
+			sample[i] = all[j];
+			all[j] = all[i];
+		}
+
+		return sample;
+	}
+}
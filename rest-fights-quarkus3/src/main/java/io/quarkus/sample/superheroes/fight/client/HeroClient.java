@@ -3,12 +3,19 @@ package io.quarkus.sample.superheroes.fight.client;
 import java.time.temporal.ChronoUnit;
 
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
 
 import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
-import org.eclipse.microprofile.faulttolerance.Retry;
 
 import io.quarkus.logging.Log;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.sample.superheroes.fight.config.FightConfig;
+import io.quarkus.sample.superheroes.fight.metrics.StageMetrics;
+import io.quarkus.sample.superheroes.fight.metrics.StageTimer;
+import io.quarkus.sample.superheroes.fight.metrics.StageTimer.Outcome;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import io.smallrye.faulttolerance.api.CircuitBreakerName;
 import io.smallrye.mutiny.Uni;
 
@@ -18,32 +25,86 @@ import io.smallrye.mutiny.Uni;
 @ApplicationScoped
 public class HeroClient {
 	private final HeroRestClient heroClient;
+	private final StageTimer attemptTimer;
+	private final RequestHedger hedger;
+	private final BudgetedRetry retry;
+	private final ConcurrencyLimiter limiter;
+	private final SingleFlight<String> hello;
+	private final NegativeCache notFound;
+	private final FighterRoster<Hero> roster;
 
-	public HeroClient(HeroRestClient heroClient) {
+	public HeroClient(HeroRestClient heroClient, StageMetrics stageMetrics, FightConfig fightConfig, MeterRegistry meterRegistry) {
 		this.heroClient = heroClient;
+		this.attemptTimer = stageMetrics.stage("hero.attempt", Outcome.SUCCESS, Outcome.NOT_FOUND, Outcome.FAILURE, Outcome.ROSTER);
+		this.hedger = new RequestHedger("hero", fightConfig.client().hedging(), meterRegistry);
+		this.retry = new BudgetedRetry("hero", fightConfig.client().retry(), meterRegistry);
+		this.limiter = new ConcurrencyLimiter("hero", fightConfig.client().limiter(), meterRegistry);
+		this.hello = new SingleFlight<>("hero", () -> this.heroClient.hello(), fightConfig.client().hello(), meterRegistry);
+		this.notFound = new NegativeCache("hero", fightConfig.client().notFound(), meterRegistry);
+		this.roster = new FighterRoster<>("hero", () -> this.heroClient.findAllHeroes(), fightConfig.client().roster(), meterRegistry);
+	}
+
+	void onStart(@Observes StartupEvent startupEvent) {
+		this.roster.start();
+	}
+
+	void onStop(@Observes ShutdownEvent shutdownEvent) {
+		this.roster.stop();
 	}
 
 	/**
-	 * Finds a random {@link Hero}. The retry logic is applied to the result of the {@link CircuitBreaker}, meaning that retries that return failures could trigger the breaker to open.
+	 * Finds a random {@link Hero}. The retry logic (see {@link BudgetedRetry}) is applied to the result of the {@link CircuitBreaker}, meaning that retries that return failures could trigger the breaker to open.
+	 * <p>
+	 *   After the service has had no {@link Hero} to return, requests are skipped and find nothing for a while (see {@link NegativeCache}).
+	 *   Once the roster of heroes has been loaded (see {@link FighterRoster}) the {@link Hero} is picked from it without making any request, and timed as the {@code roster} outcome of the {@code hero.attempt} stage.
+	 * </p>
 	 * @return A random {@link Hero}
 	 */
+	public Uni<Hero> findRandomHero() {
+		return findRandomHero(Deadline.NONE);
+	}
+
+	/**
+	 * Finds a random {@link Hero}, like {@link #findRandomHero()}, without going past {@code deadline}. Retries that wouldn't start before the deadline are skipped.
+	 * @return A random {@link Hero}, or a {@link DeadlineExceededException} failure if the deadline passes first
+	 */
+	public Uni<Hero> findRandomHero(Deadline deadline) {
+		if (this.roster.isLoaded()) {
+			return this.attemptTimer.time(() -> Uni.createFrom().item(this.roster::pick), Outcome.ROSTER, Outcome.ROSTER, Outcome.FAILURE);
+		}
+
+		return this.notFound.guard(() -> this.retry.retry(() -> this.limiter.limit(this::findRandomHeroAttempt), deadline));
+	}
+
+	/**
+	 * A single attempt at finding a random {@link Hero}, timed as the {@code hero.attempt} stage. The attempt may be hedged (see {@link RequestHedger}).
+	 * <p>
+	 *   Attempts go through the {@link ConcurrencyLimiter} before reaching the circuit breaker, so an attempt rejected because too many are already in flight never reaches the breaker and isn't counted by it, as either a success or a failure. Nor is it retried.
+	 * </p>
+	 */
   @CircuitBreaker(requestVolumeThreshold = 8, failureRatio = 0.5, delay = 2, delayUnit = ChronoUnit.SECONDS)
 	@CircuitBreakerName("findRandomHero")
-  @Retry(maxRetries = 3, delay = 200, delayUnit = ChronoUnit.MILLIS)
-	public Uni<Hero> findRandomHero() {
+	Uni<Hero> findRandomHeroAttempt() {
 		// Want the 404 handling to be part of the circuit breaker
 		// This means that the 404 responses aren't considered errors by the circuit breaker
     Log.debug("Making request to hero service to find random hero");
-		return this.heroClient.findRandomHero()
-			.onFailure(Is404Exception.IS_404).recoverWithNull();
+		return this.attemptTimer.time(
+			() -> this.hedger.hedge(() ->
+				this.heroClient.findRandomHero()
+					.onFailure(Is404Exception.IS_404).recoverWithNull()
+			),
+			Outcome.SUCCESS,
+			Outcome.NOT_FOUND,
+			Outcome.FAILURE
+		);
 	}
   
 	/**
-	 * Calls hello on the Heroes service.
+	 * Calls hello on the Heroes service. Concurrent callers share a single call, and its outcome is reused for a short while (see {@link SingleFlight}).
 	 * @return A "hello" from Heroes
 	 */
 	public Uni<String> helloHeroes() {
     Log.debug("Pinging hero service");
-		return heroClient.hello();
+		return this.hello.get();
 	}
 }
@@ -1,5 +1,7 @@
 package io.quarkus.sample.superheroes.fight.client;
 
+import java.util.List;
+
 import jakarta.enterprise.context.ApplicationScoped;
 
 import io.smallrye.mutiny.Uni;
@@ -20,7 +22,16 @@ class HeroRestClient {
 	Uni<Hero> findRandomHero() {
     return Uni.createFrom().item(new Hero("Superman", 1000, "", "Super strong"));
   }
-  
+
+	/**
+	 * HTTP <code>GET</code> call to {@code /api/heroes} on the Heroes service
+	 * @return Every {@link Hero}
+	 * @see FighterRoster
+	 */
+	Uni<List<Hero>> findAllHeroes() {
+		return Uni.createFrom().item(List.of(new Hero("Superman", 1000, "", "Super strong")));
+	}
+
 	/**
 	 * HTTP <code>GET</code> call to {@code /api/heroes/hello} on the Heroes service
 	 * @return A "hello" from Heroes
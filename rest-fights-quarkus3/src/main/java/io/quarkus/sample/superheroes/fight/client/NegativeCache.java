@@ -0,0 +1,104 @@
+package io.quarkus.sample.superheroes.fight.client;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import io.quarkus.logging.Log;
+import io.quarkus.sample.superheroes.fight.config.FightConfig.Client.NotFound;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Remembers that an upstream service had nothing to return (a {@code 404}, which the clients turn into {@code null}), so that requests to it can be skipped for a while.
+ * <p>
+ *   After a request returns {@code null}, every request answers {@code null} straight away for {@link NotFound#ttl()}. Once that has passed, a single probe request is sent in the background while other requests keep answering {@code null}.
+ *   If the probe finds something, requests go to the service again. If it finds nothing, or fails, requests are skipped for another {@link NotFound#ttl()}.
+ *   A failed probe says nothing about whether the service has anything to return yet, so it isn't treated as finding something: that would send every waiting request to a service that may well still be empty, or down.
+ * </p>
+ * <p>
+ *   Only active when {@code fight.client.not-found.enabled} is {@code true}. See {@link NotFound} for the configuration.
+ * </p>
+ */
+final class NegativeCache {
+	private final String upstream;
+	private final NotFound config;
+	private final AtomicBoolean probing = new AtomicBoolean();
+	private final Counter hits;
+	private final Counter probes;
+
+	// 0 when requests aren't being skipped
+	private volatile long notFoundUntilNanos;
+
+	NegativeCache(String upstream, NotFound config, MeterRegistry meterRegistry) {
+		this.upstream = upstream;
+		this.config = config;
+		this.hits = meterRegistry.counter("fights.client.not_found.cache", "upstream", upstream, "outcome", "hit");
+		this.probes = meterRegistry.counter("fights.client.not_found.cache", "upstream", upstream, "outcome", "probe");
+	}
+
+	/**
+	 * Makes a request, unless the service recently had nothing to return
+	 * @return The request, or {@code null} if it was skipped
+	 */
+	<T> Uni<T> guard(Supplier<Uni<T>> request) {
+		if (!this.config.enabled()) {
+			return request.get();
+		}
+
+		return Uni.createFrom().deferred(() -> {
+			var notFoundUntil = this.notFoundUntilNanos;
+
+			if (notFoundUntil == 0) {
+				return request.get()
+					.invoke(this::onResult);
+			}
+
+			if ((System.nanoTime() - notFoundUntil >= 0) && this.probing.compareAndSet(false, true)) {
+				probe(request);
+			}
+
+			this.hits.increment();
+			return Uni.createFrom().nullItem();
+		});
+	}
+
+	boolean isNotFound() {
+		return this.notFoundUntilNanos != 0;
+	}
+
+	private <T> void probe(Supplier<Uni<T>> request) {
+		Log.debugf("Probing the %s service to see if it has anything to return yet", this.upstream);
+		this.probes.increment();
+
+		request.get()
+			.subscribe().with(
+				item -> {
+					onResult(item);
+					this.probing.set(false);
+				},
+				failure -> {
+					// Keep skipping requests until the next probe rather than letting them all through to find out
+					Log.debugf(failure, "Probe of the %s service failed, skipping requests to it for another %s", this.upstream, this.config.ttl());
+					skip();
+					this.probing.set(false);
+				}
+			);
+	}
+
+	private void onResult(Object item) {
+		if (item == null) {
+			Log.debugf("The %s service has nothing to return, skipping requests to it for %s", this.upstream, this.config.ttl());
+			skip();
+		}
+		else {
+			this.notFoundUntilNanos = 0;
+		}
+	}
+
+	private void skip() {
+		// 0 is reserved for "not skipping"
+		this.notFoundUntilNanos = (System.nanoTime() + this.config.ttl().toNanos()) | 1;
+	}
+}
@@ -0,0 +1,222 @@
+package io.quarkus.sample.superheroes.fight.client;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+import io.quarkus.logging.Log;
+import io.quarkus.sample.superheroes.fight.config.FightConfig.Client.Hedging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.Cancellable;
+import io.smallrye.mutiny.subscription.UniEmitter;
+
+/**
+ * Hedges requests to a single upstream service: if a request hasn't answered within a percentile of recent latencies, a second identical request is sent and whichever answers first with an item wins. The other one is cancelled.
+ * <p>
+ *   Hedged requests are capped by a {@link TokenBudget}, so a slow upstream sees at most {@link Hedging#budgetPercent()} extra traffic.
+ *   A request only fails once every request that was sent for it has failed, and then with the original request's failure, so hedging never turns a success into a failure.
+ * </p>
+ * <p>
+ *   Latencies are measured from when the caller made the request, so an answer to a hedged request includes the delay before it was sent. A request that is cancelled before it answers, for example by a deadline, still counts the time it had been waiting, so that cut-off slow requests keep pushing the delay up.
+ * </p>
+ * <p>
+ *   Only active when {@code fight.client.hedging.enabled} is {@code true}. See {@link Hedging} for the configuration.
+ * </p>
+ */
+final class RequestHedger {
+	private final String upstream;
+	private final Hedging config;
+	private final TokenBudget budget;
+	private final AtomicLongArray latencies;
+	private final AtomicLong latencyCount = new AtomicLong();
+	private final int recomputeEvery;
+	private final Counter hedgesSent;
+	private final Counter hedgesWon;
+	private final Counter hedgesDenied;
+	private volatile Duration delay;
+
+	RequestHedger(String upstream, Hedging config, MeterRegistry meterRegistry) {
+		this.upstream = upstream;
+		this.config = config;
+		this.budget = new TokenBudget(config.budgetPercent(), config.budgetMaxTokens());
+		this.latencies = new AtomicLongArray(config.windowSize());
+		this.recomputeEvery = Math.max(1, config.windowSize() / 10);
+		this.delay = config.initialDelay();
+		this.hedgesSent = meterRegistry.counter("fights.client.hedges", "upstream", upstream, "outcome", "sent");
+		this.hedgesWon = meterRegistry.counter("fights.client.hedges", "upstream", upstream, "outcome", "won");
+		this.hedgesDenied = meterRegistry.counter("fights.client.hedges", "upstream", upstream, "outcome", "budget_exhausted");
+		meterRegistry.gauge("fights.client.hedge.delay", Tags.of("upstream", upstream), this, hedger -> hedger.delay.toNanos() / 1e9);
+		meterRegistry.gauge("fights.client.hedge.budget", Tags.of("upstream", upstream), this.budget, TokenBudget::getAvailableTokens);
+	}
+
+	/**
+	 * Makes a request, hedging it if enabled
+	 * @param request Makes the request. Called once for the original request and once more if it is hedged, so it must be safe to repeat.
+	 */
+	<T> Uni<T> hedge(Supplier<Uni<T>> request) {
+		if (!this.config.enabled()) {
+			return request.get();
+		}
+
+		return Uni.createFrom().<T>emitter(emitter -> new Race<>(request, emitter).start());
+	}
+
+	Duration getDelay() {
+		return this.delay;
+	}
+
+	private void recordLatency(long nanos) {
+		var count = this.latencyCount.getAndIncrement();
+		this.latencies.set((int) (count % this.latencies.length()), nanos);
+
+		if ((count + 1 >= this.latencies.length()) && ((count + 1) % this.recomputeEvery == 0)) {
+			recomputeDelay();
+		}
+	}
+
+	/**
+	 * Sorts a copy of the window, which is cheap enough when only done every {@link #recomputeEvery} requests
+	 */
+	private void recomputeDelay() {
+		var window = new long[this.latencies.length()];
+
+		for (var i = 0; i < window.length; i++) {
+			window[i] = this.latencies.get(i);
+		}
+
+		Arrays.sort(window);
+
+		var index = (int) Math.ceil(this.config.percentile() * window.length) - 1;
+		var percentileNanos = window[Math.max(0, Math.min(window.length - 1, index))];
+		var clamped = Math.max(this.config.minDelay().toNanos(), Math.min(this.config.maxDelay().toNanos(), percentileNanos));
+
+		this.delay = Duration.ofNanos(clamped);
+		Log.debugf("Hedging requests to the %s service after %d ms", this.upstream, TimeUnit.NANOSECONDS.toMillis(clamped));
+	}
+
+	/**
+	 * The original request and, once {@link #delay} has passed without an answer, the hedged one, racing to answer a single caller
+	 */
+	private final class Race<T> {
+		private final Supplier<Uni<T>> request;
+		private final UniEmitter<? super T> emitter;
+		private final long start = System.nanoTime();
+		private final AtomicBoolean done = new AtomicBoolean();
+		// Requests that have been or are about to be sent, and haven't failed yet
+		private final AtomicInteger pending = new AtomicInteger(1);
+		private final Queue<Cancellable> cancellables = new ConcurrentLinkedQueue<>();
+		private volatile Throwable originalFailure;
+
+		private Race(Supplier<Uni<T>> request, UniEmitter<? super T> emitter) {
+			this.request = request;
+			this.emitter = emitter;
+		}
+
+		void start() {
+			budget.deposit();
+			this.emitter.onTermination(this::terminated);
+			this.cancellables.add(
+				this.request.get()
+					.subscribe().with(item -> answered(item, false), this::originalFailed)
+			);
+			this.cancellables.add(
+				Uni.createFrom().voidItem()
+					.onItem().delayIt().by(delay)
+					.subscribe().with(ignored -> sendHedge())
+			);
+
+			// The original request may have answered before anything could be cancelled
+			if (this.done.get()) {
+				cancelAll();
+			}
+		}
+
+		private void sendHedge() {
+			this.pending.incrementAndGet();
+
+			if (this.done.get()) {
+				return;
+			}
+
+			if (!budget.tryAcquire()) {
+				hedgesDenied.increment();
+				noAnswer();
+				return;
+			}
+
+			Log.debugf("No answer from the %s service within %s, hedging the request", upstream, delay);
+			hedgesSent.increment();
+
+			this.cancellables.add(
+				this.request.get()
+					.subscribe().with(item -> answered(item, true), this::hedgeFailed)
+			);
+
+			if (this.done.get()) {
+				cancelAll();
+			}
+		}
+
+		private void answered(T item, boolean hedged) {
+			if (this.done.compareAndSet(false, true)) {
+				recordLatency(System.nanoTime() - this.start);
+
+				if (hedged) {
+					hedgesWon.increment();
+				}
+
+				this.emitter.complete(item);
+			}
+		}
+
+		private void originalFailed(Throwable failure) {
+			this.originalFailure = failure;
+			noAnswer();
+		}
+
+		private void hedgeFailed(Throwable failure) {
+			Log.debugf(failure, "Hedged request to the %s service failed", upstream);
+			noAnswer();
+		}
+
+		/**
+		 * One request failed or wasn't sent. The original request fails once there are none left.
+		 */
+		private void noAnswer() {
+			if ((this.pending.decrementAndGet() == 0) && this.done.compareAndSet(false, true)) {
+				this.emitter.fail(this.originalFailure);
+			}
+		}
+
+		/**
+		 * Cancels whatever is still running once the caller has an outcome, or has gone away
+		 */
+		private void terminated() {
+			if (this.done.compareAndSet(false, true)) {
+				// Cancelled before any answer, so this is how long the caller waited for nothing
+				recordLatency(System.nanoTime() - this.start);
+			}
+
+			cancelAll();
+		}
+
+		private void cancelAll() {
+			Cancellable cancellable;
+
+			while ((cancellable = this.cancellables.poll()) != null) {
+				cancellable.cancel();
+			}
+		}
+	}
+}
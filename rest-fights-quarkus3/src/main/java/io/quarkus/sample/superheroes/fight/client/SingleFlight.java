@@ -0,0 +1,93 @@
+package io.quarkus.sample.superheroes.fight.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import io.quarkus.logging.Log;
+import io.quarkus.sample.superheroes.fight.config.FightConfig.Client.Hello;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Shares a single call to an upstream service between every concurrent caller, and keeps its item for {@link Hello#ttl()} afterwards.
+ * <p>
+ *   Callers that arrive while a call is in flight wait for that call rather than making their own. Callers that arrive within {@link Hello#ttl()} of it answering get the same item. So however many callers there are, the upstream sees at most one successful call per interval.
+ * </p>
+ * <p>
+ *   Failures are shared with the callers already waiting, but never kept: the next caller makes a new call, so a single failure doesn't stick for the whole {@link Hello#ttl()}.
+ * </p>
+ * <p>
+ *   A caller that gives up (for example because of a {@code @Timeout}) doesn't cancel the shared call, so the next caller can still use it. The shared call is itself bounded by {@link Hello#timeout()} so that a call that never answers can't hold everyone up forever.
+ * </p>
+ * <p>
+ *   See {@link Hello} for the configuration.
+ * </p>
+ */
+final class SingleFlight<T> {
+	private final String upstream;
+	private final Supplier<Uni<T>> call;
+	private final Hello config;
+	private final Counter calls;
+	private final Counter coalesced;
+	private final Counter cached;
+
+	// Only accessed while synchronized on this
+	private CompletableFuture<T> current;
+	private long completedAt;
+
+	SingleFlight(String upstream, Supplier<Uni<T>> call, Hello config, MeterRegistry meterRegistry) {
+		this.upstream = upstream;
+		this.call = call;
+		this.config = config;
+		this.calls = meterRegistry.counter("fights.client.hello", "upstream", upstream, "outcome", "called");
+		this.coalesced = meterRegistry.counter("fights.client.hello", "upstream", upstream, "outcome", "coalesced");
+		this.cached = meterRegistry.counter("fights.client.hello", "upstream", upstream, "outcome", "cached");
+	}
+
+	/**
+	 * @return The outcome of the shared call, making a new one if there isn't one in flight or recently completed
+	 */
+	Uni<T> get() {
+		// Each caller gets its own copy, so cancelling it leaves the shared call running
+		return Uni.createFrom().deferred(() -> Uni.createFrom().completionStage(acquire().copy()));
+	}
+
+	private synchronized CompletableFuture<T> acquire() {
+		if (this.current != null) {
+			if (!this.current.isDone()) {
+				this.coalesced.increment();
+				return this.current;
+			}
+
+			if ((System.nanoTime() - this.completedAt) < this.config.ttl().toNanos()) {
+				this.cached.increment();
+				return this.current;
+			}
+		}
+
+		Log.debugf("Calling hello on the %s service", this.upstream);
+		this.calls.increment();
+
+		var future = this.call.get()
+			.ifNoItem().after(this.config.timeout()).fail()
+			.subscribeAsCompletionStage();
+
+		this.current = future;
+		future.whenComplete((item, failure) -> completed(future, failure));
+
+		return future;
+	}
+
+	private synchronized void completed(CompletableFuture<T> future, Throwable failure) {
+		if (this.current == future) {
+			if (failure != null) {
+				this.current = null;
+			}
+			else {
+				this.completedAt = System.nanoTime();
+			}
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package io.quarkus.sample.superheroes.fight.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket that caps extra requests, such as retries or hedged requests, at a percentage of the requests made.
+ * <p>
+ *   Every request {@link #deposit() deposits} a fraction of a token and every extra request {@link #tryAcquire() spends} a whole one, so over time extra requests can't exceed that fraction of traffic.
+ *   The bucket starts full, and it holds at most {@code maxTokens}, which bounds how many extra requests can be sent in a burst.
+ * </p>
+ */
+final class TokenBudget {
+	// Tokens are held in thousandths so they can be updated atomically without floating point
+	private static final long TOKEN = 1000;
+
+	private final long maxMilliTokens;
+	private final long depositMilliTokens;
+	private final AtomicLong milliTokens;
+
+	/**
+	 * @param percent The percentage of a token each request deposits
+	 * @param maxTokens The most tokens that can be held
+	 */
+	TokenBudget(int percent, int maxTokens) {
+		this.maxMilliTokens = maxTokens * TOKEN;
+		this.depositMilliTokens = (percent * TOKEN) / 100;
+		this.milliTokens = new AtomicLong(this.maxMilliTokens);
+	}
+
+	void deposit() {
+		long current;
+		long updated;
+
+		do {
+			current = this.milliTokens.get();
+			updated = Math.min(this.maxMilliTokens, current + this.depositMilliTokens);
+		} while ((current != updated) && !this.milliTokens.compareAndSet(current, updated));
+	}
+
+	/**
+	 * Spends a token if one is available
+	 * @return Whether a token was spent
+	 */
+	boolean tryAcquire() {
+		long current;
+
+		do {
+			current = this.milliTokens.get();
+
+			if (current < TOKEN) {
+				return false;
+			}
+		} while (!this.milliTokens.compareAndSet(current, current - TOKEN));
+
+		return true;
+	}
+
+	double getAvailableTokens() {
+		return (double) this.milliTokens.get() / TOKEN;
+	}
+}
@@ -0,0 +1,18 @@
+package io.quarkus.sample.superheroes.fight.client;
+
+/**
+ * Thrown when a service answers with an HTTP status other than {@code 200}
+ * @see VillainRestClient
+ */
+public class UnexpectedStatusException extends RuntimeException {
+	private final int status;
+
+	public UnexpectedStatusException(String upstream, int status) {
+		super(String.format("The %s service answered with HTTP status %d", upstream, status), null, false, false);
+		this.status = status;
+	}
+
+	public int getStatus() {
+		return this.status;
+	}
+}
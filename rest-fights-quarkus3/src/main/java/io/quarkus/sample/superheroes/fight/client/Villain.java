@@ -3,9 +3,12 @@ package io.quarkus.sample.superheroes.fight.client;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
 /**
- * POJO representing a Villain response from the Villain service
+ * POJO representing a Villain response from the Villain service. Fields that the service sends but that fights don't need, such as its id, are ignored.
  */
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class Villain {
 	@NotEmpty
 	private String name;
@@ -3,40 +3,110 @@ package io.quarkus.sample.superheroes.fight.client;
 import java.time.temporal.ChronoUnit;
 
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
 
 import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
-import org.eclipse.microprofile.faulttolerance.Retry;
 
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.sample.superheroes.fight.config.FightConfig;
+import io.quarkus.sample.superheroes.fight.metrics.StageMetrics;
+import io.quarkus.sample.superheroes.fight.metrics.StageTimer;
+import io.quarkus.sample.superheroes.fight.metrics.StageTimer.Outcome;
+
+import io.micrometer.core.instrument.MeterRegistry;
 import io.smallrye.faulttolerance.api.CircuitBreakerName;
 import io.smallrye.mutiny.Uni;
 
 /**
  * Bean to be used for interacting with the Villain service.
  * <p>
- *   Uses the <a href="https://docs.oracle.com/javaee/7/tutorial/jaxrs-client001.htm">JAX-RS Rest Client</a> with the <a href="https://quarkus.io/guides/resteasy-reactive#resteasy-reactive-client">RESTEasy Reactive client</a>.
+ *   Makes its requests through {@link VillainRestClient}.
  * </p>
  */
 @ApplicationScoped
 public class VillainClient {
+  private final VillainRestClient villainClient;
+  private final StageTimer attemptTimer;
+  private final RequestHedger hedger;
+  private final BudgetedRetry retry;
+  private final ConcurrencyLimiter limiter;
+  private final SingleFlight<String> hello;
+  private final NegativeCache notFound;
+  private final FighterRoster<Villain> roster;
+
+  public VillainClient(VillainRestClient villainClient, StageMetrics stageMetrics, FightConfig fightConfig, MeterRegistry meterRegistry) {
+    this.villainClient = villainClient;
+    this.attemptTimer = stageMetrics.stage("villain.attempt", Outcome.SUCCESS, Outcome.NOT_FOUND, Outcome.FAILURE, Outcome.ROSTER);
+    this.hedger = new RequestHedger("villain", fightConfig.client().hedging(), meterRegistry);
+    this.retry = new BudgetedRetry("villain", fightConfig.client().retry(), meterRegistry);
+    this.limiter = new ConcurrencyLimiter("villain", fightConfig.client().limiter(), meterRegistry);
+    this.hello = new SingleFlight<>("villain", () -> this.villainClient.hello(), fightConfig.client().hello(), meterRegistry);
+    this.notFound = new NegativeCache("villain", fightConfig.client().notFound(), meterRegistry);
+    this.roster = new FighterRoster<>("villain", () -> this.villainClient.findAllVillains(), fightConfig.client().roster(), meterRegistry);
+  }
+
+  void onStart(@Observes StartupEvent startupEvent) {
+    this.roster.start();
+  }
+
+  void onStop(@Observes ShutdownEvent shutdownEvent) {
+    this.roster.stop();
+  }
+
   /**
-   * Finds a random {@link Villain}. The retry logic is applied to the result of the {@link CircuitBreaker}, meaning that retries that return failures could trigger the breaker to open.
+   * Finds a random {@link Villain}. The retry logic (see {@link BudgetedRetry}) is applied to the result of the {@link CircuitBreaker}, meaning that retries that return failures could trigger the breaker to open.
+   * <p>
+   *   After the service has had no {@link Villain} to return, requests are skipped and find nothing for a while (see {@link NegativeCache}).
+   *   Once the roster of villains has been loaded (see {@link FighterRoster}) the {@link Villain} is picked from it without making any request, and timed as the {@code roster} outcome of the {@code villain.attempt} stage.
+   * </p>
    * @return A random {@link Villain}
    */
+  public Uni<Villain> findRandomVillain() {
+    return findRandomVillain(Deadline.NONE);
+  }
+
+  /**
+   * Finds a random {@link Villain}, like {@link #findRandomVillain()}, without going past {@code deadline}. Retries that wouldn't start before the deadline are skipped.
+   * @return A random {@link Villain}, or a {@link DeadlineExceededException} failure if the deadline passes first
+   */
+  public Uni<Villain> findRandomVillain(Deadline deadline) {
+    if (this.roster.isLoaded()) {
+      return this.attemptTimer.time(() -> Uni.createFrom().item(this.roster::pick), Outcome.ROSTER, Outcome.ROSTER, Outcome.FAILURE);
+    }
+
+    return this.notFound.guard(() -> this.retry.retry(() -> this.limiter.limit(this::findRandomVillainAttempt), deadline));
+  }
+
+  /**
+   * A single attempt at finding a random {@link Villain}, timed as the {@code villain.attempt} stage. The attempt may be hedged (see {@link RequestHedger}).
+   * <p>
+   *   Attempts go through the {@link ConcurrencyLimiter} before reaching the circuit breaker, so an attempt rejected because too many are already in flight never reaches the breaker and isn't counted by it, as either a success or a failure. Nor is it retried.
+   * </p>
+   */
   @CircuitBreaker(requestVolumeThreshold = 8, failureRatio = 0.5, delay = 2, delayUnit = ChronoUnit.SECONDS)
   @CircuitBreakerName("findRandomVillain")
-  @Retry(maxRetries = 3, delay = 200, delayUnit = ChronoUnit.MILLIS)
-  public Uni<Villain> findRandomVillain() {
+  Uni<Villain> findRandomVillainAttempt() {
     // Want the 404 handling to be part of the circuit breaker
     // This means that the 404 responses aren't considered errors by the circuit breaker
-    return Uni.createFrom().item(new Villain("Darth Vader", 100, "", "Light sabre"))
-      .onFailure(Is404Exception.IS_404).recoverWithNull();
+    Log.debug("Making request to villain service to find random villain");
+    return this.attemptTimer.time(
+      () -> this.hedger.hedge(() ->
+        this.villainClient.findRandomVillain()
+          .onFailure(Is404Exception.IS_404).recoverWithNull()
+      ),
+      Outcome.SUCCESS,
+      Outcome.NOT_FOUND,
+      Outcome.FAILURE
+    );
   }
 
   /**
-   * Calls hello on the Villains service.
+   * Calls hello on the Villains service. Concurrent callers share a single call, and its outcome is reused for a short while (see {@link SingleFlight}).
    * @return A "hello" from Villains
    */
   public Uni<String> helloVillains() {
-    return Uni.createFrom().item("Hello villains");
+    return this.hello.get();
   }
 }
@@ -0,0 +1,136 @@
+package io.quarkus.sample.superheroes.fight.client;
+
+import java.util.Arrays;
+import java.util.List;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import io.quarkus.sample.superheroes.fight.config.FightConfig;
+import io.quarkus.sample.superheroes.fight.config.FightConfig.Villain.Http;
+
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.ext.web.client.WebClientOptions;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.core.buffer.Buffer;
+import io.vertx.mutiny.ext.web.client.HttpResponse;
+import io.vertx.mutiny.ext.web.client.WebClient;
+
+/**
+ * Non-blocking HTTP client that talks to the Villain service at {@code fight.villain.client-base-url}, using the <a href="https://vertx.io/docs/vertx-web-client/java">Vert.x Web Client</a>.
+ * <p>
+ *   Connections are pooled and kept alive between requests, and can optionally be HTTP/2 so that many requests share each connection. See {@link Http} for the configuration.
+ * </p>
+ * <p>
+ *   It is declared package-private so that it can be decorated by {@link VillainClient}. Consumers should use {@link VillainClient}.
+ * </p>
+ */
+@ApplicationScoped
+class VillainRestClient {
+	private static final String UPSTREAM = "villain";
+
+	private final WebClient client;
+	private final String villainsUrl;
+	private final String randomVillainUrl;
+	private final String helloUrl;
+	private final long requestTimeoutMillis;
+
+	@Inject
+	VillainRestClient(Vertx vertx, FightConfig fightConfig) {
+		this(vertx, fightConfig.villain().clientBaseUrl(), fightConfig.villain().http());
+	}
+
+	VillainRestClient(Vertx vertx, String baseUrl, Http config) {
+		var villainsUrl = (baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl) + "/api/villains";
+		this.villainsUrl = villainsUrl;
+		this.randomVillainUrl = villainsUrl + "/random";
+		this.helloUrl = villainsUrl + "/hello";
+		this.requestTimeoutMillis = config.requestTimeout().toMillis();
+		this.client = WebClient.create(vertx, createOptions(config));
+	}
+
+	private static WebClientOptions createOptions(Http config) {
+		var options = new WebClientOptions()
+			.setMaxPoolSize(config.maxPoolSize())
+			.setKeepAlive(config.keepAlive())
+			.setKeepAliveTimeout((int) config.keepAliveTimeout().toSeconds())
+			.setConnectTimeout((int) config.connectTimeout().toMillis());
+
+		if (config.http2()) {
+			options.setProtocolVersion(HttpVersion.HTTP_2)
+				.setHttp2MaxPoolSize(config.http2MaxPoolSize())
+				.setHttp2MultiplexingLimit(config.http2MultiplexingLimit())
+				.setHttp2KeepAliveTimeout((int) config.keepAliveTimeout().toSeconds());
+		}
+
+		return options;
+	}
+
+	@PreDestroy
+	void close() {
+		this.client.close();
+	}
+
+	/**
+	 * HTTP <code>GET</code> call to {@code /api/villains/random} on the Villains service
+	 * @return A {@link Villain}, {@code null} if the service answered without a body, or a {@link UnexpectedStatusException} failure if the service didn't answer with one (a {@code 404} if it has none)
+	 * @see VillainClient#findRandomVillain()
+	 */
+	Uni<Villain> findRandomVillain() {
+		return this.client.getAbs(this.randomVillainUrl)
+			.putHeader("Accept", "application/json")
+			.timeout(this.requestTimeoutMillis)
+			.send()
+			.map(VillainRestClient::toVillain);
+	}
+
+	/**
+	 * HTTP <code>GET</code> call to {@code /api/villains} on the Villains service
+	 * @return Every {@link Villain}, which is none if the service answered without a body
+	 * @see FighterRoster
+	 */
+	Uni<List<Villain>> findAllVillains() {
+		return this.client.getAbs(this.villainsUrl)
+			.putHeader("Accept", "application/json")
+			.timeout(this.requestTimeoutMillis)
+			.send()
+			.map(VillainRestClient::toVillains);
+	}
+
+	/**
+	 * HTTP <code>GET</code> call to {@code /api/villains/hello} on the Villains service
+	 * @return A "hello" from Villains
+	 */
+	Uni<String> hello() {
+		return this.client.getAbs(this.helloUrl)
+			.putHeader("Accept", "text/plain")
+			.timeout(this.requestTimeoutMillis)
+			.send()
+			.map(response -> checkStatus(response).bodyAsString());
+	}
+
+	private static Villain toVillain(HttpResponse<Buffer> response) {
+		// An empty body is treated like a 404: there was no villain to send
+		return hasBody(checkStatus(response)) ? response.bodyAsJson(Villain.class) : null;
+	}
+
+	private static List<Villain> toVillains(HttpResponse<Buffer> response) {
+		return hasBody(checkStatus(response)) ? Arrays.asList(response.bodyAsJson(Villain[].class)) : List.of();
+	}
+
+	private static boolean hasBody(HttpResponse<Buffer> response) {
+		var body = response.body();
+
+		return (body != null) && (body.length() > 0);
+	}
+
+	private static HttpResponse<Buffer> checkStatus(HttpResponse<Buffer> response) {
+		if (response.statusCode() != 200) {
+			throw new UnexpectedStatusException(UPSTREAM, response.statusCode());
+		}
+
+		return response;
+	}
+}
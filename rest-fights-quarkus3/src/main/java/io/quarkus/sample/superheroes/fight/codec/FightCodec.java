@@ -0,0 +1,170 @@
+package io.quarkus.sample.superheroes.fight.codec;
+
+import java.time.Instant;
+
+import org.bson.BsonObjectId;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.BsonWriter;
+import org.bson.codecs.CollectibleCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+
+import io.quarkus.sample.superheroes.fight.Fight;
+
+/**
+ * Hand-written {@link CollectibleCodec} for {@link Fight}, replacing the reflection-based POJO codec.
+ * <p>
+ *   The wire format is the same as the one the POJO codec produces: {@code _id} first, the remaining fields named after the entity fields, dates as BSON dates (millisecond precision), levels as 32-bit integers and {@code null} fields omitted.
+ *   Unknown fields are skipped when decoding.
+ * </p>
+ */
+public class FightCodec implements CollectibleCodec<Fight> {
+	static final String ID = "_id";
+	static final String FIGHT_DATE = "fightDate";
+	static final String WINNER_NAME = "winnerName";
+	static final String WINNER_LEVEL = "winnerLevel";
+	static final String WINNER_PICTURE = "winnerPicture";
+	static final String LOSER_NAME = "loserName";
+	static final String LOSER_LEVEL = "loserLevel";
+	static final String LOSER_PICTURE = "loserPicture";
+	static final String WINNER_TEAM = "winnerTeam";
+	static final String LOSER_TEAM = "loserTeam";
+
+	@Override
+	public void encode(BsonWriter writer, Fight fight, EncoderContext encoderContext) {
+		if ((fight.id == null) && encoderContext.isEncodingCollectibleDocument()) {
+			fight.id = new ObjectId();
+		}
+
+		writer.writeStartDocument();
+
+		if (fight.id != null) {
+			writer.writeObjectId(ID, fight.id);
+		}
+
+		if (fight.fightDate != null) {
+			writer.writeDateTime(FIGHT_DATE, fight.fightDate.toEpochMilli());
+		}
+
+		writeString(writer, WINNER_NAME, fight.winnerName);
+		writeInt(writer, WINNER_LEVEL, fight.winnerLevel);
+		writeString(writer, WINNER_PICTURE, fight.winnerPicture);
+		writeString(writer, LOSER_NAME, fight.loserName);
+		writeInt(writer, LOSER_LEVEL, fight.loserLevel);
+		writeString(writer, LOSER_PICTURE, fight.loserPicture);
+		writeString(writer, WINNER_TEAM, fight.winnerTeam);
+		writeString(writer, LOSER_TEAM, fight.loserTeam);
+
+		writer.writeEndDocument();
+	}
+
+	@Override
+	public Fight decode(BsonReader reader, DecoderContext decoderContext) {
+		var fight = new Fight();
+		reader.readStartDocument();
+
+		while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+			var name = reader.readName();
+
+			if (reader.getCurrentBsonType() == BsonType.NULL) {
+				reader.readNull();
+				continue;
+			}
+
+			switch (name) {
+				case ID:
+					fight.id = reader.readObjectId();
+					break;
+				case FIGHT_DATE:
+					fight.fightDate = Instant.ofEpochMilli(reader.readDateTime());
+					break;
+				case WINNER_NAME:
+					fight.winnerName = reader.readString();
+					break;
+				case WINNER_LEVEL:
+					fight.winnerLevel = readInt(reader);
+					break;
+				case WINNER_PICTURE:
+					fight.winnerPicture = reader.readString();
+					break;
+				case LOSER_NAME:
+					fight.loserName = reader.readString();
+					break;
+				case LOSER_LEVEL:
+					fight.loserLevel = readInt(reader);
+					break;
+				case LOSER_PICTURE:
+					fight.loserPicture = reader.readString();
+					break;
+				case WINNER_TEAM:
+					fight.winnerTeam = reader.readString();
+					break;
+				case LOSER_TEAM:
+					fight.loserTeam = reader.readString();
+					break;
+				default:
+					reader.skipValue();
+			}
+		}
+
+		reader.readEndDocument();
+		return fight;
+	}
+
+	@Override
+	public Class<Fight> getEncoderClass() {
+		return Fight.class;
+	}
+
+	@Override
+	public Fight generateIdIfAbsentFromDocument(Fight fight) {
+		if (!documentHasId(fight)) {
+			fight.id = new ObjectId();
+		}
+
+		return fight;
+	}
+
+	@Override
+	public boolean documentHasId(Fight fight) {
+		return fight.id != null;
+	}
+
+	@Override
+	public BsonValue getDocumentId(Fight fight) {
+		if (!documentHasId(fight)) {
+			throw new IllegalStateException("The fight does not have an id");
+		}
+
+		return new BsonObjectId(fight.id);
+	}
+
+	private static void writeString(BsonWriter writer, String name, String value) {
+		if (value != null) {
+			writer.writeString(name, value);
+		}
+	}
+
+	private static void writeInt(BsonWriter writer, String name, Integer value) {
+		if (value != null) {
+			writer.writeInt32(name, value);
+		}
+	}
+
+	/**
+	 * Levels are always written as 32-bit integers, but documents written by other tools may have widened them
+	 */
+	private static int readInt(BsonReader reader) {
+		switch (reader.getCurrentBsonType()) {
+			case INT64:
+				return (int) reader.readInt64();
+			case DOUBLE:
+				return (int) reader.readDouble();
+			default:
+				return reader.readInt32();
+		}
+	}
+}
@@ -0,0 +1,23 @@
+package io.quarkus.sample.superheroes.fight.codec;
+
+import org.bson.codecs.Codec;
+import org.bson.codecs.configuration.CodecProvider;
+import org.bson.codecs.configuration.CodecRegistry;
+
+import io.quarkus.sample.superheroes.fight.Fight;
+
+/**
+ * Provides the {@link FightCodec} for {@link Fight}s.
+ * <p>
+ *   Quarkus automatically registers every {@link CodecProvider} it finds with the MongoDB client, ahead of the POJO codec, so nothing else is needed to use it.
+ * </p>
+ */
+public class FightCodecProvider implements CodecProvider {
+	private static final FightCodec FIGHT_CODEC = new FightCodec();
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> Codec<T> get(Class<T> clazz, CodecRegistry registry) {
+		return (clazz == Fight.class) ? (Codec<T>) FIGHT_CODEC : null;
+	}
+}
@@ -0,0 +1,28 @@
+package io.quarkus.sample.superheroes.fight.codec;
+
+import io.quarkus.sample.superheroes.fight.Fight;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Writes {@link Fight}s as JSON by hand, field by field, with the same field names as the entity and the id as a hex string.
+ */
+public final class FightJson {
+	private FightJson() {
+	}
+
+	public static String encode(Fight fight) {
+		return new JsonObject()
+			.put("id", (fight.id != null) ? fight.id.toHexString() : null)
+			.put("fightDate", (fight.fightDate != null) ? fight.fightDate.toString() : null)
+			.put("winnerName", fight.winnerName)
+			.put("winnerLevel", fight.winnerLevel)
+			.put("winnerPicture", fight.winnerPicture)
+			.put("loserName", fight.loserName)
+			.put("loserLevel", fight.loserLevel)
+			.put("loserPicture", fight.loserPicture)
+			.put("winnerTeam", fight.winnerTeam)
+			.put("loserTeam", fight.loserTeam)
+			.encode();
+	}
+}
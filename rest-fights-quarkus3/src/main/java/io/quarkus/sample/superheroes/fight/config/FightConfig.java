@@ -1,5 +1,10 @@
 package io.quarkus.sample.superheroes.fight.config;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.OptionalLong;
+
 import io.smallrye.config.ConfigMapping;
 import io.smallrye.config.WithDefault;
 
@@ -23,6 +28,66 @@ public interface FightConfig {
 	 */
 	Villain villain();
 
+	/**
+	 * Persistence configuration
+	 */
+	Persistence persistence();
+
+	/**
+	 * Random fighter reservoir configuration
+	 */
+	Reservoir reservoir();
+
+	/**
+	 * Fallback fighter pool configuration
+	 */
+	FallbackPool fallbackPool();
+
+	/**
+	 * Fight cache configuration
+	 */
+	Cache cache();
+
+	/**
+	 * Fights collection index configuration
+	 */
+	Indexes indexes();
+
+	/**
+	 * Random number generation configuration
+	 */
+	Random random();
+
+	/**
+	 * Hero and Villain client configuration
+	 */
+	Client client();
+
+	/**
+	 * Request deadline configuration
+	 */
+	Deadlines deadlines();
+
+	/**
+	 * Execution model configuration
+	 */
+	Execution execution();
+
+	/**
+	 * Live fight feed configuration
+	 */
+	Feed feed();
+
+	/**
+	 * Configuration of finding the fights persisted since a cursor
+	 */
+	Delta delta();
+
+	/**
+	 * Fighter leaderboard configuration
+	 */
+	Leaderboard leaderboard();
+
 	interface Process {
 		/**
 		 * The number of millis to add as a delay to the fight process. Can be used to introduce deliberate delays.
@@ -96,6 +161,11 @@ public interface FightConfig {
 		 */
 		String clientBaseUrl();
 
+		/**
+		 * HTTP client configuration for the villain service
+		 */
+		Http http();
+
 		/**
 		 * Villain fallback configuration
 		 */
@@ -110,6 +180,80 @@ public interface FightConfig {
 		@WithDefault("20")
 		int adjustBound();
 
+		interface Http {
+			/**
+			 * The maximum number of HTTP/1.1 connections kept open to the villain service. Requests wait for a connection once they are all in use.
+			 * <p>
+			 *   Defaults to {@code 20}
+			 * </p>
+			 */
+			@WithDefault("20")
+			int maxPoolSize();
+
+			/**
+			 * Whether or not connections are kept open and reused between requests.
+			 * <p>
+			 *   Defaults to {@code true}
+			 * </p>
+			 */
+			@WithDefault("true")
+			boolean keepAlive();
+
+			/**
+			 * How long an unused connection is kept open.
+			 * <p>
+			 *   Defaults to {@code 60s}
+			 * </p>
+			 */
+			@WithDefault("60s")
+			Duration keepAliveTimeout();
+
+			/**
+			 * Whether or not HTTP/2 is used, so that many requests share each connection. The villain service must support it.
+			 * <p>
+			 *   Defaults to {@code false}
+			 * </p>
+			 */
+			@WithDefault("false")
+			boolean http2();
+
+			/**
+			 * The maximum number of HTTP/2 connections kept open to the villain service. Only used when {@link #http2()} is {@code true}.
+			 * <p>
+			 *   Defaults to {@code 1}
+			 * </p>
+			 */
+			@WithDefault("1")
+			int http2MaxPoolSize();
+
+			/**
+			 * The maximum number of concurrent requests on each HTTP/2 connection, or {@code -1} to allow as many as the villain service does. Only used when {@link #http2()} is {@code true}.
+			 * <p>
+			 *   Defaults to {@code -1}
+			 * </p>
+			 */
+			@WithDefault("-1")
+			int http2MultiplexingLimit();
+
+			/**
+			 * How long to wait for a connection to the villain service to be established.
+			 * <p>
+			 *   Defaults to {@code 2s}
+			 * </p>
+			 */
+			@WithDefault("2s")
+			Duration connectTimeout();
+
+			/**
+			 * How long to wait for the villain service to answer each request. A request that takes longer fails, and may be retried.
+			 * <p>
+			 *   Defaults to {@code 5s}
+			 * </p>
+			 */
+			@WithDefault("5s")
+			Duration requestTimeout();
+		}
+
 		interface VillainFallback {
 			/**
 			 * Villain fallback name
@@ -132,4 +276,698 @@ public interface FightConfig {
 			String powers();
 		}
 	}
+
+	interface Persistence {
+		/**
+		 * Write-behind configuration
+		 */
+		WriteBehind writeBehind();
+
+		/**
+		 * Batch fight configuration
+		 */
+		Batch batch();
+
+		interface WriteBehind {
+			/**
+			 * Whether or not fights are buffered and written to the database in batches, rather than one at a time.
+			 * <p>
+			 *   When enabled, a fight is acknowledged as soon as it is buffered. Batches that can't be written are kept and tried again, but buffered fights are lost if the application stops abruptly, or if they can't be written before {@link #shutdownTimeout()}. A buffered fight is only cached, published to the feed and counted on the leaderboard once it has been written, so it can't be found by its id until then.
+			 * </p>
+			 * <p>
+			 *   Defaults to {@code false}
+			 * </p>
+			 */
+			@WithDefault("false")
+			boolean enabled();
+
+			/**
+			 * The maximum number of fights written in a single batch. A batch is flushed as soon as this many fights are buffered.
+			 * <p>
+			 *   Defaults to {@code 100}
+			 * </p>
+			 */
+			@WithDefault("100")
+			int batchSize();
+
+			/**
+			 * How often buffered fights are flushed, regardless of how many there are.
+			 * <p>
+			 *   Defaults to {@code 50ms}
+			 * </p>
+			 */
+			@WithDefault("50ms")
+			Duration flushInterval();
+
+			/**
+			 * The maximum number of fights that can be buffered. Once full, callers write their own fights directly to the database until the buffer drains.
+			 * <p>
+			 *   Defaults to {@code 10000}
+			 * </p>
+			 */
+			@WithDefault("10000")
+			int bufferCapacity();
+
+			/**
+			 * The longest to wait before trying again after a batch could not be written. Failed batches are put back in the buffer, and the wait starts at {@link #flushInterval()} and doubles with each failure in a row, up to this.
+			 * <p>
+			 *   Defaults to {@code 5s}
+			 * </p>
+			 */
+			@WithDefault("5s")
+			Duration maxRetryBackoff();
+
+			/**
+			 * How long to wait for buffered fights to be written when the application shuts down.
+			 * <p>
+			 *   Defaults to {@code 10s}
+			 * </p>
+			 */
+			@WithDefault("10s")
+			Duration shutdownTimeout();
+		}
+
+		interface Batch {
+			/**
+			 * The maximum number of fights from a batch that are written to the database with a single bulk write.
+			 * <p>
+			 *   Defaults to {@code 500}
+			 * </p>
+			 */
+			@WithDefault("500")
+			int chunkSize();
+		}
+	}
+
+	interface Reservoir {
+		/**
+		 * Whether or not random fighters are pre-fetched in the background so that finding random fighters doesn't have to wait on the Hero and Villain services.
+		 * <p>
+		 *   Defaults to {@code false}
+		 * </p>
+		 */
+		@WithDefault("false")
+		boolean enabled();
+
+		/**
+		 * Once fewer than this many of a kind of fighter are left, a background refill is started.
+		 * <p>
+		 *   Defaults to {@code 10}
+		 * </p>
+		 */
+		@WithDefault("10")
+		int lowWatermark();
+
+		/**
+		 * The number of each kind of fighter a refill tops the reservoir back up to. This is also the most that is ever held.
+		 * <p>
+		 *   Defaults to {@code 50}
+		 * </p>
+		 */
+		@WithDefault("50")
+		int highWatermark();
+
+		/**
+		 * The maximum number of concurrent requests made to a service while refilling.
+		 * <p>
+		 *   Defaults to {@code 4}
+		 * </p>
+		 */
+		@WithDefault("4")
+		int refillConcurrency();
+
+		/**
+		 * How long to wait after a refill that failed, or that found no fighters at all, before trying again.
+		 * <p>
+		 *   Defaults to {@code 5s}
+		 * </p>
+		 */
+		@WithDefault("5s")
+		Duration refillBackoff();
+	}
+
+	interface FallbackPool {
+		/**
+		 * Whether or not recently found heroes and villains are kept, and used instead of the configured fallback fighters when the Hero or Villain service is failing.
+		 * <p>
+		 *   The kept fighters are only replaced by newly found ones, never refreshed in the background, so after a long outage they may no longer match what the service has.
+		 * </p>
+		 * <p>
+		 *   Defaults to {@code false}
+		 * </p>
+		 */
+		@WithDefault("false")
+		boolean enabled();
+
+		/**
+		 * The number of each kind of fighter that is kept. Once full, each newly found fighter replaces the oldest one.
+		 * <p>
+		 *   Defaults to {@code 100}
+		 * </p>
+		 */
+		@WithDefault("100")
+		int size();
+	}
+
+	interface Cache {
+		/**
+		 * Whether or not fights are cached in memory once they have been read or written. Fights never change once written, so cached fights are never stale.
+		 * <p>
+		 *   Defaults to {@code false}
+		 * </p>
+		 */
+		@WithDefault("false")
+		boolean enabled();
+
+		/**
+		 * The maximum number of fights to cache. Ignored if {@link #maxWeight()} is set.
+		 * <p>
+		 *   Defaults to {@code 10000}
+		 * </p>
+		 */
+		@WithDefault("10000")
+		long maxSize();
+
+		/**
+		 * The maximum estimated size, in bytes, of all the cached fights. Set this instead of {@link #maxSize()} to bound the cache by memory rather than by count.
+		 */
+		OptionalLong maxWeight();
+
+		/**
+		 * Configuration of the cache of fights already encoded as JSON
+		 */
+		Encoded encoded();
+
+		interface Encoded {
+			/**
+			 * Whether or not fights are kept once they have been encoded as JSON, along with their ETag, so that serving them again costs no encoding at all.
+			 * <p>
+			 *   Defaults to {@code false}
+			 * </p>
+			 */
+			@WithDefault("false")
+			boolean enabled();
+
+			/**
+			 * The maximum size, in bytes, of all the cached JSON.
+			 * <p>
+			 *   Defaults to {@code 16777216} (16 MiB)
+			 * </p>
+			 */
+			@WithDefault("16777216")
+			long maxWeight();
+		}
+	}
+
+	interface Indexes {
+		/**
+		 * Whether or not the indexes on the {@code Fights} collection are created and reconciled at startup. Reconciling drops managed indexes that are no longer declared, so only enable this on the instances that should own the collection's indexes.
+		 * <p>
+		 *   Defaults to {@code false}
+		 * </p>
+		 */
+		@WithDefault("false")
+		boolean enabled();
+
+		/**
+		 * How long fights are kept before the database expires them, based on their {@code fightDate}. Fights are kept forever if not set.
+		 */
+		Optional<Duration> fightTtl();
+
+		/**
+		 * How often to report that index builds are still in progress.
+		 * <p>
+		 *   Defaults to {@code 10s}
+		 * </p>
+		 */
+		@WithDefault("10s")
+		Duration progressInterval();
+	}
+
+	interface Random {
+		/**
+		 * Seed for the random numbers used to decide fights. When set, fights are decided from a single deterministic sequence, so the same seed and the same sequence of fights reproduce the same outcomes.
+		 * <p>
+		 *   Replays are only deterministic when fights are requested one at a time. Concurrent requests interleave their draws from the shared sequence in whatever order they run.
+		 * </p>
+		 * <p>
+		 *   When not set (the default) each thread draws from its own independent, unseeded generator.
+		 * </p>
+		 */
+		OptionalLong seed();
+	}
+
+	interface Deadlines {
+		/**
+		 * How long finding random fighters can take, including every retry. Fighters that haven't been found by then are replaced by fallback fighters, and retries that wouldn't start in time are skipped.
+		 * <p>
+		 *   There is no deadline if not set (the default).
+		 * </p>
+		 */
+		Optional<Duration> randomFighters();
+
+		/**
+		 * How long performing a fight can take. A fight whose winner hasn't been decided by then fails without being persisted. Persisting a fight that has already started is allowed to finish.
+		 * <p>
+		 *   There is no deadline if not set (the default).
+		 * </p>
+		 */
+		Optional<Duration> fight();
+	}
+
+	interface Execution {
+		/**
+		 * How fights are found, performed and read.
+		 * <p>
+		 *   {@code reactive} (the default) composes Mutiny pipelines on the event loop. {@code virtual-threads} runs imperative, blocking code instead, with each call on its own virtual thread. Virtual threads need Java 21 or later.
+		 * </p>
+		 * <p>
+		 *   Only finding all fights, finding a fight by id, finding random fighters and performing a single fight switch modes. Streaming all fights, paging through fights, fights-since deltas and batch fights always run reactively.
+		 * </p>
+		 */
+		@WithDefault("reactive")
+		Mode mode();
+
+		enum Mode {
+			REACTIVE,
+			VIRTUAL_THREADS
+		}
+	}
+
+	interface Feed {
+		/**
+		 * Whether or not newly persisted fights are pushed to subscribers of {@code /api/fights/feed}, as server-sent events, and {@code /api/fights/feed/websocket}.
+		 * <p>
+		 *   Defaults to {@code false}
+		 * </p>
+		 */
+		@WithDefault("false")
+		boolean enabled();
+
+		/**
+		 * The number of fights that can be waiting to be sent to a single subscriber. Once full, the oldest waiting fight is dropped to make room for each new one, so a slow subscriber misses fights rather than holding up the others.
+		 * <p>
+		 *   Defaults to {@code 64}
+		 * </p>
+		 */
+		@WithDefault("64")
+		int bufferSize();
+
+		/**
+		 * The maximum number of subscribers at once. Any more are turned away with a {@code 503}.
+		 * <p>
+		 *   Defaults to {@code 10000}
+		 * </p>
+		 */
+		@WithDefault("10000")
+		int maxSubscribers();
+	}
+
+	interface Delta {
+		/**
+		 * The longest that a caller can wait for new fights when there aren't any yet. Longer waits are cut down to this.
+		 * <p>
+		 *   Defaults to {@code 30s}
+		 * </p>
+		 */
+		@WithDefault("30s")
+		Duration maxWait();
+
+		/**
+		 * How old a fight has to be before it is returned. Fights are ordered by {@code fightDate}, which is set before a fight is persisted, so a fight can become visible after a later one. It is then behind a cursor that has already passed it, and would be missed.
+		 * Set this to longer than it takes to persist a fight, which with write-behind enabled is {@code fight.persistence.write-behind.flush-interval} plus the time a batch takes to write. Fights that take longer, for example while failed batches are retried, can still be missed, as can fights from instances whose clocks are ahead.
+		 * <p>
+		 *   Every delta lags behind by this much: a fight is never returned until it is at least this old, and a caller woken by a new fight waits this long before it is looked for.
+		 * </p>
+		 * <p>
+		 *   Defaults to {@code 1s}. {@code 0s} returns fights as soon as they are visible, and should only be used when fights are never persisted concurrently.
+		 * </p>
+		 */
+		@WithDefault("1s")
+		Duration settleTime();
+	}
+
+	interface Leaderboard {
+		/**
+		 * Whether or not the wins of every fighter are counted as fights are persisted, and served from {@code /api/fights/leaderboard}.
+		 * <p>
+		 *   Defaults to {@code false}
+		 * </p>
+		 */
+		@WithDefault("false")
+		boolean enabled();
+
+		/**
+		 * The number of fighters whose wins are counted, besides the leaders. Once there are more fighters than this, a fighter that isn't counted yet takes the place of the one with the fewest wins, so counts become approximate, but every fighter who has won more than {@code 1 / capacity} of all fights is still counted.
+		 * <p>
+		 *   Defaults to {@code 1000}
+		 * </p>
+		 */
+		@WithDefault("1000")
+		int capacity();
+
+		/**
+		 * The number of fighters with the most wins who are counted on their own, so that recording their wins doesn't contend with anyone else's.
+		 * <p>
+		 *   Defaults to {@code 10}
+		 * </p>
+		 */
+		@WithDefault("10")
+		int leaders();
+
+		/**
+		 * How often the leaders are picked again from all the counted fighters.
+		 * <p>
+		 *   Defaults to {@code 1s}
+		 * </p>
+		 */
+		@WithDefault("1s")
+		Duration rerankInterval();
+
+		/**
+		 * Leaderboard snapshot configuration
+		 */
+		Snapshot snapshot();
+
+		interface Snapshot {
+			/**
+			 * The file the leaderboard is saved to, and restored from at startup. If not set, the leaderboard starts empty every time.
+			 */
+			Optional<Path> path();
+
+			/**
+			 * How often the leaderboard is saved. It is also saved when the application shuts down.
+			 * <p>
+			 *   Defaults to {@code 1m}
+			 * </p>
+			 */
+			@WithDefault("1m")
+			Duration interval();
+		}
+	}
+
+	interface Client {
+		/**
+		 * Request hedging configuration, applied to finding random heroes and villains
+		 */
+		Hedging hedging();
+
+		/**
+		 * Retry configuration, applied to finding random heroes and villains
+		 */
+		Retry retry();
+
+		/**
+		 * Adaptive concurrency limit configuration, applied to finding random heroes and villains
+		 */
+		Limiter limiter();
+
+		/**
+		 * Configuration of the calls to hello on the Hero and Villain services
+		 */
+		Hello hello();
+
+		/**
+		 * Configuration for remembering that the Hero or Villain service had no fighters to return
+		 */
+		NotFound notFound();
+
+		/**
+		 * Configuration for picking random heroes and villains from a local copy of each service's roster
+		 */
+		Roster roster();
+
+		interface Hedging {
+			/**
+			 * Whether or not a second, hedged, request is sent when the first one hasn't answered within {@link #percentile()} of recent latencies. Whichever answers first with an item is used and the other is cancelled, and the request only fails once both have failed.
+			 * <p>
+			 *   Only requests that are safe to repeat are hedged.
+			 * </p>
+			 * <p>
+			 *   Defaults to {@code false}
+			 * </p>
+			 */
+			@WithDefault("false")
+			boolean enabled();
+
+			/**
+			 * The percentile of recent latencies to wait for before sending a hedged request, between {@code 0} and {@code 1}.
+			 * <p>
+			 *   Defaults to {@code 0.95}
+			 * </p>
+			 */
+			@WithDefault("0.95")
+			double percentile();
+
+			/**
+			 * The number of recent latencies the percentile is computed from. Until this many have been observed, {@link #initialDelay()} is used.
+			 * <p>
+			 *   Defaults to {@code 1000}
+			 * </p>
+			 */
+			@WithDefault("1000")
+			int windowSize();
+
+			/**
+			 * The delay used before enough latencies have been observed.
+			 * <p>
+			 *   Defaults to {@code 100ms}
+			 * </p>
+			 */
+			@WithDefault("100ms")
+			Duration initialDelay();
+
+			/**
+			 * The shortest delay before sending a hedged request, whatever the observed latencies.
+			 * <p>
+			 *   Defaults to {@code 5ms}
+			 * </p>
+			 */
+			@WithDefault("5ms")
+			Duration minDelay();
+
+			/**
+			 * The longest delay before sending a hedged request, whatever the observed latencies.
+			 * <p>
+			 *   Defaults to {@code 1s}
+			 * </p>
+			 */
+			@WithDefault("1s")
+			Duration maxDelay();
+
+			/**
+			 * The most hedged requests that can be sent, as a percentage of requests. Each request earns this percentage of a token and each hedged request spends a whole one.
+			 * <p>
+			 *   Defaults to {@code 10}
+			 * </p>
+			 */
+			@WithDefault("10")
+			int budgetPercent();
+
+			/**
+			 * The most tokens the hedging budget can save up, which bounds how many hedged requests can be sent in a burst.
+			 * <p>
+			 *   Defaults to {@code 10}
+			 * </p>
+			 */
+			@WithDefault("10")
+			int budgetMaxTokens();
+		}
+
+		interface Retry {
+			/**
+			 * The most times a single request is retried.
+			 * <p>
+			 *   Defaults to {@code 3}
+			 * </p>
+			 */
+			@WithDefault("3")
+			int maxRetries();
+
+			/**
+			 * The upper bound of the delay before the first retry. Each retry waits a random delay between {@code 0} and a bound that doubles with every retry, up to {@link #maxBackoff()}, so that retries from many requests don't all arrive at once.
+			 * <p>
+			 *   Defaults to {@code 200ms}
+			 * </p>
+			 */
+			@WithDefault("200ms")
+			Duration initialBackoff();
+
+			/**
+			 * The largest upper bound of the delay before a retry.
+			 * <p>
+			 *   Defaults to {@code 2s}
+			 * </p>
+			 */
+			@WithDefault("2s")
+			Duration maxBackoff();
+
+			/**
+			 * The most retries that can be made to a service, as a percentage of requests to it. Each request earns this percentage of a token and each retry spends a whole one, so when a service is failing retries stop adding to its load.
+			 * <p>
+			 *   Defaults to {@code 20}
+			 * </p>
+			 */
+			@WithDefault("20")
+			int budgetPercent();
+
+			/**
+			 * The most tokens the retry budget can save up, which bounds how many retries can be made in a burst.
+			 * <p>
+			 *   Defaults to {@code 10}
+			 * </p>
+			 */
+			@WithDefault("10")
+			int budgetMaxTokens();
+		}
+
+		interface Limiter {
+			/**
+			 * Whether or not the number of concurrent requests to each service is limited. The limit adapts to the latency of the service: it shrinks when latency rises above its long-term average and grows back when latency recovers.
+			 * <p>
+			 *   Requests over the limit fail immediately, so the random hero or villain falls back instead of queueing.
+			 * </p>
+			 * <p>
+			 *   Defaults to {@code false}
+			 * </p>
+			 */
+			@WithDefault("false")
+			boolean enabled();
+
+			/**
+			 * The limit used before any latencies have been observed.
+			 * <p>
+			 *   Defaults to {@code 20}
+			 * </p>
+			 */
+			@WithDefault("20")
+			int initialLimit();
+
+			/**
+			 * The lowest the limit can go.
+			 * <p>
+			 *   Defaults to {@code 4}
+			 * </p>
+			 */
+			@WithDefault("4")
+			int minLimit();
+
+			/**
+			 * The highest the limit can go.
+			 * <p>
+			 *   Defaults to {@code 200}
+			 * </p>
+			 */
+			@WithDefault("200")
+			int maxLimit();
+
+			/**
+			 * How much latency can rise above its long-term average, as a ratio, before the limit shrinks.
+			 * <p>
+			 *   Defaults to {@code 1.5}
+			 * </p>
+			 */
+			@WithDefault("1.5")
+			double rttTolerance();
+
+			/**
+			 * How quickly the limit moves towards each new estimate, between {@code 0} and {@code 1}.
+			 * <p>
+			 *   Defaults to {@code 0.2}
+			 * </p>
+			 */
+			@WithDefault("0.2")
+			double smoothing();
+
+			/**
+			 * What the limit is multiplied by when a request fails, or is given up on after taking more than {@link #rttTolerance()} times the long-term average latency. These are the clearest signs that the service is overloaded, so the limit shrinks straight away rather than through {@link #smoothing()}.
+			 * <p>
+			 *   Defaults to {@code 0.9}
+			 * </p>
+			 */
+			@WithDefault("0.9")
+			double backoffRatio();
+
+			/**
+			 * The number of requests the long-term average latency is computed over.
+			 * <p>
+			 *   Defaults to {@code 600}
+			 * </p>
+			 */
+			@WithDefault("600")
+			int longWindow();
+		}
+
+		interface Roster {
+			/**
+			 * Whether or not every hero and villain is fetched in one request, and random fighters are picked from that local copy instead of asking the services for each one.
+			 * <p>
+			 *   Until a roster has been fetched, random fighters are requested from the service as usual.
+			 * </p>
+			 * <p>
+			 *   Defaults to {@code false}
+			 * </p>
+			 */
+			@WithDefault("false")
+			boolean enabled();
+
+			/**
+			 * How often each roster is fetched again.
+			 * <p>
+			 *   Defaults to {@code 1m}
+			 * </p>
+			 */
+			@WithDefault("1m")
+			Duration refreshInterval();
+
+			/**
+			 * The most fighters of each kind that are kept. Bigger rosters are cut down to a random sample of this size.
+			 * <p>
+			 *   Defaults to {@code 10000}
+			 * </p>
+			 */
+			@WithDefault("10000")
+			int maxSize();
+		}
+
+		interface NotFound {
+			/**
+			 * Whether or not requests for a random hero or villain are skipped for a while after the service has had none to return (a {@code 404}). Skipped requests find nothing, so the fallback fighter is used.
+			 * <p>
+			 *   Defaults to {@code false}
+			 * </p>
+			 */
+			@WithDefault("false")
+			boolean enabled();
+
+			/**
+			 * How long requests are skipped for. Once this has passed, a single request is sent in the background to find out whether the service has fighters again.
+			 * <p>
+			 *   Defaults to {@code 10s}
+			 * </p>
+			 */
+			@WithDefault("10s")
+			Duration ttl();
+		}
+
+		interface Hello {
+			/**
+			 * How long the answer of a successful call to hello is reused for. Failures are never reused. Concurrent callers always share the call that is in flight, and set this to {@code 0s} to only share in-flight calls.
+			 * <p>
+			 *   Defaults to {@code 5s}
+			 * </p>
+			 */
+			@WithDefault("5s")
+			Duration ttl();
+
+			/**
+			 * How long a shared call to hello can take before it fails. Callers may give up sooner, but the shared call keeps going until this.
+			 * <p>
+			 *   Defaults to {@code 5s}
+			 * </p>
+			 */
+			@WithDefault("5s")
+			Duration timeout();
+		}
+	}
 }
@@ -0,0 +1,47 @@
+package io.quarkus.sample.superheroes.fight.feed;
+
+import io.quarkus.sample.superheroes.fight.Fight;
+import io.quarkus.sample.superheroes.fight.codec.FightJson;
+
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * A {@link Fight} as it is sent to every subscriber of the {@link FightFeed}.
+ * <p>
+ *   The fight is serialized once, when the event is created, and the same JSON and server-sent event frame are then written to every subscriber.
+ * </p>
+ */
+final class FeedEvent {
+	private final String json;
+	private final Buffer serverSentEvent;
+
+	private FeedEvent(String id, String json) {
+		this.json = json;
+		this.serverSentEvent = Buffer.buffer(
+			((id != null) ? ("id: " + id + "\n") : "") +
+			"event: fight\n" +
+			"data: " + json + "\n\n"
+		);
+	}
+
+	static FeedEvent of(Fight fight) {
+		var id = (fight.id != null) ? fight.id.toHexString() : null;
+		var json = FightJson.encode(fight);
+
+		return new FeedEvent(id, json);
+	}
+
+	/**
+	 * The fight as JSON
+	 */
+	String json() {
+		return this.json;
+	}
+
+	/**
+	 * The fight as a complete server-sent event, with the fight's id as the event id
+	 */
+	Buffer serverSentEvent() {
+		return this.serverSentEvent;
+	}
+}
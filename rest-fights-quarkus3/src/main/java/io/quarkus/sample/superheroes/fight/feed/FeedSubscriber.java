@@ -0,0 +1,97 @@
+package io.quarkus.sample.superheroes.fight.feed;
+
+import java.util.ArrayDeque;
+
+import io.vertx.core.Context;
+import io.vertx.core.streams.WriteStream;
+
+/**
+ * A single subscriber of the {@link FightFeed}, connected over HTTP.
+ * <p>
+ *   Events are queued in a bounded buffer and written on the subscriber's own Vert.x context, no faster than its connection can take them. When the buffer is full, the oldest waiting event is dropped.
+ *   Publishing an event only ever adds it to the buffer, so a slow subscriber never holds up the publisher or any other subscriber.
+ * </p>
+ */
+abstract class FeedSubscriber {
+	private final Context context;
+	private final WriteStream<?> connection;
+	private final int bufferSize;
+	private final ArrayDeque<FeedEvent> pending;
+	private boolean writing;
+	private volatile boolean closed;
+
+	FeedSubscriber(Context context, WriteStream<?> connection, int bufferSize) {
+		this.context = context;
+		this.connection = connection;
+		this.bufferSize = bufferSize;
+		this.pending = new ArrayDeque<>(bufferSize);
+	}
+
+	/**
+	 * Writes a single event to the connection
+	 */
+	abstract void write(FeedEvent event);
+
+	/**
+	 * Queues {@code event} to be written. Can be called from any thread.
+	 * @return {@code true} if the oldest waiting event had to be dropped to make room
+	 */
+	boolean offer(FeedEvent event) {
+		if (this.closed) {
+			return false;
+		}
+
+		boolean dropped;
+		boolean startWriting;
+
+		synchronized (this.pending) {
+			dropped = (this.pending.size() >= this.bufferSize) && (this.pending.pollFirst() != null);
+			this.pending.addLast(event);
+			startWriting = !this.writing;
+			this.writing = true;
+		}
+
+		if (startWriting) {
+			this.context.runOnContext(ignored -> writePending());
+		}
+
+		return dropped;
+	}
+
+	/**
+	 * Stops writing any more events
+	 */
+	void close() {
+		this.closed = true;
+
+		synchronized (this.pending) {
+			this.pending.clear();
+		}
+	}
+
+	/**
+	 * Writes waiting events until there are none left, or the connection can't take any more. In that case writing carries on once the connection has drained.
+	 */
+	private void writePending() {
+		while (!this.closed) {
+			if (this.connection.writeQueueFull()) {
+				// Still counts as writing, so nothing else is scheduled until the connection drains
+				this.connection.drainHandler(ignored -> writePending());
+				return;
+			}
+
+			FeedEvent event;
+
+			synchronized (this.pending) {
+				event = this.pending.pollFirst();
+
+				if (event == null) {
+					this.writing = false;
+					return;
+				}
+			}
+
+			write(event);
+		}
+	}
+}
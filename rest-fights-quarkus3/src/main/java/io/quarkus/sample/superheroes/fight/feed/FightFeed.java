@@ -0,0 +1,93 @@
+package io.quarkus.sample.superheroes.fight.feed;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import io.quarkus.sample.superheroes.fight.Fight;
+import io.quarkus.sample.superheroes.fight.config.FightConfig;
+import io.quarkus.sample.superheroes.fight.config.FightConfig.Feed;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Broadcasts newly persisted {@link Fight}s to every live subscriber (see {@link FightFeedRoutes}).
+ * <p>
+ *   Each fight is serialized once, no matter how many subscribers there are, and then queued for every subscriber in its own bounded buffer (see {@link FeedSubscriber}). Nothing is serialized while there are no subscribers.
+ * </p>
+ * <p>
+ *   Only active when {@code fight.feed.enabled} is {@code true}. See {@link Feed} for the configuration.
+ * </p>
+ */
+@ApplicationScoped
+public class FightFeed {
+	private final Feed config;
+	private final Set<FeedSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+	private final Counter published;
+	private final Counter dropped;
+	private final Counter rejected;
+
+	@Inject
+	public FightFeed(FightConfig fightConfig, MeterRegistry meterRegistry) {
+		this(fightConfig.feed(), meterRegistry);
+	}
+
+	FightFeed(Feed config, MeterRegistry meterRegistry) {
+		this.config = config;
+		this.published = meterRegistry.counter("fights.feed.published");
+		this.dropped = meterRegistry.counter("fights.feed.dropped");
+		this.rejected = meterRegistry.counter("fights.feed.rejected");
+		meterRegistry.gauge("fights.feed.subscribers", this.subscribers, Set::size);
+	}
+
+	public boolean isEnabled() {
+		return this.config.enabled();
+	}
+
+	/**
+	 * Sends {@code fight} to every subscriber. Never blocks and never fails.
+	 */
+	public void publish(Fight fight) {
+		if (!isEnabled() || (fight == null) || this.subscribers.isEmpty()) {
+			return;
+		}
+
+		var event = FeedEvent.of(fight);
+		this.published.increment();
+
+		for (var subscriber : this.subscribers) {
+			if (subscriber.offer(event)) {
+				this.dropped.increment();
+			}
+		}
+	}
+
+	int bufferSize() {
+		return this.config.bufferSize();
+	}
+
+	/**
+	 * @return {@code false} if there are already {@code fight.feed.max-subscribers} subscribers, in which case {@code subscriber} isn't added
+	 */
+	boolean subscribe(FeedSubscriber subscriber) {
+		if (this.subscribers.size() >= this.config.maxSubscribers()) {
+			this.rejected.increment();
+			return false;
+		}
+
+		this.subscribers.add(subscriber);
+		return true;
+	}
+
+	void unsubscribe(FeedSubscriber subscriber) {
+		subscriber.close();
+		this.subscribers.remove(subscriber);
+	}
+
+	int subscriberCount() {
+		return this.subscribers.size();
+	}
+}
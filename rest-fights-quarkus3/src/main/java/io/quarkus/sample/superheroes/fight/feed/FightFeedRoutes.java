@@ -0,0 +1,105 @@
+package io.quarkus.sample.superheroes.fight.feed;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+
+import io.quarkus.logging.Log;
+
+import io.vertx.core.Context;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.http.ServerWebSocket;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Serves the {@link FightFeed}, both as server-sent events on {@value #SERVER_SENT_EVENTS_PATH} and over a WebSocket on {@value #WEBSOCKET_PATH}. Each subscriber receives every fight persisted after it subscribed, as JSON.
+ * <p>
+ *   Only registered when {@code fight.feed.enabled} is {@code true}.
+ * </p>
+ */
+@ApplicationScoped
+class FightFeedRoutes {
+	static final String SERVER_SENT_EVENTS_PATH = "/api/fights/feed";
+	static final String WEBSOCKET_PATH = "/api/fights/feed/websocket";
+
+	private final FightFeed fightFeed;
+
+	FightFeedRoutes(FightFeed fightFeed) {
+		this.fightFeed = fightFeed;
+	}
+
+	void onRouter(@Observes Router router) {
+		if (this.fightFeed.isEnabled()) {
+			register(router);
+			Log.infof("Live fight feed enabled on %s and %s", SERVER_SENT_EVENTS_PATH, WEBSOCKET_PATH);
+		}
+	}
+
+	void register(Router router) {
+		router.get(WEBSOCKET_PATH).handler(this::webSocket);
+		router.get(SERVER_SENT_EVENTS_PATH).handler(this::serverSentEvents);
+	}
+
+	private void serverSentEvents(RoutingContext routingContext) {
+		var response = routingContext.response();
+		var subscriber = new ServerSentEventSubscriber(routingContext.vertx().getOrCreateContext(), response, this.fightFeed.bufferSize());
+
+		if (!this.fightFeed.subscribe(subscriber)) {
+			response.setStatusCode(503).end();
+			return;
+		}
+
+		response.closeHandler(ignored -> this.fightFeed.unsubscribe(subscriber));
+		response.setChunked(true)
+			.putHeader("Content-Type", "text/event-stream")
+			.putHeader("Cache-Control", "no-cache")
+			// Sends the headers straight away, so the subscriber knows it is connected before the first fight
+			.write(":\n\n");
+	}
+
+	private void webSocket(RoutingContext routingContext) {
+		var context = routingContext.vertx().getOrCreateContext();
+
+		routingContext.request().toWebSocket()
+			.onSuccess(webSocket -> {
+				var subscriber = new WebSocketSubscriber(context, webSocket, this.fightFeed.bufferSize());
+
+				if (!this.fightFeed.subscribe(subscriber)) {
+					// 1013 is "Try Again Later"
+					webSocket.close((short) 1013, "Too many subscribers");
+					return;
+				}
+
+				webSocket.closeHandler(ignored -> this.fightFeed.unsubscribe(subscriber));
+			})
+			.onFailure(failure -> Log.debugf(failure, "Could not upgrade feed subscriber to a WebSocket"));
+	}
+
+	private static final class ServerSentEventSubscriber extends FeedSubscriber {
+		private final HttpServerResponse response;
+
+		private ServerSentEventSubscriber(Context context, HttpServerResponse response, int bufferSize) {
+			super(context, response, bufferSize);
+			this.response = response;
+		}
+
+		@Override
+		void write(FeedEvent event) {
+			this.response.write(event.serverSentEvent());
+		}
+	}
+
+	private static final class WebSocketSubscriber extends FeedSubscriber {
+		private final ServerWebSocket webSocket;
+
+		private WebSocketSubscriber(Context context, ServerWebSocket webSocket, int bufferSize) {
+			super(context, webSocket, bufferSize);
+			this.webSocket = webSocket;
+		}
+
+		@Override
+		void write(FeedEvent event) {
+			this.webSocket.writeTextMessage(event.json());
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package io.quarkus.sample.superheroes.fight.leaderboard;
+
+import java.util.Comparator;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * The number of fights a fighter has won, as counted by the {@link Leaderboard}.
+ * <p>
+ *   Counts can be approximate, but never too low: the fighter has won at least {@code wins - error} fights, and at most {@code wins}.
+ * </p>
+ */
+final class FighterWins {
+	static final Comparator<FighterWins> MOST_WINS_FIRST = Comparator.comparingLong(FighterWins::wins).reversed()
+		.thenComparing(FighterWins::name);
+
+	private final String name;
+	private final long wins;
+	private final long error;
+
+	FighterWins(String name, long wins, long error) {
+		this.name = name;
+		this.wins = wins;
+		this.error = error;
+	}
+
+	static FighterWins fromJson(JsonObject json) {
+		return new FighterWins(json.getString("name"), json.getLong("wins"), json.getLong("error", 0L));
+	}
+
+	String name() {
+		return this.name;
+	}
+
+	long wins() {
+		return this.wins;
+	}
+
+	/**
+	 * How many more fights than the fighter really won {@link #wins()} can be. {@code 0} if the count is exact.
+	 */
+	long error() {
+		return this.error;
+	}
+
+	JsonObject toJson() {
+		return new JsonObject()
+			.put("name", this.name)
+			.put("wins", this.wins)
+			.put("error", this.error);
+	}
+
+	@Override
+	public String toString() {
+		return "FighterWins{" +
+			"name='" + this.name + '\'' +
+			", wins=" + this.wins +
+			", error=" + this.error +
+			'}';
+	}
+}
@@ -0,0 +1,260 @@
+package io.quarkus.sample.superheroes.fight.leaderboard;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.sample.superheroes.fight.Fight;
+import io.quarkus.sample.superheroes.fight.config.FightConfig;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.subscription.Cancellable;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Counts the wins of every fighter as fights are persisted, so that the fighters with the most wins can be found without going through the {@code Fights} collection (see {@link LeaderboardRoutes}).
+ * <p>
+ *   Wins are counted in a {@link SpaceSaving} sketch of {@code fight.leaderboard.capacity} fighters, so the leaderboard takes the same memory however many fighters there are. The {@code fight.leaderboard.leaders} fighters with the most wins are taken out of the sketch and counted on their own, each locking only its own entry, so that the fighters who win most don't all contend on the sketch. The leaders are picked again every {@code fight.leaderboard.rerank-interval}.
+ * </p>
+ * <p>
+ *   If {@code fight.leaderboard.snapshot.path} is set, the leaderboard is saved to it every {@code fight.leaderboard.snapshot.interval} and on shutdown, and restored from it at startup.
+ * </p>
+ * <p>
+ *   Only active when {@code fight.leaderboard.enabled} is {@code true}. See {@link FightConfig.Leaderboard} for the configuration.
+ * </p>
+ */
+@ApplicationScoped
+public class Leaderboard {
+	private final FightConfig.Leaderboard config;
+	private final SpaceSaving sketch;
+	private final ConcurrentMap<String, LeaderWins> leaders = new ConcurrentHashMap<>();
+	private volatile Cancellable reranker;
+	private volatile Cancellable snapshotter;
+
+	@Inject
+	public Leaderboard(FightConfig fightConfig, MeterRegistry meterRegistry) {
+		this(fightConfig.leaderboard(), meterRegistry);
+	}
+
+	Leaderboard(FightConfig.Leaderboard config, MeterRegistry meterRegistry) {
+		this.config = config;
+		this.sketch = new SpaceSaving(config.capacity());
+		meterRegistry.gauge("fights.leaderboard.fighters", this, Leaderboard::countedFighters);
+	}
+
+	void onStart(@Observes StartupEvent startupEvent) {
+		if (!isEnabled()) {
+			return;
+		}
+
+		this.config.snapshot().path().ifPresent(this::restore);
+
+		this.reranker = Multi.createFrom().ticks().every(this.config.rerankInterval())
+			.onOverflow().drop()
+			.subscribe().with(tick -> rerank());
+
+		this.config.snapshot().path().ifPresent(path ->
+			this.snapshotter = Multi.createFrom().ticks().every(this.config.snapshot().interval())
+				.onOverflow().drop()
+				.subscribe().with(tick -> save(path))
+		);
+
+		Log.infof("Leaderboard enabled: counting up to %d fighters, %d of them on their own", this.config.capacity(), this.config.leaders());
+	}
+
+	void onStop(@Observes ShutdownEvent shutdownEvent) {
+		if (this.reranker != null) {
+			this.reranker.cancel();
+		}
+
+		if (this.snapshotter != null) {
+			this.snapshotter.cancel();
+		}
+
+		if (isEnabled()) {
+			this.config.snapshot().path().ifPresent(this::save);
+		}
+	}
+
+	public boolean isEnabled() {
+		return this.config.enabled();
+	}
+
+	/**
+	 * Counts a win for the winner of {@code fight}. Never fails.
+	 */
+	public void record(Fight fight) {
+		if (isEnabled() && (fight != null) && (fight.winnerName != null)) {
+			record(fight.winnerName);
+		}
+	}
+
+	void record(String name) {
+		if (this.leaders.computeIfPresent(name, (leader, wins) -> wins.increment()) != null) {
+			return;
+		}
+
+		synchronized (this.sketch) {
+			// Checked again now that the sketch is locked, in case the fighter has just become a leader
+			if (this.leaders.computeIfPresent(name, (leader, wins) -> wins.increment()) == null) {
+				this.sketch.add(name);
+			}
+		}
+	}
+
+	/**
+	 * @return Up to {@code limit} fighters with the most wins, most first
+	 */
+	List<FighterWins> top(int limit) {
+		List<FighterWins> top;
+
+		synchronized (this.sketch) {
+			top = this.leaders.entrySet().stream()
+				.map(leader -> leader.getValue().toFighterWins(leader.getKey()))
+				.collect(Collectors.toCollection(ArrayList::new));
+			top.addAll(this.sketch.top(limit));
+		}
+
+		top.sort(FighterWins.MOST_WINS_FIRST);
+
+		return (top.size() > limit) ? top.subList(0, limit) : top;
+	}
+
+	/**
+	 * @return The wins of the fighter called {@code name}. A fighter who isn't counted has an estimate of the most wins they can have, with the same error.
+	 */
+	FighterWins wins(String name) {
+		var leader = this.leaders.get(name);
+
+		if (leader != null) {
+			return leader.toFighterWins(name);
+		}
+
+		synchronized (this.sketch) {
+			leader = this.leaders.get(name);
+
+			return (leader != null) ? leader.toFighterWins(name) : this.sketch.get(name);
+		}
+	}
+
+	/**
+	 * Makes the fighters with the most wins, among the current leaders and the rest of the fighters, the leaders
+	 */
+	void rerank() {
+		synchronized (this.sketch) {
+			var newLeaders = top(this.config.leaders()).stream()
+				.map(FighterWins::name)
+				.collect(Collectors.toCollection(HashSet::new));
+
+			// Promoted first, so that their counters are free for the demoted leaders. Demoting first could push fighters out of a full sketch, inflating counts or even losing a fighter about to be promoted.
+			for (var name : newLeaders) {
+				if (!this.leaders.containsKey(name)) {
+					var wins = this.sketch.remove(name);
+					this.leaders.put(name, new LeaderWins(wins.wins(), wins.error()));
+				}
+			}
+
+			for (var name : new ArrayList<>(this.leaders.keySet())) {
+				if (!newLeaders.contains(name)) {
+					// Once removed, no more wins can be counted for this leader, so none are lost moving it back to the sketch
+					var wins = this.leaders.remove(name).toFighterWins(name);
+					this.sketch.add(name, wins.wins(), wins.error());
+				}
+			}
+		}
+	}
+
+	int countedFighters() {
+		synchronized (this.sketch) {
+			return this.sketch.size() + this.leaders.size();
+		}
+	}
+
+	/**
+	 * Writes every counted fighter to {@code path}. Never fails: failures are logged.
+	 */
+	void save(Path path) {
+		var fighters = new JsonArray();
+		top(Integer.MAX_VALUE).forEach(wins -> fighters.add(wins.toJson()));
+
+		try {
+			// Written next to the snapshot and then moved over it, so a crash while writing never leaves half a snapshot
+			var temporary = path.resolveSibling(path.getFileName() + ".tmp");
+			Files.writeString(temporary, new JsonObject().put("fighters", fighters).encode(), StandardCharsets.UTF_8);
+			Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			Log.debugf("Saved the wins of %d fighters to %s", fighters.size(), path);
+		}
+		catch (IOException | RuntimeException e) {
+			Log.warnf(e, "Failed saving the leaderboard to %s", path);
+		}
+	}
+
+	/**
+	 * Adds the wins saved in {@code path}, if there are any. Never fails: failures are logged.
+	 */
+	void restore(Path path) {
+		if (!Files.exists(path)) {
+			Log.infof("No leaderboard saved in %s yet, starting from scratch", path);
+			return;
+		}
+
+		try {
+			var fighters = new JsonObject(Files.readString(path, StandardCharsets.UTF_8)).getJsonArray("fighters");
+
+			synchronized (this.sketch) {
+				// Most wins first, and no more than there are counters for, so that no fighter pushes out one with more wins
+				fighters.stream()
+					.map(fighter -> FighterWins.fromJson((JsonObject) fighter))
+					.sorted(FighterWins.MOST_WINS_FIRST)
+					.limit(this.config.capacity())
+					.forEach(wins -> this.sketch.add(wins.name(), wins.wins(), wins.error()));
+
+				rerank();
+			}
+
+			Log.infof("Restored the wins of %d fighters from %s", countedFighters(), path);
+		}
+		catch (IOException | RuntimeException e) {
+			Log.warnf(e, "Failed restoring the leaderboard from %s, starting from scratch", path);
+		}
+	}
+
+	/**
+	 * The wins of a leader. Only ever changed while its entry in {@link #leaders} is locked.
+	 */
+	private static final class LeaderWins {
+		private final long error;
+		private volatile long wins;
+
+		private LeaderWins(long wins, long error) {
+			this.wins = wins;
+			this.error = error;
+		}
+
+		private LeaderWins increment() {
+			this.wins++;
+			return this;
+		}
+
+		private FighterWins toFighterWins(String name) {
+			return new FighterWins(name, this.wins, this.error);
+		}
+	}
+}
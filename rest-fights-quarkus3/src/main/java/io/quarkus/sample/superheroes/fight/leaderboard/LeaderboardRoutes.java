@@ -0,0 +1,74 @@
+package io.quarkus.sample.superheroes.fight.leaderboard;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+
+import io.quarkus.logging.Log;
+
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.json.JsonArray;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Serves the {@link Leaderboard}. {@value #LEADERBOARD_PATH} returns up to {@code size} fighters (default {@value #DEFAULT_SIZE}) with the most wins, most first, and {@value #FIGHTER_PATH} returns the wins of a single fighter.
+ * <p>
+ *   Only registered when {@code fight.leaderboard.enabled} is {@code true}.
+ * </p>
+ */
+@ApplicationScoped
+class LeaderboardRoutes {
+	static final String LEADERBOARD_PATH = "/api/fights/leaderboard";
+	static final String FIGHTER_PATH = "/api/fights/leaderboard/:name";
+	static final int DEFAULT_SIZE = 10;
+
+	private final Leaderboard leaderboard;
+
+	LeaderboardRoutes(Leaderboard leaderboard) {
+		this.leaderboard = leaderboard;
+	}
+
+	void onRouter(@Observes Router router) {
+		if (this.leaderboard.isEnabled()) {
+			register(router);
+			Log.infof("Leaderboard enabled on %s", LEADERBOARD_PATH);
+		}
+	}
+
+	void register(Router router) {
+		router.get(LEADERBOARD_PATH).handler(this::top);
+		router.get(FIGHTER_PATH).handler(this::wins);
+	}
+
+	private void top(RoutingContext routingContext) {
+		var size = routingContext.queryParams().get("size");
+		int limit;
+
+		try {
+			limit = (size != null) ? Integer.parseInt(size) : DEFAULT_SIZE;
+		}
+		catch (NumberFormatException e) {
+			limit = 0;
+		}
+
+		if (limit < 1) {
+			routingContext.response()
+				.setStatusCode(400)
+				.end("size must be a positive whole number");
+			return;
+		}
+
+		var fighters = new JsonArray();
+		this.leaderboard.top(limit).forEach(wins -> fighters.add(wins.toJson()));
+
+		routingContext.response()
+			.putHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+			.end(fighters.toBuffer());
+	}
+
+	private void wins(RoutingContext routingContext) {
+		routingContext.response()
+			.putHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+			.end(this.leaderboard.wins(routingContext.pathParam("name")).toJson().toBuffer());
+	}
+}
@@ -0,0 +1,134 @@
+package io.quarkus.sample.superheroes.fight.leaderboard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Approximate counts of the most frequent items in an unbounded stream, in a fixed number of counters, with the Space-Saving algorithm (Metwally, Agrawal and El Abbadi).
+ * <p>
+ *   Until there are more items than counters, every count is exact. After that, an item without a counter takes over the one with the lowest count, and inherits that count as its {@link FighterWins#error() error}. A count is never lower than the item's real count, nor higher than it by more than its error, and any item that makes up more than {@code 1 / capacity} of the stream always has a counter.
+ * </p>
+ * <p>
+ *   Not thread-safe.
+ * </p>
+ */
+final class SpaceSaving {
+	private static final Comparator<Counter> LOWEST_FIRST = Comparator.comparingLong((Counter counter) -> counter.count)
+		.thenComparingLong(counter -> counter.sequence);
+
+	private final int capacity;
+	private final Map<String, Counter> counters;
+	private final TreeSet<Counter> byCount = new TreeSet<>(LOWEST_FIRST);
+	private long sequence;
+
+	SpaceSaving(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("capacity must be positive");
+		}
+
+		this.capacity = capacity;
+		this.counters = new HashMap<>(capacity * 2);
+	}
+
+	void add(String item) {
+		add(item, 1, 0);
+	}
+
+	/**
+	 * Adds {@code count} occurrences of {@code item}, which are already known to be overcounted by up to {@code error}
+	 */
+	void add(String item, long count, long error) {
+		var counter = this.counters.get(item);
+
+		if (counter != null) {
+			this.byCount.remove(counter);
+			counter.count += count;
+			counter.error += error;
+		}
+		else if (this.counters.size() < this.capacity) {
+			counter = new Counter(item, count, error, this.sequence++);
+			this.counters.put(item, counter);
+		}
+		else {
+			var lowest = this.byCount.pollFirst();
+			this.counters.remove(lowest.item);
+			counter = new Counter(item, lowest.count + count, lowest.count + error, this.sequence++);
+			this.counters.put(item, counter);
+		}
+
+		this.byCount.add(counter);
+	}
+
+	/**
+	 * Stops counting {@code item}
+	 * @return What {@code item} was counted as, or {@code null} if it wasn't counted
+	 */
+	FighterWins remove(String item) {
+		var counter = this.counters.remove(item);
+
+		if (counter == null) {
+			return null;
+		}
+
+		this.byCount.remove(counter);
+		return counter.toFighterWins();
+	}
+
+	/**
+	 * @return What {@code item} is counted as. If it isn't counted, it can have occurred at most {@link #lowestCount()} times.
+	 */
+	FighterWins get(String item) {
+		var counter = this.counters.get(item);
+
+		return (counter != null) ?
+		       counter.toFighterWins() :
+		       new FighterWins(item, lowestCount(), lowestCount());
+	}
+
+	/**
+	 * The most that any item without a counter can have occurred: {@code 0} until every counter is taken
+	 */
+	long lowestCount() {
+		return (this.counters.size() < this.capacity) ? 0 : this.byCount.first().count;
+	}
+
+	/**
+	 * @return Up to {@code limit} items with the highest counts, highest first
+	 */
+	List<FighterWins> top(int limit) {
+		var top = new ArrayList<FighterWins>(Math.min(limit, this.counters.size()));
+		var iterator = this.byCount.descendingIterator();
+
+		while (iterator.hasNext() && (top.size() < limit)) {
+			top.add(iterator.next().toFighterWins());
+		}
+
+		return top;
+	}
+
+	int size() {
+		return this.counters.size();
+	}
+
+	private static final class Counter {
+		private final String item;
+		private final long sequence;
+		private long count;
+		private long error;
+
+		private Counter(String item, long count, long error, long sequence) {
+			this.item = item;
+			this.count = count;
+			this.error = error;
+			this.sequence = sequence;
+		}
+
+		private FighterWins toFighterWins() {
+			return new FighterWins(this.item, this.count, this.error);
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package io.quarkus.sample.superheroes.fight.metrics;
+
+import java.time.Duration;
+import java.util.EnumMap;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import io.quarkus.sample.superheroes.fight.metrics.StageTimer.Outcome;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Creates the {@link StageTimer}s for each stage of the fight pipeline.
+ * <p>
+ *   Every stage is published as the {@value #METRIC_NAME} timer, tagged with {@value #STAGE_TAG} and {@value #OUTCOME_TAG}. Each timer publishes a percentile histogram, so latency percentiles can be aggregated across instances (for example with {@code histogram_quantile} in Prometheus). The histograms are served from {@code /q/metrics} along with every other meter.
+ * </p>
+ * <p>
+ *   All of the timers for a stage are registered up front, when the stage is created, so that nothing is looked up or registered while a fight is in progress.
+ * </p>
+ */
+@ApplicationScoped
+public class StageMetrics {
+	public static final String METRIC_NAME = "fights.stage";
+	public static final String STAGE_TAG = "stage";
+	public static final String OUTCOME_TAG = "outcome";
+
+	static final Duration MINIMUM_EXPECTED_DURATION = Duration.ofNanos(500);
+	static final Duration MAXIMUM_EXPECTED_DURATION = Duration.ofSeconds(30);
+
+	private final MeterRegistry meterRegistry;
+
+	public StageMetrics(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	/**
+	 * Registers a stage along with every outcome it can record
+	 */
+	public StageTimer stage(String stage, Outcome... outcomes) {
+		var timers = new EnumMap<Outcome, Timer>(Outcome.class);
+
+		for (var outcome : outcomes) {
+			timers.put(outcome,
+				Timer.builder(METRIC_NAME)
+					.description("Time taken by each stage of the fight pipeline")
+					.tag(STAGE_TAG, stage)
+					.tag(OUTCOME_TAG, outcome.getTagValue())
+					.publishPercentileHistogram()
+					.minimumExpectedValue(MINIMUM_EXPECTED_DURATION)
+					.maximumExpectedValue(MAXIMUM_EXPECTED_DURATION)
+					.register(this.meterRegistry)
+			);
+		}
+
+		return new StageTimer(stage, timers);
+	}
+}
@@ -0,0 +1,127 @@
+package io.quarkus.sample.superheroes.fight.metrics;
+
+import java.util.EnumMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import io.quarkus.logging.Log;
+
+import io.micrometer.core.instrument.Timer;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Records how long one stage of the fight pipeline takes, with one pre-registered {@link Timer} per {@link Outcome}.
+ * <p>
+ *   Looking up the timer for an outcome is an array index and recording into it only increments the buckets of its histogram, so {@link #record(Outcome, long)} does not allocate. {@link #time(Supplier, Outcome, Outcome, Outcome)} does: it wraps the {@link Uni} in a couple of operators on every call.
+ * </p>
+ */
+public final class StageTimer {
+	private final String stage;
+	private final Timer[] timers = new Timer[Outcome.values().length];
+	private final boolean[] unregisteredReported = new boolean[Outcome.values().length];
+
+	StageTimer(String stage, EnumMap<Outcome, Timer> timers) {
+		this.stage = stage;
+		timers.forEach((outcome, timer) -> this.timers[outcome.ordinal()] = timer);
+	}
+
+	/**
+	 * Records the time since {@code startNanos}, which must come from {@link System#nanoTime()}.
+	 * <p>
+	 *   Times for an outcome that this stage wasn't registered with are dropped, and logged the first time they happen, so that a metrics mistake never fails a fight.
+	 * </p>
+	 */
+	public void record(Outcome outcome, long startNanos) {
+		var timer = this.timers[outcome.ordinal()];
+
+		if (timer == null) {
+			reportUnregistered(outcome);
+			return;
+		}
+
+		timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+	}
+
+	private void reportUnregistered(Outcome outcome) {
+		// Not synchronized: at worst the warning is logged more than once
+		if (!this.unregisteredReported[outcome.ordinal()]) {
+			this.unregisteredReported[outcome.ordinal()] = true;
+			Log.warnf("Outcome %s is not registered for stage %s, so its times are not recorded", outcome, this.stage);
+		}
+	}
+
+	/**
+	 * Times a {@link Uni} from subscription until it emits an item or a failure. Cancellations aren't recorded.
+	 * <p>
+	 *   Each call allocates the operators around {@code operation}, and each subscription their subscribers. Code that already tracks its own start time should call {@link #record(Outcome, long)} instead.
+	 * </p>
+	 * @param operation Creates the {@link Uni} to time. It is called on subscription, so that the time it takes is included.
+	 * @param onItem The outcome to record when a non-{@code null} item is emitted
+	 * @param onNullItem The outcome to record when a {@code null} item is emitted
+	 * @param onFailure The outcome to record when a failure is emitted
+	 */
+	public <T> Uni<T> time(Supplier<Uni<T>> operation, Outcome onItem, Outcome onNullItem, Outcome onFailure) {
+		return Uni.createFrom().deferred(() -> {
+			var start = System.nanoTime();
+
+			return operation.get()
+				.onItemOrFailure().invoke((item, failure) -> {
+					if (failure != null) {
+						record(onFailure, start);
+					}
+					else {
+						record((item != null) ? onItem : onNullItem, start);
+					}
+				});
+		});
+	}
+
+	/**
+	 * Times a {@link Uni}, recording {@link Outcome#SUCCESS} for any item and {@link Outcome#FAILURE} for a failure
+	 */
+	public <T> Uni<T> time(Supplier<Uni<T>> operation) {
+		return time(operation, Outcome.SUCCESS, Outcome.SUCCESS, Outcome.FAILURE);
+	}
+
+	public enum Outcome {
+		/**
+		 * The stage completed normally
+		 */
+		SUCCESS("success"),
+
+		/**
+		 * The stage completed, but there was nothing to return
+		 */
+		NOT_FOUND("not_found"),
+
+		/**
+		 * The stage failed. For client attempts this means the attempt is retried, unless the retries are exhausted or the circuit breaker is open.
+		 */
+		FAILURE("failure"),
+
+		/**
+		 * The stage failed and a fallback was used instead
+		 */
+		FALLBACK("fallback"),
+
+		/**
+		 * The stage was served from a prefetched reservoir rather than calling a downstream service
+		 */
+		RESERVOIR("reservoir"),
+
+		/**
+		 * The stage was served from an in-memory roster of every fighter rather than calling a downstream service
+		 */
+		ROSTER("roster");
+
+		private final String tagValue;
+
+		Outcome(String tagValue) {
+			this.tagValue = tagValue;
+		}
+
+		public String getTagValue() {
+			return this.tagValue;
+		}
+	}
+}
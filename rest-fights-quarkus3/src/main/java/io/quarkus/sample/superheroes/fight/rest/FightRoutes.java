@@ -0,0 +1,149 @@
+package io.quarkus.sample.superheroes.fight.rest;
+
+import java.time.Duration;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+
+import org.bson.types.ObjectId;
+
+import io.quarkus.sample.superheroes.fight.FightDelta;
+import io.quarkus.sample.superheroes.fight.codec.FightJson;
+import io.quarkus.sample.superheroes.fight.service.EncodedFight;
+import io.quarkus.sample.superheroes.fight.service.FightService;
+
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * HTTP routes that write fights as JSON with {@link FightJson}, without going through any object mapper.
+ * <p>
+ *   {@value #FIGHT_PATH} writes a fight straight from its cached JSON (see {@link EncodedFight}). Responses carry a strong {@code ETag}, and a request whose {@code If-None-Match} matches it gets an empty {@code 304} instead of the fight.
+ * </p>
+ * <p>
+ *   {@value #FIGHTS_SINCE_PATH} returns the fights persisted since the {@code cursor} query parameter (see {@link FightService#findFightsSince(String, int, Duration)}). At most {@code size} fights are returned (default {@value #DEFAULT_SIZE}), and if there are none yet the request is held for up to {@code wait} seconds (default {@code 0}) for new ones.
+ * </p>
+ */
+@ApplicationScoped
+class FightRoutes {
+	static final String FIGHT_PATH = "/api/fights/:id";
+	static final String FIGHTS_SINCE_PATH = "/api/fights/since";
+	static final int DEFAULT_SIZE = 100;
+
+	private final FightService fightService;
+
+	FightRoutes(FightService fightService) {
+		this.fightService = fightService;
+	}
+
+	void onRouter(@Observes Router router) {
+		// Registered first, as "since" would otherwise be taken for a fight id
+		router.get(FIGHTS_SINCE_PATH).handler(this::findFightsSince);
+		router.get(FIGHT_PATH).handler(this::findFightById);
+	}
+
+	private void findFightsSince(RoutingContext routingContext) {
+		var cursor = routingContext.queryParams().get("cursor");
+		int size;
+		Duration wait;
+
+		try {
+			size = Integer.parseInt(queryParam(routingContext, "size", String.valueOf(DEFAULT_SIZE)));
+			wait = Duration.ofSeconds(Long.parseLong(queryParam(routingContext, "wait", "0")));
+		}
+		catch (NumberFormatException e) {
+			badRequest(routingContext, "size and wait must be whole numbers");
+			return;
+		}
+
+		if ((size < 1) || (size > FightService.MAX_PAGE_SIZE)) {
+			badRequest(routingContext, "size must be between 1 and " + FightService.MAX_PAGE_SIZE);
+			return;
+		}
+
+		this.fightService.findFightsSince(cursor, size, wait)
+			.subscribe().with(
+				fightDelta -> write(routingContext, fightDelta),
+				failure -> {
+					// An invalid cursor
+					if (failure instanceof IllegalArgumentException) {
+						badRequest(routingContext, failure.getMessage());
+					}
+					else {
+						routingContext.fail(failure);
+					}
+				}
+			);
+	}
+
+	private static String queryParam(RoutingContext routingContext, String name, String defaultValue) {
+		var value = routingContext.queryParams().get(name);
+
+		return (value != null) ? value : defaultValue;
+	}
+
+	private static void badRequest(RoutingContext routingContext, String message) {
+		routingContext.response()
+			.setStatusCode(400)
+			.end(message);
+	}
+
+	private static void write(RoutingContext routingContext, FightDelta fightDelta) {
+		var json = new StringBuilder("{\"fights\":[");
+		var fights = fightDelta.getFights();
+
+		for (var i = 0; i < fights.size(); i++) {
+			if (i > 0) {
+				json.append(',');
+			}
+
+			json.append(FightJson.encode(fights.get(i)));
+		}
+
+		// Cursors are URL-safe Base64, so they never need escaping
+		json.append("],\"cursor\":")
+			.append((fightDelta.getCursor() != null) ? ('"' + fightDelta.getCursor() + '"') : "null")
+			.append(",\"more\":")
+			.append(fightDelta.isMore())
+			.append('}');
+
+		routingContext.response()
+			.putHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+			.end(json.toString());
+	}
+
+	private void findFightById(RoutingContext routingContext) {
+		var id = routingContext.pathParam("id");
+
+		if (!ObjectId.isValid(id)) {
+			// Not a fight id, so it may be meant for another route, such as the live feed
+			routingContext.next();
+			return;
+		}
+
+		this.fightService.findEncodedFightById(id)
+			.subscribe().with(
+				encodedFight -> write(routingContext, encodedFight),
+				routingContext::fail
+			);
+	}
+
+	private static void write(RoutingContext routingContext, EncodedFight encodedFight) {
+		var response = routingContext.response();
+
+		if (encodedFight == null) {
+			response.setStatusCode(404).end();
+		}
+		else if (encodedFight.matches(routingContext.request().getHeader(HttpHeaders.IF_NONE_MATCH))) {
+			response.setStatusCode(304)
+				.putHeader(HttpHeaders.ETAG, encodedFight.etag())
+				.end();
+		}
+		else {
+			response.putHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+				.putHeader(HttpHeaders.ETAG, encodedFight.etag())
+				.end(encodedFight.json());
+		}
+	}
+}
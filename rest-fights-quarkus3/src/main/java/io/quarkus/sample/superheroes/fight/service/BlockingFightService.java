@@ -0,0 +1,245 @@
+package io.quarkus.sample.superheroes.fight.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import org.bson.types.ObjectId;
+
+import io.quarkus.logging.Log;
+import io.quarkus.mongodb.reactive.ReactiveMongoCollection;
+import io.quarkus.sample.superheroes.fight.Fight;
+import io.quarkus.sample.superheroes.fight.Fighters;
+import io.quarkus.sample.superheroes.fight.client.Deadline;
+import io.quarkus.sample.superheroes.fight.client.DeadlineExceededException;
+import io.quarkus.sample.superheroes.fight.client.HeroClient;
+import io.quarkus.sample.superheroes.fight.client.VillainClient;
+import io.quarkus.sample.superheroes.fight.config.FightConfig;
+import io.quarkus.sample.superheroes.fight.metrics.StageMetrics;
+import io.quarkus.sample.superheroes.fight.metrics.StageTimer;
+import io.quarkus.sample.superheroes.fight.metrics.StageTimer.Outcome;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Imperative version of {@link FightService}, used instead of it when {@code fight.execution.mode} is {@code virtual-threads} (see {@link VirtualThreadExecutor}).
+ * <p>
+ *   Every method blocks, so it must only be called from a thread that is allowed to block, such as a virtual thread. Fights are read and written with the blocking MongoDB driver.
+ *   The Hero and Villain clients are still reactive, so that retries, hedging, circuit breakers and the rest still apply, but their results are waited for in place.
+ * </p>
+ * <p>
+ *   The {@code fighters}, {@code hero.fetch}, {@code villain.fetch}, {@code persist} and {@code fight} {@link StageMetrics} stages are recorded just like {@link FightService} records them, so either execution mode can be compared with the other on the same dashboards.
+ * </p>
+ * <p>
+ *   Only {@link FightService#findAllFights()}, {@link FightService#findFightById(String)}, {@link FightService#findRandomFighters()} and {@link FightService#performFight(Fighters)} have a blocking version. Streaming, paging, fights-since deltas and batch fights always run reactively.
+ * </p>
+ */
+@ApplicationScoped
+class BlockingFightService {
+	private final HeroClient heroClient;
+	private final VillainClient villainClient;
+	private final FightConfig fightConfig;
+	private final FightWriteBehind fightWriteBehind;
+	private final FighterReservoirs fighterReservoirs;
+	private final FallbackFighters fallbackFighters;
+	private final FightCache fightCache;
+	private final PersistedFights persistedFights;
+	private final MongoClient mongoClient;
+	private final StageTimer fightersTimer;
+	private final StageTimer heroFetchTimer;
+	private final StageTimer villainFetchTimer;
+	private final StageTimer persistTimer;
+	private final StageTimer fightTimer;
+	private volatile MongoCollection<Fight> fights;
+
+	BlockingFightService(HeroClient heroClient, VillainClient villainClient, FightConfig fightConfig, FightWriteBehind fightWriteBehind, FighterReservoirs fighterReservoirs, FallbackFighters fallbackFighters, FightCache fightCache, PersistedFights persistedFights, MongoClient mongoClient, StageMetrics stageMetrics) {
+		this.heroClient = heroClient;
+		this.villainClient = villainClient;
+		this.fightConfig = fightConfig;
+		this.fightWriteBehind = fightWriteBehind;
+		this.fighterReservoirs = fighterReservoirs;
+		this.fallbackFighters = fallbackFighters;
+		this.fightCache = fightCache;
+		this.persistedFights = persistedFights;
+		this.mongoClient = mongoClient;
+		this.fightersTimer = stageMetrics.stage("fighters", Outcome.SUCCESS, Outcome.FALLBACK);
+		this.heroFetchTimer = stageMetrics.stage("hero.fetch", Outcome.SUCCESS, Outcome.NOT_FOUND, Outcome.RESERVOIR, Outcome.FALLBACK);
+		this.villainFetchTimer = stageMetrics.stage("villain.fetch", Outcome.SUCCESS, Outcome.NOT_FOUND, Outcome.RESERVOIR, Outcome.FALLBACK);
+		this.persistTimer = stageMetrics.stage("persist", Outcome.SUCCESS, Outcome.FAILURE);
+		this.fightTimer = stageMetrics.stage("fight", Outcome.SUCCESS, Outcome.FAILURE);
+	}
+
+	List<Fight> findAllFights() {
+		Log.debug("Getting all fights");
+		return fights().find().into(new ArrayList<>());
+	}
+
+	Fight findFightById(String id) {
+		Log.debugf("Finding fight by id = %s", id);
+		var fightId = new ObjectId(id);
+		var fight = this.fightCache.get(fightId);
+
+		if (fight != null) {
+			Log.debugf("Found fight in cache: %s", fight);
+			return fight;
+		}
+
+		fight = fights().find(Filters.eq("_id", fightId)).first();
+		this.fightCache.put(fight);
+
+		return fight;
+	}
+
+	/**
+	 * Finds a random hero and a random villain at the same time, using fallback fighters for any that can't be found.
+	 * <p>
+	 *   If {@code fight.deadlines.random-fighters} is set, neither search goes on past it (see {@link Deadline}).
+	 * </p>
+	 */
+	Fighters findRandomFighters() {
+		Log.debug("Finding random fighters");
+		var start = System.nanoTime();
+		var deadline = Deadline.after(this.fightConfig.deadlines().randomFighters());
+		// Both searches are started before waiting on either, so that they run concurrently
+		var heroSearch = search(this.fighterReservoirs.pollHero(), () -> this.heroClient.findRandomHero(deadline), this.heroFetchTimer, start);
+		var villainSearch = search(this.fighterReservoirs.pollVillain(), () -> this.villainClient.findRandomVillain(deadline), this.villainFetchTimer, start);
+
+		var fighters = new Fighters(
+			awaitFighter(heroSearch, "Hero", this.fallbackFighters::addHero, this.fallbackFighters::configuredHero, this.fallbackFighters::fallbackHero),
+			awaitFighter(villainSearch, "Villain", this.fallbackFighters::addVillain, this.fallbackFighters::configuredVillain, this.fallbackFighters::fallbackVillain)
+		);
+		this.fightersTimer.record(Outcome.SUCCESS, start);
+
+		return fighters;
+	}
+
+	/**
+	 * Starts searching for a fighter, unless one was already reserved, timing it as {@code fetchTimer} the same way {@link FightService} does
+	 */
+	private static <T> CompletableFuture<T> search(T reserved, Supplier<Uni<T>> fetcher, StageTimer fetchTimer, long start) {
+		if (reserved != null) {
+			fetchTimer.record(Outcome.RESERVOIR, start);
+			return CompletableFuture.completedFuture(reserved);
+		}
+
+		return fetchTimer.time(fetcher, Outcome.SUCCESS, Outcome.NOT_FOUND, Outcome.FALLBACK)
+			.subscribeAsCompletionStage();
+	}
+
+	/**
+	 * Waits for a fighter to be found
+	 * @param found Told about the fighter if one is found
+	 * @param notFound The fighter to use if the search finds nothing
+	 * @param fallback The fighter to use if the search fails or is cancelled
+	 */
+	private static <T> T awaitFighter(CompletableFuture<T> search, String kind, Consumer<T> found, Supplier<T> notFound, Supplier<T> fallback) {
+		T fighter;
+
+		try {
+			fighter = search.join();
+		}
+		catch (CompletionException | CancellationException e) {
+			Log.warnf("Falling back on %s: %s", kind, VirtualThreadExecutor.unwrap(e));
+			return fallback.get();
+		}
+
+		if (fighter == null) {
+			return notFound.get();
+		}
+
+		Log.debugf("Got random %s: %s", kind, fighter);
+		found.accept(fighter);
+		return fighter;
+	}
+
+	/**
+	 * Performs a fight between {@code fighters} and persists it.
+	 * <p>
+	 *   If {@code fight.deadlines.fight} has passed by the time the winner has been decided, the fight isn't persisted and a {@link DeadlineExceededException} is thrown instead.
+	 * </p>
+	 * @param winnerDecider Decides the winner, so that fights are decided the same way in both execution modes
+	 */
+	Fight performFight(Fighters fighters, Function<Fighters, Fight> winnerDecider) {
+		Log.debugf("Performing a fight with fighters: %s", fighters);
+		var start = System.nanoTime();
+		var deadline = Deadline.after(this.fightConfig.deadlines().fight());
+
+		try {
+			var fight = winnerDecider.apply(fighters);
+
+			if (deadline.remaining().isZero()) {
+				throw new DeadlineExceededException();
+			}
+
+			persistFight(fight);
+			this.fightTimer.record(Outcome.SUCCESS, start);
+
+			return fight;
+		}
+		catch (RuntimeException e) {
+			this.fightTimer.record(Outcome.FAILURE, start);
+			throw e;
+		}
+	}
+
+	private void persistFight(Fight fight) {
+		Log.debugf("Persisting a fight: %s", fight);
+		var start = System.nanoTime();
+
+		var buffered = this.fightWriteBehind.isEnabled();
+
+		try {
+			if (buffered) {
+				this.fightWriteBehind.write(fight).await().indefinitely();
+			}
+			else {
+				insert(fight);
+			}
+		}
+		catch (RuntimeException e) {
+			this.persistTimer.record(Outcome.FAILURE, start);
+			throw e;
+		}
+
+		this.persistTimer.record(Outcome.SUCCESS, start);
+
+		// Buffered fights are handed to persistedFights by the write-behind once they are written
+		if (!buffered) {
+			this.persistedFights.persisted(fight);
+		}
+	}
+
+	/**
+	 * Writes a single fight straight to the database
+	 */
+	void insert(Fight fight) {
+		fights().insertOne(fight);
+	}
+
+	/**
+	 * The {@code Fights} collection, in the same database that {@link Fight} is mapped to by Panache
+	 */
+	private MongoCollection<Fight> fights() {
+		var fights = this.fights;
+
+		if (fights == null) {
+			ReactiveMongoCollection<Fight> reactiveFights = Fight.mongoCollection();
+			var namespace = reactiveFights.getNamespace();
+			fights = this.mongoClient.getDatabase(namespace.getDatabaseName())
+				.getCollection(namespace.getCollectionName(), Fight.class);
+			this.fights = fights;
+		}
+
+		return fights;
+	}
+}
@@ -0,0 +1,109 @@
+package io.quarkus.sample.superheroes.fight.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+
+import io.quarkus.sample.superheroes.fight.Fight;
+import io.quarkus.sample.superheroes.fight.codec.FightJson;
+
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * A {@link Fight} encoded as JSON, ready to be written to any number of responses, along with a strong ETag for it.
+ * <p>
+ *   Fights never change once written, so neither does their JSON. The ETag is a hash of the JSON rather than of the fight's id, so it changes whenever the way fights are encoded does.
+ * </p>
+ */
+public final class EncodedFight {
+	/**
+	 * Rough fixed cost of a cached encoded fight: the {@link Buffer}, the ETag and the cache entry
+	 */
+	private static final int OVERHEAD_BYTES = 150;
+
+	private final Buffer json;
+	private final String etag;
+	private final Instant fightDate;
+
+	private EncodedFight(Buffer json, String etag, Instant fightDate) {
+		this.json = json;
+		this.etag = etag;
+		this.fightDate = fightDate;
+	}
+
+	static EncodedFight of(Fight fight) {
+		var json = FightJson.encode(fight).getBytes(StandardCharsets.UTF_8);
+
+		return new EncodedFight(Buffer.buffer(json), etag(json), fight.fightDate);
+	}
+
+	private static String etag(byte[] json) {
+		try {
+			var hash = MessageDigest.getInstance("SHA-256").digest(json);
+			var etag = new StringBuilder(34).append('"');
+
+			// Half of the hash is plenty to tell versions of a single fight apart
+			for (var i = 0; i < 16; i++) {
+				etag.append(Character.forDigit((hash[i] >> 4) & 0xF, 16))
+					.append(Character.forDigit(hash[i] & 0xF, 16));
+			}
+
+			return etag.append('"').toString();
+		}
+		catch (NoSuchAlgorithmException e) {
+			// Every JVM has to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * The JSON. The same {@link Buffer} can be written to many responses at once without being copied.
+	 */
+	public Buffer json() {
+		return this.json;
+	}
+
+	/**
+	 * The strong ETag, including its quotes
+	 */
+	public String etag() {
+		return this.etag;
+	}
+
+	/**
+	 * @param ifNoneMatch The value of an {@code If-None-Match} request header, which may be {@code null}
+	 * @return {@code true} if the client already has this version of the fight, so a {@code 304} can be sent instead of the JSON
+	 */
+	public boolean matches(String ifNoneMatch) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+
+		for (var candidate : ifNoneMatch.split(",")) {
+			var tag = candidate.trim();
+
+			// If-None-Match uses weak comparison, so a weak validator still matches
+			if (tag.startsWith("W/")) {
+				tag = tag.substring(2);
+			}
+
+			if (tag.equals("*") || tag.equals(this.etag)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * The date of the encoded fight, which decides when it expires
+	 */
+	Instant fightDate() {
+		return this.fightDate;
+	}
+
+	int weigh() {
+		return OVERHEAD_BYTES + this.json.length();
+	}
+}
@@ -0,0 +1,126 @@
+package io.quarkus.sample.superheroes.fight.service;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import io.quarkus.sample.superheroes.fight.client.Hero;
+import io.quarkus.sample.superheroes.fight.client.Villain;
+import io.quarkus.sample.superheroes.fight.config.FightConfig;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Holds the {@link FallbackPool}s of real {@link Hero}s and {@link Villain}s that were recently found, to fall back on when the Hero or Villain service is failing.
+ * <p>
+ *   The pools are refreshed by the fighters found while the services are healthy, so falling back never sends any requests to a failing service. The configured fallback fighter is only used while a pool is still empty.
+ * </p>
+ * <p>
+ *   Nothing refreshes the pools in the background. They only change when a fighter is found, so during an outage they keep the fighters found before it, however long it lasts. A fighter changed or deleted in the Hero or Villain service meanwhile is still fought with until the service recovers and newer fighters replace it.
+ * </p>
+ * <p>
+ *   The pools are only used when {@code fight.fallback-pool.enabled} is {@code true}. Otherwise the configured fallback fighters are always used.
+ * </p>
+ */
+@ApplicationScoped
+class FallbackFighters {
+	private final FightConfig fightConfig;
+	private final boolean enabled;
+	private final RandomSource random;
+	private final FallbackPool<Hero> heroes;
+	private final FallbackPool<Villain> villains;
+	private final Counter heroHits;
+	private final Counter heroMisses;
+	private final Counter villainHits;
+	private final Counter villainMisses;
+
+	FallbackFighters(FightConfig fightConfig, RandomSource random, MeterRegistry meterRegistry) {
+		var config = fightConfig.fallbackPool();
+		this.fightConfig = fightConfig;
+		this.enabled = config.enabled();
+		this.random = random;
+		this.heroes = new FallbackPool<>(config.size());
+		this.villains = new FallbackPool<>(config.size());
+		this.heroHits = meterRegistry.counter("fights.fallback.pool.takes", "fighter", "hero", "outcome", "hit");
+		this.heroMisses = meterRegistry.counter("fights.fallback.pool.takes", "fighter", "hero", "outcome", "miss");
+		this.villainHits = meterRegistry.counter("fights.fallback.pool.takes", "fighter", "villain", "outcome", "hit");
+		this.villainMisses = meterRegistry.counter("fights.fallback.pool.takes", "fighter", "villain", "outcome", "miss");
+		meterRegistry.gauge("fights.fallback.pool.size", Tags.of("fighter", "hero"), this.heroes, FallbackPool::size);
+		meterRegistry.gauge("fights.fallback.pool.size", Tags.of("fighter", "villain"), this.villains, FallbackPool::size);
+	}
+
+	/**
+	 * Remembers a {@link Hero} that was found, so it can be fallen back on later
+	 */
+	void addHero(Hero hero) {
+		if (this.enabled) {
+			this.heroes.add(hero);
+		}
+	}
+
+	/**
+	 * Remembers a {@link Villain} that was found, so it can be fallen back on later
+	 */
+	void addVillain(Villain villain) {
+		if (this.enabled) {
+			this.villains.add(villain);
+		}
+	}
+
+	/**
+	 * Picks a recently found {@link Hero}, or {@code null} if there isn't one available
+	 */
+	Hero pickHero() {
+		return this.enabled ? pick(this.heroes, this.heroHits, this.heroMisses) : null;
+	}
+
+	/**
+	 * Picks a recently found {@link Villain}, or {@code null} if there isn't one available
+	 */
+	Villain pickVillain() {
+		return this.enabled ? pick(this.villains, this.villainHits, this.villainMisses) : null;
+	}
+
+	/**
+	 * @return A recently found {@link Hero}, or the configured fallback {@link Hero} if there isn't one
+	 */
+	Hero fallbackHero() {
+		var hero = pickHero();
+
+		return (hero != null) ? hero : configuredHero();
+	}
+
+	/**
+	 * @return A recently found {@link Villain}, or the configured fallback {@link Villain} if there isn't one
+	 */
+	Villain fallbackVillain() {
+		var villain = pickVillain();
+
+		return (villain != null) ? villain : configuredVillain();
+	}
+
+	/**
+	 * The {@link Hero} configured by {@code fight.hero.fallback}, used when no hero could be found at all
+	 */
+	Hero configuredHero() {
+		var fallback = this.fightConfig.hero().fallback();
+
+		return new Hero(fallback.name(), fallback.level(), fallback.picture(), fallback.powers());
+	}
+
+	/**
+	 * The {@link Villain} configured by {@code fight.villain.fallback}, used when no villain could be found at all
+	 */
+	Villain configuredVillain() {
+		var fallback = this.fightConfig.villain().fallback();
+
+		return new Villain(fallback.name(), fallback.level(), fallback.picture(), fallback.powers());
+	}
+
+	private <T> T pick(FallbackPool<T> pool, Counter hits, Counter misses) {
+		var fighter = pool.pick(this.random);
+		((fighter != null) ? hits : misses).increment();
+
+		return fighter;
+	}
+}
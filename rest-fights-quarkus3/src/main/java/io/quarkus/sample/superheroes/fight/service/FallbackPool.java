@@ -0,0 +1,57 @@
+package io.quarkus.sample.superheroes.fight.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded pool of the most recently seen fighters of a single kind.
+ * <p>
+ *   Fighters are kept in a ring, so once the pool is full each new fighter replaces the oldest one. Unlike a {@link FighterReservoir}, fighters aren't removed when they are picked, so the pool can keep serving fighters for as long as its upstream is down.
+ * </p>
+ * <p>
+ *   A slot is only counted in the size once it and every slot before it have been written, so {@link #pick(RandomSource)} never sees a slot that another thread has claimed but not written yet.
+ * </p>
+ * @param <T> The kind of fighter
+ */
+final class FallbackPool<T> {
+	private final AtomicReferenceArray<T> fighters;
+	private final AtomicLong added = new AtomicLong();
+	private final AtomicInteger size = new AtomicInteger();
+
+	FallbackPool(int size) {
+		this.fighters = new AtomicReferenceArray<>(size);
+	}
+
+	/**
+	 * Adds a fighter, replacing the oldest one if the pool is full
+	 */
+	void add(T fighter) {
+		if (fighter == null) {
+			return;
+		}
+
+		this.fighters.set((int) (this.added.getAndIncrement() % this.fighters.length()), fighter);
+
+		// Slots are never emptied, so the size only ever covers written slots. Whoever writes the first missing slot also counts the ones written after it.
+		int filled;
+
+		while (((filled = this.size.get()) < this.fighters.length()) && (this.fighters.get(filled) != null)) {
+			this.size.compareAndSet(filled, filled + 1);
+		}
+	}
+
+	/**
+	 * Picks a random fighter, leaving it in the pool
+	 * @return A fighter, or {@code null} if the pool is empty
+	 */
+	T pick(RandomSource random) {
+		var size = size();
+
+		return (size > 0) ? this.fighters.get(random.nextInt(size)) : null;
+	}
+
+	int size() {
+		return this.size.get();
+	}
+}
@@ -0,0 +1,183 @@
+package io.quarkus.sample.superheroes.fight.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Function;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import org.bson.types.ObjectId;
+
+import io.quarkus.logging.Log;
+import io.quarkus.sample.superheroes.fight.Fight;
+import io.quarkus.sample.superheroes.fight.config.FightConfig;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded in-memory cache of {@link Fight}s by id, backed by <a href="https://github.com/ben-manes/caffeine">Caffeine</a> (W-TinyLFU eviction).
+ * <p>
+ *   Only active when {@code fight.cache.enabled} is {@code true}. Hits, misses and evictions are published under the {@code cache.*} metrics with {@code cache=fights}.
+ * </p>
+ * <p>
+ *   Fights that have been encoded as JSON (see {@link EncodedFight}) are cached separately, bounded by the size of their JSON, when {@code fight.cache.encoded.enabled} is {@code true}. Their metrics have {@code cache=fights.encoded}.
+ * </p>
+ * <p>
+ *   When {@code fight.indexes.fight-ttl} is set, cached fights expire when the database expires them, so that they can't be served once they're gone.
+ * </p>
+ */
+@ApplicationScoped
+class FightCache {
+	/**
+	 * Rough fixed cost of a cached {@link Fight}: the entity, its boxed levels, its {@link java.time.Instant}, its id and the cache entry itself
+	 */
+	private static final int FIGHT_OVERHEAD_BYTES = 200;
+
+	private final Cache<ObjectId, Fight> cache;
+	private final Cache<ObjectId, EncodedFight> encodedCache;
+
+	FightCache(FightConfig fightConfig, MeterRegistry meterRegistry) {
+		var config = fightConfig.cache();
+		var fightTtl = fightConfig.indexes().fightTtl();
+
+		if (config.enabled()) {
+			this.cache = CaffeineCacheMetrics.monitor(meterRegistry, createCache(config, fightTtl), "fights");
+			Log.infof("Fight cache enabled: %s", config.maxWeight().isPresent() ? config.maxWeight().getAsLong() + " bytes" : config.maxSize() + " fights");
+		}
+		else {
+			this.cache = null;
+		}
+
+		if (config.encoded().enabled()) {
+			this.encodedCache = CaffeineCacheMetrics.monitor(meterRegistry, createEncodedCache(config.encoded(), fightTtl), "fights.encoded");
+			Log.infof("Encoded fight cache enabled: %d bytes", config.encoded().maxWeight());
+		}
+		else {
+			this.encodedCache = null;
+		}
+	}
+
+	private static Cache<ObjectId, EncodedFight> createEncodedCache(FightConfig.Cache.Encoded config, Optional<Duration> fightTtl) {
+		var builder = Caffeine.newBuilder()
+			.recordStats()
+			.maximumWeight(config.maxWeight())
+			.<ObjectId, EncodedFight>weigher((id, encodedFight) -> encodedFight.weigh());
+
+		return fightTtl.isPresent() ?
+		       builder.expireAfter(expireWithFight(fightTtl.get(), EncodedFight::fightDate)).build() :
+		       builder.build();
+	}
+
+	private static Cache<ObjectId, Fight> createCache(FightConfig.Cache config, Optional<Duration> fightTtl) {
+		var builder = Caffeine.newBuilder().recordStats();
+
+		if (config.maxWeight().isPresent()) {
+			builder.maximumWeight(config.maxWeight().getAsLong())
+				.<ObjectId, Fight>weigher(FightCache::weigh);
+		}
+		else {
+			builder.maximumSize(config.maxSize());
+		}
+
+		return fightTtl.isPresent() ?
+		       builder.expireAfter(expireWithFight(fightTtl.get(), (Fight fight) -> fight.fightDate)).build() :
+		       builder.<ObjectId, Fight>build();
+	}
+
+	/**
+	 * Expires cached values {@code fightTtl} after the date of their fight, like the database's TTL index does. Values without a date never expire.
+	 */
+	private static <V> Expiry<ObjectId, V> expireWithFight(Duration fightTtl, Function<V, Instant> fightDate) {
+		return new Expiry<>() {
+			@Override
+			public long expireAfterCreate(ObjectId id, V value, long currentTime) {
+				var date = fightDate.apply(value);
+
+				return (date != null) ?
+				       Math.max(0, Duration.between(Instant.now(), date.plus(fightTtl)).toNanos()) :
+				       Long.MAX_VALUE;
+			}
+
+			@Override
+			public long expireAfterUpdate(ObjectId id, V value, long currentTime, long currentDuration) {
+				return expireAfterCreate(id, value, currentTime);
+			}
+
+			@Override
+			public long expireAfterRead(ObjectId id, V value, long currentTime, long currentDuration) {
+				return currentDuration;
+			}
+		};
+	}
+
+	/**
+	 * Estimates the memory used by a cached fight, in bytes
+	 */
+	static int weigh(ObjectId id, Fight fight) {
+		return FIGHT_OVERHEAD_BYTES +
+			length(fight.winnerName) +
+			length(fight.winnerPicture) +
+			length(fight.winnerTeam) +
+			length(fight.loserName) +
+			length(fight.loserPicture) +
+			length(fight.loserTeam);
+	}
+
+	private static int length(String value) {
+		return (value != null) ? value.length() : 0;
+	}
+
+	/**
+	 * @return The cached fight with the given id, or {@code null} if it isn't cached
+	 */
+	Fight get(ObjectId id) {
+		return (this.cache != null) ? this.cache.getIfPresent(id) : null;
+	}
+
+	/**
+	 * @return The cached JSON of the fight with the given id, or {@code null} if it isn't cached
+	 */
+	EncodedFight getEncoded(ObjectId id) {
+		return (this.encodedCache != null) ? this.encodedCache.getIfPresent(id) : null;
+	}
+
+	/**
+	 * Encodes a fight as JSON, caching the result if it has an id
+	 */
+	EncodedFight encode(Fight fight) {
+		var encodedFight = EncodedFight.of(fight);
+
+		if ((this.encodedCache != null) && (fight.id != null)) {
+			this.encodedCache.put(fight.id, encodedFight);
+		}
+
+		return encodedFight;
+	}
+
+	/**
+	 * Caches a fight. Fights that are {@code null} or haven't been assigned an id yet are ignored.
+	 */
+	void put(Fight fight) {
+		if ((this.cache != null) && (fight != null) && (fight.id != null)) {
+			this.cache.put(fight.id, fight);
+		}
+	}
+
+	/**
+	 * Runs any pending maintenance, such as evictions, right away. Caffeine otherwise runs it asynchronously.
+	 */
+	void cleanUp() {
+		if (this.cache != null) {
+			this.cache.cleanUp();
+		}
+
+		if (this.encodedCache != null) {
+			this.encodedCache.cleanUp();
+		}
+	}
+}
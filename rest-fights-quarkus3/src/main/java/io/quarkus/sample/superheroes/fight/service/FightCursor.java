@@ -0,0 +1,89 @@
+package io.quarkus.sample.superheroes.fight.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+import io.quarkus.sample.superheroes.fight.Fight;
+
+/**
+ * Keyset position within the {@code Fights} collection, ordered by {@code fightDate} and then {@code _id}.
+ * <p>
+ *   The position is exchanged with clients as an opaque, URL-safe token so that the underlying keys can change without breaking them.
+ * </p>
+ */
+final class FightCursor {
+	static final Document SORT = new Document("fightDate", 1).append("_id", 1);
+
+	private static final char SEPARATOR = ':';
+
+	private final Instant fightDate;
+	private final ObjectId id;
+
+	private FightCursor(Instant fightDate, ObjectId id) {
+		this.fightDate = fightDate;
+		this.id = id;
+	}
+
+	/**
+	 * Creates a cursor positioned just after the given {@link Fight}
+	 */
+	static FightCursor after(Fight fight) {
+		return new FightCursor(fight.fightDate, fight.id);
+	}
+
+	/**
+	 * Decodes a token previously created by {@link #encode()}
+	 * @throws IllegalArgumentException If the token is not a valid cursor
+	 */
+	static FightCursor decode(String token) {
+		try {
+			var decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+			var separatorIndex = decoded.indexOf(SEPARATOR);
+
+			return new FightCursor(
+				Instant.ofEpochMilli(Long.parseLong(decoded.substring(0, separatorIndex))),
+				new ObjectId(decoded.substring(separatorIndex + 1))
+			);
+		}
+		catch (RuntimeException e) {
+			throw new IllegalArgumentException(String.format("Invalid fight cursor: %s", token), e);
+		}
+	}
+
+	/**
+	 * Encodes this cursor as an opaque token.
+	 * <p>
+	 *   Mongo only stores dates with millisecond precision, so that is all that is kept here.
+	 * </p>
+	 */
+	String encode() {
+		var raw = this.fightDate.toEpochMilli() + String.valueOf(SEPARATOR) + this.id.toHexString();
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+	}
+
+	/**
+	 * Query matching every fight strictly after this cursor, according to {@link #SORT}
+	 */
+	Document toQuery() {
+		var date = Date.from(this.fightDate);
+
+		return new Document("$or", List.of(
+			new Document("fightDate", new Document("$gt", date)),
+			new Document("fightDate", date).append("_id", new Document("$gt", this.id))
+		));
+	}
+
+	Instant getFightDate() {
+		return this.fightDate;
+	}
+
+	ObjectId getId() {
+		return this.id;
+	}
+}
@@ -0,0 +1,258 @@
+package io.quarkus.sample.superheroes.fight.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+
+import org.bson.Document;
+
+import io.quarkus.logging.Log;
+import io.quarkus.mongodb.reactive.ReactiveMongoCollection;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.sample.superheroes.fight.Fight;
+import io.quarkus.sample.superheroes.fight.config.FightConfig;
+
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.IndexOptions;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Creates and reconciles the indexes on the {@code Fights} collection at startup.
+ * <p>
+ *   Existing indexes are matched with the declared ones by their keys rather than their names, so a declared index that already exists under another name isn't created again. Every index created here is named with the {@value #MANAGED_PREFIX} prefix. Missing indexes are created before managed indexes that are no longer declared are dropped, so queries keep an index to use while a definition changes. Only a change to the TTL of an index needs it to be dropped and re-created, since MongoDB doesn't allow two indexes on the same keys. Any other index is left alone.
+ * </p>
+ * <p>
+ *   An index that conflicts with an existing one, for example because it has the same keys but other options, is logged and skipped rather than failing the others.
+ * </p>
+ * <p>
+ *   Only active when {@code fight.indexes.enabled} is {@code true}.
+ * </p>
+ * <p>
+ *   Provisioning runs in the background so it never delays startup. While it is running, progress is logged every {@code fight.indexes.progress-interval} and the {@code fights.indexes.building} gauge is {@code 1}.
+ * </p>
+ */
+@ApplicationScoped
+class FightIndexes {
+	static final String MANAGED_PREFIX = "fights_";
+
+	enum Status {
+		DISABLED,
+		NOT_STARTED,
+		BUILDING,
+		READY,
+		FAILED
+	}
+
+	private final FightConfig.Indexes config;
+	private final AtomicReference<Status> status = new AtomicReference<>(Status.NOT_STARTED);
+
+	FightIndexes(FightConfig fightConfig, MeterRegistry meterRegistry) {
+		this.config = fightConfig.indexes();
+		meterRegistry.gauge("fights.indexes.building", this.status, s -> (s.get() == Status.BUILDING) ? 1 : 0);
+	}
+
+	void onStart(@Observes StartupEvent startupEvent) {
+		if (!this.config.enabled()) {
+			this.status.set(Status.DISABLED);
+			return;
+		}
+
+		ReactiveMongoCollection<Fight> collection = Fight.mongoCollection();
+		var start = System.nanoTime();
+		var progress = Multi.createFrom().ticks()
+			.startingAfter(this.config.progressInterval())
+			.every(this.config.progressInterval())
+			.subscribe().with(tick -> Log.infof("Indexes on Fights are still being built (%s elapsed)", Duration.ofNanos(System.nanoTime() - start)));
+
+		this.status.set(Status.BUILDING);
+
+		reconcile(collection)
+			.onTermination().invoke(progress::cancel)
+			.subscribe().with(
+				created -> {
+					this.status.set(Status.READY);
+					Log.infof("Indexes on Fights are ready (created %s)", created);
+				},
+				failure -> {
+					this.status.set(Status.FAILED);
+					Log.errorf(failure, "Failed provisioning indexes on Fights");
+				}
+			);
+	}
+
+	Status getStatus() {
+		return this.status.get();
+	}
+
+	/**
+	 * Creates any declared indexes that are missing and then drops managed indexes that are outdated, so that queries always have an index to use while a definition changes
+	 * @return The names of the indexes that were created
+	 */
+	Uni<List<String>> reconcile(ReactiveMongoCollection<Fight> collection) {
+		return collection.listIndexes()
+			.collect().asList()
+			.chain(existingIndexes -> {
+				var toCreate = new ArrayList<IndexSpec>();
+				var toDropFirst = new ArrayList<String>();
+				var toDrop = new ArrayList<String>();
+				var declared = declaredIndexes();
+
+				for (var spec : declared) {
+					var existing = existingIndexes.stream()
+						.filter(spec::hasSameKeys)
+						.findFirst();
+
+					if (existing.isEmpty()) {
+						toCreate.add(spec);
+					}
+					else if (!spec.matches(existing.get())) {
+						if (isManaged(existing.get())) {
+							// Only the TTL differs, and MongoDB doesn't allow two indexes with the same keys, so this one has to be dropped first
+							toDropFirst.add(name(existing.get()));
+							toCreate.add(spec);
+						}
+						else {
+							Log.warnf("Index %s on Fights has the same keys as %s but different options, so %s can't be created", name(existing.get()), spec.getName(), spec.getName());
+						}
+					}
+				}
+
+				existingIndexes.stream()
+					.filter(FightIndexes::isManaged)
+					.filter(existing -> declared.stream().noneMatch(spec -> spec.hasSameKeys(existing)))
+					.map(FightIndexes::name)
+					.forEach(toDrop::add);
+
+				return drop(collection, toDropFirst)
+					.chain(() -> create(collection, toCreate))
+					.call(() -> drop(collection, toDrop));
+			});
+	}
+
+	private static Uni<List<String>> create(ReactiveMongoCollection<Fight> collection, List<IndexSpec> specs) {
+		if (specs.isEmpty()) {
+			return Uni.createFrom().item(List.of());
+		}
+
+		return collection.createIndexes(specs.stream().map(IndexSpec::toIndexModel).collect(Collectors.toList()))
+			.onFailure(MongoErrors::isIndexConflict).recoverWithUni(conflict -> {
+				Log.warnf("Some indexes on Fights conflict with existing ones, creating them one at a time instead: %s", conflict.getMessage());
+
+				return Multi.createFrom().iterable(specs)
+					.onItem().transformToUniAndConcatenate(spec -> collection.createIndex(spec.getKeys(), spec.toIndexOptions())
+						.onFailure(MongoErrors::isIndexConflict).recoverWithItem(failure -> {
+							Log.warnf("Not creating index %s on Fights, which conflicts with an existing index: %s", spec.getName(), failure.getMessage());
+							return null;
+						})
+					)
+					.collect().asList();
+			});
+	}
+
+	private static Uni<Void> drop(ReactiveMongoCollection<Fight> collection, List<String> names) {
+		return Multi.createFrom().iterable(names)
+			.onItem().transformToUniAndConcatenate(name -> {
+				Log.infof("Dropping outdated index %s on Fights", name);
+				return collection.dropIndex(name)
+					// Another instance got there first
+					.onFailure(MongoErrors::isIndexNotFound).recoverWithNull();
+			})
+			.collect().asList()
+			.replaceWithVoid();
+	}
+
+	private static boolean isManaged(Document index) {
+		return name(index).startsWith(MANAGED_PREFIX);
+	}
+
+	private static String name(Document index) {
+		return index.getString("name");
+	}
+
+	/**
+	 * The indexes the queries in {@link FightService} rely on
+	 */
+	List<IndexSpec> declaredIndexes() {
+		var indexes = new ArrayList<IndexSpec>();
+
+		// Keyset pagination and "fights since" queries
+		indexes.add(new IndexSpec(new Document("fightDate", 1).append("_id", 1), null));
+
+		// Most recent fights won or lost by a given fighter
+		indexes.add(new IndexSpec(new Document("winnerName", 1).append("fightDate", -1), null));
+		indexes.add(new IndexSpec(new Document("loserName", 1).append("fightDate", -1), null));
+
+		// TTL indexes must be on a single field, so this can't be folded into the fightDate/_id index
+		this.config.fightTtl()
+			.ifPresent(ttl -> indexes.add(new IndexSpec(new Document("fightDate", 1), ttl.toSeconds())));
+
+		return indexes;
+	}
+
+	/**
+	 * A declared index. It is named after its keys, the way MongoDB names indexes by default but with the {@value #MANAGED_PREFIX} prefix, so an index whose keys change gets a new name and can be created before the old one is dropped.
+	 */
+	static final class IndexSpec {
+		private final String name;
+		private final Document keys;
+		private final Long expireAfterSeconds;
+
+		IndexSpec(Document keys, Long expireAfterSeconds) {
+			this.name = MANAGED_PREFIX + keys.entrySet().stream()
+				.map(key -> key.getKey() + "_" + key.getValue())
+				.collect(Collectors.joining("_"));
+			this.keys = keys;
+			this.expireAfterSeconds = expireAfterSeconds;
+		}
+
+		String getName() {
+			return this.name;
+		}
+
+		Document getKeys() {
+			return this.keys;
+		}
+
+		/**
+		 * Whether an index, as returned by {@code listIndexes}, is on the same keys as this one, in the same order and directions
+		 */
+		boolean hasSameKeys(Document existing) {
+			var existingKeys = existing.get("key", Document.class);
+
+			return (existingKeys != null) && new ArrayList<>(existingKeys.entrySet()).equals(new ArrayList<>(this.keys.entrySet()));
+		}
+
+		/**
+		 * Whether an index definition, as returned by {@code listIndexes}, is the same as this one, whatever it is named
+		 */
+		boolean matches(Document existing) {
+			var existingTtl = existing.get("expireAfterSeconds", Number.class);
+
+			return hasSameKeys(existing) &&
+				Objects.equals((existingTtl != null) ? existingTtl.longValue() : null, this.expireAfterSeconds);
+		}
+
+		IndexOptions toIndexOptions() {
+			var options = new IndexOptions().name(this.name);
+
+			if (this.expireAfterSeconds != null) {
+				options.expireAfter(this.expireAfterSeconds, TimeUnit.SECONDS);
+			}
+
+			return options;
+		}
+
+		IndexModel toIndexModel() {
+			return new IndexModel(this.keys, toIndexOptions());
+		}
+	}
+}
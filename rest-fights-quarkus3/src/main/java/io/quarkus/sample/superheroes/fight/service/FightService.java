@@ -1,83 +1,354 @@
 package io.quarkus.sample.superheroes.fight.service;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
-import java.util.Random;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 
+import org.bson.Document;
 import org.bson.types.ObjectId;
 import org.eclipse.microprofile.faulttolerance.Fallback;
 import org.eclipse.microprofile.faulttolerance.Timeout;
 
 import io.quarkus.logging.Log;
+import io.quarkus.mongodb.panache.reactive.ReactivePanacheQuery;
 import io.quarkus.sample.superheroes.fight.Fight;
+import io.quarkus.sample.superheroes.fight.FightDelta;
+import io.quarkus.sample.superheroes.fight.FightPage;
+import io.quarkus.sample.superheroes.fight.FightResult;
 import io.quarkus.sample.superheroes.fight.Fighters;
+import io.quarkus.sample.superheroes.fight.client.Deadline;
+import io.quarkus.sample.superheroes.fight.client.DeadlineExceededException;
 import io.quarkus.sample.superheroes.fight.client.Hero;
 import io.quarkus.sample.superheroes.fight.client.HeroClient;
 import io.quarkus.sample.superheroes.fight.client.Villain;
 import io.quarkus.sample.superheroes.fight.client.VillainClient;
 import io.quarkus.sample.superheroes.fight.config.FightConfig;
+import io.quarkus.sample.superheroes.fight.metrics.StageMetrics;
+import io.quarkus.sample.superheroes.fight.metrics.StageTimer;
+import io.quarkus.sample.superheroes.fight.metrics.StageTimer.Outcome;
 
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 
 /**
  * Business logic for the Fight service
+ * <p>
+ *   Each stage of finding fighters and performing fights is timed through {@link StageMetrics}. A {@code fallback} outcome on a stage means that its {@link Fallback} was used.
+ * </p>
+ * <p>
+ *   When {@code fight.execution.mode} is {@code virtual-threads}, finding fighters, performing single fights and reading fights are instead handed to {@link BlockingFightService}, and run on virtual threads (see {@link VirtualThreadExecutor}).
+ * </p>
  */
 @ApplicationScoped
 public class FightService {
+	public static final int MAX_PAGE_SIZE = 1000;
+
 	private final HeroClient heroClient;
 	private final VillainClient villainClient;
 	private final FightConfig fightConfig;
-	private final Random random = new Random();
-
-	public FightService(HeroClient heroClient, VillainClient villainClient, FightConfig fightConfig) {
+	private final FightWriteBehind fightWriteBehind;
+	private final FighterReservoirs fighterReservoirs;
+	private final FallbackFighters fallbackFighters;
+	private final FightCache fightCache;
+	private final FightSignal fightSignal;
+	private final PersistedFights persistedFights;
+	private final BlockingFightService blockingFightService;
+	private final VirtualThreadExecutor virtualThreadExecutor;
+	private final RandomSource random;
+	private final Validator validator;
+	private final StageTimer fightersTimer;
+	private final StageTimer heroFetchTimer;
+	private final StageTimer villainFetchTimer;
+	private final StageTimer determineWinnerTimer;
+	private final StageTimer persistTimer;
+	private final StageTimer persistBatchTimer;
+	private final StageTimer fightTimer;
+
+	public FightService(HeroClient heroClient, VillainClient villainClient, FightConfig fightConfig, FightWriteBehind fightWriteBehind, FighterReservoirs fighterReservoirs, FallbackFighters fallbackFighters, FightCache fightCache, FightSignal fightSignal, PersistedFights persistedFights, BlockingFightService blockingFightService, VirtualThreadExecutor virtualThreadExecutor, RandomSource random, Validator validator, StageMetrics stageMetrics) {
 		this.heroClient = heroClient;
 		this.villainClient = villainClient;
 		this.fightConfig = fightConfig;
+		this.fightWriteBehind = fightWriteBehind;
+		this.fighterReservoirs = fighterReservoirs;
+		this.fallbackFighters = fallbackFighters;
+		this.fightCache = fightCache;
+		this.fightSignal = fightSignal;
+		this.persistedFights = persistedFights;
+		this.blockingFightService = blockingFightService;
+		this.virtualThreadExecutor = virtualThreadExecutor;
+		this.random = random;
+		this.validator = validator;
+		this.fightersTimer = stageMetrics.stage("fighters", Outcome.SUCCESS, Outcome.FALLBACK);
+		this.heroFetchTimer = stageMetrics.stage("hero.fetch", Outcome.SUCCESS, Outcome.NOT_FOUND, Outcome.RESERVOIR, Outcome.FALLBACK);
+		this.villainFetchTimer = stageMetrics.stage("villain.fetch", Outcome.SUCCESS, Outcome.NOT_FOUND, Outcome.RESERVOIR, Outcome.FALLBACK);
+		this.determineWinnerTimer = stageMetrics.stage("determine-winner", Outcome.SUCCESS);
+		this.persistTimer = stageMetrics.stage("persist", Outcome.SUCCESS, Outcome.FAILURE);
+		this.persistBatchTimer = stageMetrics.stage("persist.batch", Outcome.SUCCESS, Outcome.FAILURE);
+		this.fightTimer = stageMetrics.stage("fight", Outcome.SUCCESS, Outcome.FAILURE);
   }
 
+	/**
+	 * Loads every fight into memory at once. Prefer {@link #streamAllFights()} or {@link #findFightsPage(String, int)} for large collections.
+	 */
 	public Uni<List<Fight>> findAllFights() {
+		if (this.virtualThreadExecutor.isEnabled()) {
+			return this.virtualThreadExecutor.call(this.blockingFightService::findAllFights);
+		}
+
     Log.debug("Getting all fights");
 		return Fight.listAll();
 	}
 
+	/**
+	 * Streams every fight from the database. Fights are pulled from the underlying cursor as they are requested downstream, so memory use does not grow with the size of the collection.
+	 */
+	public Multi<Fight> streamAllFights() {
+		Log.debug("Streaming all fights");
+		return Fight.streamAll();
+	}
+
+	/**
+	 * Finds a page of fights ordered by {@code fightDate} and then {@code _id}, using keyset pagination so that each page costs the same no matter how deep into the collection it is.
+	 * @param cursor The {@link FightPage#getNextCursor() cursor} returned with the previous page, or {@code null} to start from the beginning
+	 * @param pageSize The maximum number of fights to return
+	 * @return The page of fights, or an {@link IllegalArgumentException} failure if {@code cursor} is not a valid cursor
+	 */
+	public Uni<FightPage> findFightsPage(String cursor, @Positive @Max(MAX_PAGE_SIZE) int pageSize) {
+		Log.debugf("Finding page of %d fights after cursor = %s", pageSize, cursor);
+
+		return decodeCursor(cursor)
+			.chain(after -> {
+				var query = (after != null) ? after.toQuery() : new Document();
+				ReactivePanacheQuery<Fight> fights = Fight.find(query, FightCursor.SORT);
+
+				return fights.page(0, pageSize).<Fight>list();
+			})
+			.map(page -> new FightPage(page, nextCursor(page, pageSize)));
+	}
+
+	/**
+	 * Decodes {@code cursor} when subscribed to, so that an invalid cursor fails the returned {@link Uni} rather than the call
+	 * @return The decoded cursor, {@code null} if {@code cursor} is {@code null}, or an {@link IllegalArgumentException} failure if it is not a valid cursor
+	 */
+	private static Uni<FightCursor> decodeCursor(String cursor) {
+		return Uni.createFrom().item(() -> (cursor != null) ? FightCursor.decode(cursor) : null);
+	}
+
+	private static String nextCursor(List<Fight> page, int pageSize) {
+		return (page.size() < pageSize) ?
+		       null :
+		       FightCursor.after(page.get(page.size() - 1)).encode();
+	}
+
+	/**
+	 * Finds the fights persisted since {@code cursor}, oldest first, with the same keyset query and index as {@link #findFightsPage(String, int)}. Each call only reads the fights that are new to the caller, however big the collection is.
+	 * <p>
+	 *   If there are no new fights yet, waits up to {@code wait} (at most {@code fight.delta.max-wait}) for fights to be persisted before looking again. Only fights persisted by this instance end the wait early, after which the new fights are given {@code fight.delta.settle-time} to settle. A wait that times out looks again straight away.
+	 * </p>
+	 * @param cursor The {@link FightDelta#getCursor() cursor} returned by the previous call, or {@code null} to start from the beginning
+	 * @param pageSize The maximum number of fights to return
+	 * @param wait How long to wait for new fights if there aren't any. {@link Duration#ZERO} returns straight away.
+	 * @return The new fights, which may be empty, or an {@link IllegalArgumentException} failure if {@code cursor} is not a valid cursor
+	 */
+	public Uni<FightDelta> findFightsSince(String cursor, @Positive @Max(MAX_PAGE_SIZE) int pageSize, @NotNull Duration wait) {
+		Log.debugf("Finding %d fights since cursor = %s, waiting up to %s", pageSize, cursor, wait);
+		var maxWait = this.fightConfig.delta().maxWait();
+		var timeout = (wait.compareTo(maxWait) > 0) ? maxWait : wait;
+		var newFights = this.fightSignal.next();
+
+		return decodeCursor(cursor)
+			.chain(since -> findFightsSince(since, pageSize)
+				.chain(fights -> (!fights.isEmpty() || timeout.isNegative() || timeout.isZero()) ?
+					Uni.createFrom().item(fights) :
+					FightSignal.await(newFights, timeout)
+						// Only fights from this instance are signalled, so look once more on timeout too, but without waiting for them to settle
+						.chain(() -> newFights.isDone() ? awaitSettled() : Uni.createFrom().voidItem())
+						.chain(() -> findFightsSince(since, pageSize))
+				)
+			)
+			.map(fights -> new FightDelta(
+				fights,
+				fights.isEmpty() ? cursor : FightCursor.after(fights.get(fights.size() - 1)).encode(),
+				fights.size() == pageSize
+			));
+	}
+
+	private Uni<List<Fight>> findFightsSince(FightCursor since, int pageSize) {
+		var query = (since != null) ? since.toQuery() : new Document();
+		var settleTime = this.fightConfig.delta().settleTime();
+
+		if (!settleTime.isZero()) {
+			var settled = new Document("fightDate", new Document("$lte", Date.from(Instant.now().minus(settleTime))));
+			query = query.isEmpty() ? settled : new Document("$and", List.of(query, settled));
+		}
+
+		ReactivePanacheQuery<Fight> fights = Fight.find(query, FightCursor.SORT);
+
+		return fights.page(0, pageSize).list();
+	}
+
+	/**
+	 * Gives fights that were just persisted time to settle (see {@code fight.delta.settle-time}) before looking for them
+	 */
+	private Uni<Void> awaitSettled() {
+		var settleTime = this.fightConfig.delta().settleTime();
+
+		return settleTime.isZero() ?
+		       Uni.createFrom().voidItem() :
+		       Uni.createFrom().voidItem().onItem().delayIt().by(settleTime);
+	}
+
 	public Uni<Fight> findFightById(String id) {
+		if (this.virtualThreadExecutor.isEnabled()) {
+			return this.virtualThreadExecutor.call(() -> this.blockingFightService.findFightById(id));
+		}
+
     Log.debugf("Finding fight by id = %s", id);
-		return Fight.findById(new ObjectId(id));
+		var fightId = new ObjectId(id);
+		var cachedFight = this.fightCache.get(fightId);
+
+		if (cachedFight != null) {
+			Log.debugf("Found fight in cache: %s", cachedFight);
+			return Uni.createFrom().item(cachedFight);
+		}
+
+		return Fight.<Fight>findById(fightId)
+			.invoke(this.fightCache::put);
+	}
+
+	/**
+	 * Finds a fight already encoded as JSON, so it can be written to a response as it is. Encoded fights are cached when {@code fight.cache.encoded.enabled} is {@code true}, so serving the same fight again doesn't encode it again.
+	 * @return The encoded fight, or {@code null} if there is no fight with that id
+	 */
+	public Uni<EncodedFight> findEncodedFightById(String id) {
+		var encodedFight = this.fightCache.getEncoded(new ObjectId(id));
+
+		if (encodedFight != null) {
+			Log.debugf("Found encoded fight in cache: %s", id);
+			return Uni.createFrom().item(encodedFight);
+		}
+
+		return findFightById(id)
+			.map(fight -> (fight != null) ? this.fightCache.encode(fight) : null);
 	}
 
+	/**
+	 * Finds a random hero and a random villain, using fallback fighters for any that can't be found.
+	 * <p>
+	 *   If {@code fight.deadlines.random-fighters} is set, the whole search, including every retry, has to finish within it (see {@link Deadline}). Fighters that haven't been found in time are replaced by fallback fighters.
+	 * </p>
+	 */
   @Fallback(fallbackMethod = "fallbackRandomFighters")
 	public Uni<Fighters> findRandomFighters() {
-    Log.debug("Finding random fighters");
-
-    var villain = findRandomVillain()
-      .onItem().ifNull().continueWith(this::createFallbackVillain);
+		if (this.virtualThreadExecutor.isEnabled()) {
+			return this.virtualThreadExecutor.call(this.blockingFightService::findRandomFighters);
+		}
 
-		var hero = findRandomHero()
-      .onItem().ifNull().continueWith(this::createFallbackHero);
+    Log.debug("Finding random fighters");
 
-		return Uni.combine()
-			.all()
-			.unis(hero, villain)
-			.combinedWith(Fighters::new);
+		return this.fightersTimer.time(
+			() -> {
+				var deadline = Deadline.after(this.fightConfig.deadlines().randomFighters());
+
+				var villain = (deadline.isNone() ? findRandomVillain() : findRandomVillain(deadline))
+					.onItem().ifNull().continueWith(this.fallbackFighters::configuredVillain);
+
+				var hero = (deadline.isNone() ? findRandomHero() : findRandomHero(deadline))
+					.onItem().ifNull().continueWith(this.fallbackFighters::configuredHero);
+
+				// Each search is bounded by the deadline on its own, so that one that runs out of time falls back without failing the other
+				return Uni.combine()
+					.all()
+					.unis(hero, villain)
+					.combinedWith(Fighters::new);
+			},
+			Outcome.SUCCESS,
+			Outcome.SUCCESS,
+			Outcome.FALLBACK
+		);
 	}
 
 	@Fallback(fallbackMethod = "fallbackRandomHero")
 	Uni<Hero> findRandomHero() {
+		return fetchRandomHero(this.heroClient::findRandomHero);
+	}
+
+	/**
+	 * Finds a random hero, falling back if it isn't found before {@code deadline}
+	 */
+	@Fallback(fallbackMethod = "fallbackRandomHero")
+	Uni<Hero> findRandomHero(Deadline deadline) {
+		return deadline.bound(fetchRandomHero(() -> this.heroClient.findRandomHero(deadline)));
+	}
+
+	private Uni<Hero> fetchRandomHero(Supplier<Uni<Hero>> heroFetcher) {
     Log.debug("Finding a random hero");
-		return this.heroClient.findRandomHero()
-			.invoke(hero -> Log.debugf("Got random hero: %s", hero));
+		var start = System.nanoTime();
+		var reservedHero = this.fighterReservoirs.pollHero();
+
+		if (reservedHero != null) {
+			this.heroFetchTimer.record(Outcome.RESERVOIR, start);
+			Log.debugf("Got random hero from reservoir: %s", reservedHero);
+			this.fallbackFighters.addHero(reservedHero);
+			return Uni.createFrom().item(reservedHero);
+		}
+
+		return this.heroFetchTimer.time(
+			() -> heroFetcher.get()
+				.invoke(hero -> Log.debugf("Got random hero: %s", hero))
+				.invoke(this.fallbackFighters::addHero),
+			Outcome.SUCCESS,
+			Outcome.NOT_FOUND,
+			Outcome.FALLBACK
+		);
 	}
 
 	@Fallback(fallbackMethod = "fallbackRandomVillain")
 	Uni<Villain> findRandomVillain() {
+		return fetchRandomVillain(this.villainClient::findRandomVillain);
+	}
+
+	/**
+	 * Finds a random villain, falling back if it isn't found before {@code deadline}
+	 */
+	@Fallback(fallbackMethod = "fallbackRandomVillain")
+	Uni<Villain> findRandomVillain(Deadline deadline) {
+		return deadline.bound(fetchRandomVillain(() -> this.villainClient.findRandomVillain(deadline)));
+	}
+
+	private Uni<Villain> fetchRandomVillain(Supplier<Uni<Villain>> villainFetcher) {
     Log.debug("Finding a random villain");
-		return this.villainClient.findRandomVillain()
-			.invoke(villain -> Log.debugf("Got random villain: %s", villain));
+		var start = System.nanoTime();
+		var reservedVillain = this.fighterReservoirs.pollVillain();
+
+		if (reservedVillain != null) {
+			this.villainFetchTimer.record(Outcome.RESERVOIR, start);
+			Log.debugf("Got random villain from reservoir: %s", reservedVillain);
+			this.fallbackFighters.addVillain(reservedVillain);
+			return Uni.createFrom().item(reservedVillain);
+		}
+
+		return this.villainFetchTimer.time(
+			() -> villainFetcher.get()
+				.invoke(villain -> Log.debugf("Got random villain: %s", villain))
+				.invoke(this.fallbackFighters::addVillain),
+			Outcome.SUCCESS,
+			Outcome.NOT_FOUND,
+			Outcome.FALLBACK
+		);
 	}
 
   @Timeout(value = 5, unit = ChronoUnit.SECONDS)
@@ -89,7 +360,7 @@ public class FightService {
   }
 
   Uni<Fighters> fallbackRandomFighters() {
-    return Uni.createFrom().item(new Fighters(createFallbackHero(), createFallbackVillain()))
+    return Uni.createFrom().item(() -> new Fighters(this.fallbackFighters.fallbackHero(), this.fallbackFighters.fallbackVillain()))
       .invoke(() -> Log.warn("Falling back on finding random fighters"));
   }
 
@@ -112,67 +383,211 @@ public class FightService {
   }
 
 	Uni<Hero> fallbackRandomHero() {
-		return Uni.createFrom().item(this::createFallbackHero)
+		return Uni.createFrom().item(this.fallbackFighters::fallbackHero)
 			.invoke(h -> Log.warn("Falling back on Hero"));
 	}
 
-	private Hero createFallbackHero() {
-		return new Hero(
-			this.fightConfig.hero().fallback().name(),
-			this.fightConfig.hero().fallback().level(),
-			this.fightConfig.hero().fallback().picture(),
-			this.fightConfig.hero().fallback().powers()
-		);
+	Uni<Hero> fallbackRandomHero(Deadline deadline) {
+		return fallbackRandomHero();
 	}
 
 	Uni<Villain> fallbackRandomVillain() {
-		return Uni.createFrom().item(this::createFallbackVillain)
+		return Uni.createFrom().item(this.fallbackFighters::fallbackVillain)
 			.invoke(v -> Log.warn("Falling back on Villain"));
 	}
 
-	private Villain createFallbackVillain() {
-		return new Villain(
-			this.fightConfig.villain().fallback().name(),
-			this.fightConfig.villain().fallback().level(),
-			this.fightConfig.villain().fallback().picture(),
-			this.fightConfig.villain().fallback().powers()
-		);
+	Uni<Villain> fallbackRandomVillain(Deadline deadline) {
+		return fallbackRandomVillain();
 	}
 
+	/**
+	 * Performs a fight between {@code fighters} and persists it.
+	 * <p>
+	 *   If {@code fight.deadlines.fight} is set, the fight fails with a {@link DeadlineExceededException} if its winner hasn't been decided within it, and it is then not persisted.
+	 *   A fight that has started being persisted is allowed to finish, just like in {@link BlockingFightService}, so that a fight that was written is always cached and published.
+	 * </p>
+	 */
 	public Uni<Fight> performFight(@NotNull @Valid Fighters fighters) {
+		if (this.virtualThreadExecutor.isEnabled()) {
+			return this.virtualThreadExecutor.call(() -> this.blockingFightService.performFight(fighters, this::decideWinner));
+		}
+
     Log.debugf("Performing a fight with fighters: %s", fighters);
-		return determineWinner(fighters)
-			.chain(this::persistFight);
+		return this.fightTimer.time(() -> {
+			var deadline = Deadline.after(this.fightConfig.deadlines().fight());
+
+			return deadline.bound(determineWinner(fighters))
+				.chain(fight -> deadline.remaining().isZero() ?
+				                Uni.createFrom().failure(new DeadlineExceededException()) :
+				                persistFight(fight)
+				);
+		});
+	}
+
+	/**
+	 * Performs many fights at once. Every pair of fighters is validated and has its winner decided up front, and the resulting fights are then written to the database with one bulk write per {@code fight.persistence.batch.chunk-size} fights.
+	 * <p>
+	 *   A pair of fighters that is invalid, or whose fight could not be written, doesn't fail the whole batch. Instead its {@link FightResult} carries the reason.
+	 * </p>
+	 * <p>
+	 *   Fights are always written directly, even when write-behind is enabled, since they are already batched.
+	 * </p>
+	 * @param fighters The pairs of fighters
+	 * @return One result per pair of fighters, in the same order as {@code fighters}
+	 */
+	public Uni<List<FightResult>> performFights(@NotNull List<Fighters> fighters) {
+		// Deferred so that nothing is validated or decided until subscribed to, and again on every subscription
+		return Uni.createFrom().deferred(() -> {
+			Log.debugf("Performing %d fights", fighters.size());
+			var results = new FightResult[fighters.size()];
+			var fights = new ArrayList<Fight>(fighters.size());
+			var fightIndexes = new ArrayList<Integer>(fighters.size());
+
+			for (var i = 0; i < fighters.size(); i++) {
+				var violations = validate(fighters.get(i));
+
+				if (violations != null) {
+					results[i] = FightResult.failed(violations);
+				}
+				else {
+					fights.add(decideWinner(fighters.get(i)));
+					fightIndexes.add(i);
+				}
+			}
+
+			var chunkSize = this.fightConfig.persistence().batch().chunkSize();
+			var chunks = (fights.size() + chunkSize - 1) / chunkSize;
+
+			return Multi.createFrom().range(0, chunks)
+				.onItem().transformToUniAndConcatenate(chunk -> {
+					var from = chunk * chunkSize;
+					var to = Math.min(from + chunkSize, fights.size());
+
+					return persistFights(fights.subList(from, to))
+						.invoke(chunkResults -> {
+							for (var i = 0; i < chunkResults.size(); i++) {
+								results[fightIndexes.get(from + i)] = chunkResults.get(i);
+							}
+						});
+				})
+				.collect().last()
+				.map(ignored -> Arrays.asList(results));
+		});
+	}
+
+	/**
+	 * Streaming version of {@link #performFights(List)}. Fighters are performed in chunks of {@code fight.persistence.batch.chunk-size}, so a result is only emitted once the rest of its chunk has arrived, or {@code fighters} completes.
+	 * @param fighters The pairs of fighters
+	 * @return One result per pair of fighters, in the same order as {@code fighters}
+	 */
+	public Multi<FightResult> performFights(@NotNull Multi<Fighters> fighters) {
+		return fighters
+			.group().intoLists().of(this.fightConfig.persistence().batch().chunkSize())
+			.onItem().transformToMultiAndConcatenate(chunk ->
+				performFights(chunk)
+					.onItem().transformToMulti(results -> Multi.createFrom().iterable(results))
+			);
+	}
+
+	/**
+	 * @return A description of every constraint {@code fighters} violates, or {@code null} if it is valid
+	 */
+	private String validate(Fighters fighters) {
+		if (fighters == null) {
+			return "fighters: must not be null";
+		}
+
+		var violations = this.validator.validate(fighters);
+
+		return violations.isEmpty() ?
+		       null :
+		       violations.stream()
+			       .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+			       .sorted()
+			       .collect(Collectors.joining(", "));
+	}
+
+	/**
+	 * Writes fights with a single bulk write. If that fails, each fight is retried on its own so that only the fights which really can't be written are reported as failed.
+	 * @return One result per fight, in the same order as {@code fights}
+	 */
+	Uni<List<FightResult>> persistFights(List<Fight> fights) {
+		Log.debugf("Persisting %d fights", fights.size());
+
+		return this.persistBatchTimer.time(() -> Fight.persist(fights))
+			.map(ignored -> fights.stream()
+				.map(FightResult::succeeded)
+				.collect(Collectors.toList())
+			)
+			.onFailure().recoverWithUni(failure -> {
+				Log.warnf(failure, "Bulk write of %d fights failed, writing them one at a time instead", fights.size());
+
+				return Multi.createFrom().iterable(fights)
+					.onItem().transformToUniAndConcatenate(this::persistFightForResult)
+					.collect().asList();
+			})
+			.invoke(results -> this.persistedFights.written(
+				results.stream()
+					.filter(FightResult::isSuccessful)
+					.map(FightResult::getFight)
+					.collect(Collectors.toList())
+			));
+	}
+
+	private static Uni<FightResult> persistFightForResult(Fight fight) {
+		// Ids are assigned to every fight before a bulk write starts and bulk writes stop at the first error,
+		// so a duplicate _id here means that the failed bulk write had already written this fight. A duplicate on any other unique index is a real failure.
+		return Fight.persist(fight)
+			.map(ignored -> FightResult.succeeded(fight))
+			.onFailure(MongoErrors::isDuplicateId).recoverWithItem(() -> FightResult.succeeded(fight))
+			.onFailure().recoverWithItem(failure -> FightResult.failed(failure.getMessage()));
 	}
 
 	Uni<Fight> persistFight(Fight fight) {
     Log.debugf("Persisting a fight: %s", fight);
-		return Fight.persist(fight)
-      .replaceWith(fight);
+
+		// Buffered fights are handed to persistedFights by the write-behind once they are written
+		return this.fightWriteBehind.isEnabled() ?
+		       this.persistTimer.time(() -> this.fightWriteBehind.write(fight)) :
+		       this.persistTimer.time(() -> insert(fight)).invoke(this.persistedFights::persisted);
+	}
+
+	/**
+	 * Writes a single fight straight to the database
+	 */
+	Uni<Fight> insert(Fight fight) {
+		return Fight.persist(fight).replaceWith(fight);
 	}
 
 	Uni<Fight> determineWinner(Fighters fighters) {
     Log.debugf("Determining winner between fighters: %s", fighters);
 
-		// Amazingly fancy logic to determine the winner...
 		return Uni.createFrom().item(() -> {
-				Fight fight;
+			var start = System.nanoTime();
+			var fight = decideWinner(fighters);
+			this.determineWinnerTimer.record(Outcome.SUCCESS, start);
 
-				if (shouldHeroWin(fighters)) {
-					fight = heroWonFight(fighters);
-				}
-				else if (shouldVillainWin(fighters)) {
-					fight = villainWonFight(fighters);
-				}
-				else {
-					fight = getRandomWinner(fighters);
-				}
+			return fight;
+		});
+	}
 
-				fight.fightDate = Instant.now();
+	Fight decideWinner(Fighters fighters) {
+		// Amazingly fancy logic to determine the winner...
+		Fight fight;
 
-				return fight;
-			}
-		);
+		if (shouldHeroWin(fighters)) {
+			fight = heroWonFight(fighters);
+		}
+		else if (shouldVillainWin(fighters)) {
+			fight = villainWonFight(fighters);
+		}
+		else {
+			fight = getRandomWinner(fighters);
+		}
+
+		fight.fightDate = Instant.now();
+
+		return fight;
 	}
 
 	boolean shouldHeroWin(Fighters fighters) {
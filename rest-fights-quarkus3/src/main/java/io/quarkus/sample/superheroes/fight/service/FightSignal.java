@@ -0,0 +1,40 @@
+package io.quarkus.sample.superheroes.fight.service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Lets callers wait until more fights have been persisted by this instance, for long-polling (see {@link FightService#findFightsSince(String, int, Duration)}).
+ * <p>
+ *   Fights persisted by other instances aren't signalled, so waiting always has to be bounded by a timeout.
+ * </p>
+ */
+@ApplicationScoped
+class FightSignal {
+	private final AtomicReference<CompletableFuture<Void>> next = new AtomicReference<>(new CompletableFuture<>());
+
+	/**
+	 * The signal that completes the next time fights are persisted. Take it before looking for fights, so that none persisted in between can be missed.
+	 */
+	CompletableFuture<Void> next() {
+		return this.next.get();
+	}
+
+	void fightsPersisted() {
+		this.next.getAndSet(new CompletableFuture<>()).complete(null);
+	}
+
+	/**
+	 * Waits until {@code signal} completes, or until {@code timeout} has passed, whichever is first. Never fails.
+	 */
+	static Uni<Void> await(CompletableFuture<Void> signal, Duration timeout) {
+		// Each waiter gets its own copy, so a waiter timing out or going away doesn't cancel the signal for everyone else
+		return Uni.createFrom().completionStage(signal::copy)
+			.ifNoItem().after(timeout).recoverWithUni(Uni.createFrom().voidItem());
+	}
+}
@@ -0,0 +1,244 @@
+package io.quarkus.sample.superheroes.fight.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+
+import org.bson.types.ObjectId;
+
+import io.quarkus.logging.Log;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.sample.superheroes.fight.Fight;
+import io.quarkus.sample.superheroes.fight.config.FightConfig;
+import io.quarkus.sample.superheroes.fight.config.FightConfig.Persistence.WriteBehind;
+
+import com.mongodb.MongoBulkWriteException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.Cancellable;
+
+/**
+ * Buffers fights in a bounded queue and writes them to the database in batches, either once a batch fills up or when the flush interval elapses.
+ * <p>
+ *   A batch that can't be written is put back at the front of the buffer and tried again, waiting longer after each failure in a row (up to {@code fight.persistence.write-behind.max-retry-backoff}). Fights are only counted as lost in {@code fights.persistence.lost} when the database rejects them, when there is no room left to put them back, or when they are still buffered once {@code fight.persistence.write-behind.shutdown-timeout} has passed on shutdown.
+ * </p>
+ * <p>
+ *   Fights are only handed to {@link PersistedFights} (cached, published, counted and signalled) once they have really been written, rather than when they are buffered. Until then a buffered fight can't be found by its id.
+ * </p>
+ * <p>
+ *   Only active when {@code fight.persistence.write-behind.enabled} is {@code true}. See {@link WriteBehind} for the configuration.
+ * </p>
+ */
+@ApplicationScoped
+class FightWriteBehind {
+	private final WriteBehind config;
+	private final PersistedFights persistedFights;
+	private final BlockingDeque<Fight> buffer;
+	private final Timer successfulFlushes;
+	private final Timer failedFlushes;
+	private final DistributionSummary flushSizes;
+	private final Counter overflows;
+	private final Counter lostFights;
+	private final Counter retriedFights;
+	private final AtomicInteger failuresInARow = new AtomicInteger();
+	private volatile long retryAfterNanos;
+	private volatile Cancellable ticker;
+
+	FightWriteBehind(FightConfig fightConfig, PersistedFights persistedFights, MeterRegistry meterRegistry) {
+		this.config = fightConfig.persistence().writeBehind();
+		this.persistedFights = persistedFights;
+		this.buffer = new LinkedBlockingDeque<>(this.config.bufferCapacity());
+		this.successfulFlushes = meterRegistry.timer("fights.persistence.flush", "outcome", "success");
+		this.failedFlushes = meterRegistry.timer("fights.persistence.flush", "outcome", "failure");
+		this.flushSizes = meterRegistry.summary("fights.persistence.flush.size");
+		this.overflows = meterRegistry.counter("fights.persistence.buffer.overflows");
+		this.lostFights = meterRegistry.counter("fights.persistence.lost");
+		this.retriedFights = meterRegistry.counter("fights.persistence.retried");
+		meterRegistry.gauge("fights.persistence.buffer.size", this.buffer, BlockingQueue::size);
+	}
+
+	void onStart(@Observes StartupEvent startupEvent) {
+		if (isEnabled()) {
+			Log.infof("Write-behind enabled: batches of up to %d fights, flushed every %s", this.config.batchSize(), this.config.flushInterval());
+
+			this.ticker = Multi.createFrom().ticks().every(this.config.flushInterval())
+				.onOverflow().drop()
+				.onItem().transformToUniAndConcatenate(tick -> flush())
+				.subscribe().with(ignored -> {});
+		}
+	}
+
+	void onStop(@Observes ShutdownEvent shutdownEvent) {
+		if (this.ticker != null) {
+			this.ticker.cancel();
+		}
+
+		var deadline = System.nanoTime() + this.config.shutdownTimeout().toNanos();
+
+		try {
+			while (!this.buffer.isEmpty() && (System.nanoTime() < deadline)) {
+				flush(true).await().atMost(Duration.ofNanos(deadline - System.nanoTime()));
+			}
+		}
+		catch (RuntimeException e) {
+			Log.warn("Failed draining the write-behind buffer on shutdown", e);
+		}
+
+		if (!this.buffer.isEmpty()) {
+			this.lostFights.increment(this.buffer.size());
+			Log.warnf("Dropping %d buffered fights that could not be written before shutdown", this.buffer.size());
+		}
+	}
+
+	boolean isEnabled() {
+		return this.config.enabled();
+	}
+
+	/**
+	 * Buffers a fight to be written with the next batch. The fight is given its id immediately, so the returned fight is complete even though it hasn't been written yet.
+	 * <p>
+	 *   If the buffer is full the fight is written directly instead, so that callers are slowed down to the rate that the database can absorb.
+	 * </p>
+	 */
+	Uni<Fight> write(Fight fight) {
+		return Uni.createFrom().deferred(() -> {
+			if (fight.id == null) {
+				fight.id = new ObjectId();
+			}
+
+			if (!this.buffer.offer(fight)) {
+				this.overflows.increment();
+				return insert(fight)
+					.invoke(this.persistedFights::persisted);
+			}
+
+			if (this.buffer.size() >= this.config.batchSize()) {
+				flush().subscribe().with(ignored -> {});
+			}
+
+			return Uni.createFrom().item(fight);
+		});
+	}
+
+	/**
+	 * Writes up to one batch of buffered fights with a single {@code insertMany}, unless a batch has just failed and it is too soon to try again. Never fails: failures are logged and counted.
+	 */
+	Uni<Void> flush() {
+		return flush(false);
+	}
+
+	private Uni<Void> flush(boolean ignoreBackoff) {
+		return Uni.createFrom().deferred(() -> {
+			if (!ignoreBackoff && (System.nanoTime() - this.retryAfterNanos < 0)) {
+				return Uni.createFrom().voidItem();
+			}
+
+			var batch = new ArrayList<Fight>(this.config.batchSize());
+			this.buffer.drainTo(batch, this.config.batchSize());
+
+			if (batch.isEmpty()) {
+				return Uni.createFrom().voidItem();
+			}
+
+			var start = System.nanoTime();
+
+			return insert(batch)
+				.invoke(() -> {
+					this.successfulFlushes.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+					this.flushSizes.record(batch.size());
+					this.failuresInARow.set(0);
+					this.persistedFights.written(batch);
+					Log.debugf("Flushed %d buffered fights", batch.size());
+				})
+				.onFailure().recoverWithUni(failure -> {
+					this.failedFlushes.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+					retryLater(unwritten(batch, failure), failure);
+					return Uni.createFrom().voidItem();
+				});
+		});
+	}
+
+	/**
+	 * Writes a batch of fights. Only overridden by tests.
+	 */
+	Uni<Void> insert(List<Fight> batch) {
+		return Fight.persist(batch);
+	}
+
+	/**
+	 * Writes a single fight. Only overridden by tests.
+	 */
+	Uni<Fight> insert(Fight fight) {
+		return Fight.persist(fight).replaceWith(fight);
+	}
+
+	/**
+	 * Hands the fights from {@code batch} that were written despite {@code failure} to {@link PersistedFights}
+	 * @return The fights from {@code batch} that weren't written, and can be tried again
+	 */
+	private List<Fight> unwritten(List<Fight> batch, Throwable failure) {
+		if (!MongoErrors.isRejected(failure)) {
+			// The database couldn't be reached or didn't answer, so none of the batch is known to be written
+			return batch;
+		}
+
+		// Bulk writes are ordered: every fight before the first rejected one was written, and none after it were tried
+		var error = ((MongoBulkWriteException) failure).getWriteErrors().get(0);
+		var written = new ArrayList<>(batch.subList(0, error.getIndex()));
+
+		if (MongoErrors.isDuplicateId(error)) {
+			// Already written by an earlier attempt whose outcome wasn't known
+			written.add(batch.get(error.getIndex()));
+		}
+		else {
+			this.lostFights.increment();
+			Log.errorf("Buffered fight %s was rejected and won't be written: %s", batch.get(error.getIndex()), error.getMessage());
+		}
+
+		if (!written.isEmpty()) {
+			this.persistedFights.written(written);
+		}
+
+		return batch.subList(error.getIndex() + 1, batch.size());
+	}
+
+	/**
+	 * Puts {@code fights} back at the front of the buffer, and holds off the next flush for longer after each failure in a row
+	 */
+	private void retryLater(List<Fight> fights, Throwable failure) {
+		var failures = this.failuresInARow.incrementAndGet();
+		var backoff = this.config.flushInterval().multipliedBy(1L << Math.min(failures - 1, 20));
+		backoff = (backoff.compareTo(this.config.maxRetryBackoff()) > 0) ? this.config.maxRetryBackoff() : backoff;
+		this.retryAfterNanos = System.nanoTime() + backoff.toNanos();
+
+		var kept = 0;
+
+		// Put back in reverse, so the batch keeps its order at the front of the buffer
+		for (var i = fights.size() - 1; i >= 0; i--) {
+			if (this.buffer.offerFirst(fights.get(i))) {
+				kept++;
+			}
+		}
+
+		this.retriedFights.increment(kept);
+		Log.warnf(failure, "Failed to write %d buffered fights, trying again in %s", fights.size(), backoff);
+
+		if (kept < fights.size()) {
+			this.lostFights.increment(fights.size() - kept);
+			Log.errorf("Dropping %d buffered fights that could not be written, as the buffer is full", fights.size() - kept);
+		}
+	}
+}
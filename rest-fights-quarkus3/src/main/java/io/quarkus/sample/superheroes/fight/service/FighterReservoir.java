@@ -0,0 +1,123 @@
+package io.quarkus.sample.superheroes.fight.service;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import io.quarkus.logging.Log;
+import io.quarkus.sample.superheroes.fight.config.FightConfig.Reservoir;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Bounded pool of pre-fetched fighters of a single kind.
+ * <p>
+ *   Each fighter is handed out at most once. Whenever the pool drops below its low watermark it is topped back up to its high watermark in the background.
+ * </p>
+ * <p>
+ *   A fetch that finds no fighter (a {@code 404} from the service) answers {@code null}, which is skipped. A refill that fails, or that finds no fighters at all, backs off for {@link Reservoir#refillBackoff()} before the next one.
+ * </p>
+ * @param <T> The kind of fighter
+ */
+final class FighterReservoir<T> {
+	private final String kind;
+	private final Supplier<Uni<T>> fetcher;
+	private final Reservoir config;
+	private final Queue<T> fighters = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger depth = new AtomicInteger();
+	private final AtomicBoolean refilling = new AtomicBoolean();
+	private final Counter hits;
+	private final Counter misses;
+	private volatile long nextRefillNanos = System.nanoTime();
+
+	FighterReservoir(String kind, Supplier<Uni<T>> fetcher, Reservoir config, MeterRegistry meterRegistry) {
+		this.kind = kind;
+		this.fetcher = fetcher;
+		this.config = config;
+		this.hits = meterRegistry.counter("fights.reservoir.takes", "fighter", kind, "outcome", "hit");
+		this.misses = meterRegistry.counter("fights.reservoir.takes", "fighter", kind, "outcome", "miss");
+		meterRegistry.gauge("fights.reservoir.depth", Tags.of("fighter", kind), this.depth);
+	}
+
+	/**
+	 * Takes a pre-fetched fighter without waiting.
+	 * @return A fighter, or {@code null} if the reservoir is empty
+	 */
+	T poll() {
+		var fighter = this.fighters.poll();
+
+		if (fighter != null) {
+			this.depth.decrementAndGet();
+			this.hits.increment();
+		}
+		else {
+			this.misses.increment();
+		}
+
+		if (this.depth.get() < this.config.lowWatermark()) {
+			refill();
+		}
+
+		return fighter;
+	}
+
+	/**
+	 * Starts topping the reservoir up to its high watermark, unless a refill is already running or backing off
+	 */
+	void refill() {
+		if ((System.nanoTime() - this.nextRefillNanos < 0) || !this.refilling.compareAndSet(false, true)) {
+			return;
+		}
+
+		var needed = Math.max(this.config.highWatermark() - this.depth.get(), 0);
+		var found = new AtomicInteger();
+		Log.debugf("Refilling %s reservoir with %d fighters", this.kind, needed);
+
+		Multi.createFrom().range(0, needed)
+			.onItem().transformToUni(i -> this.fetcher.get()).merge(this.config.refillConcurrency())
+			.subscribe().with(
+				fighter -> {
+					if (fighter != null) {
+						found.incrementAndGet();
+						add(fighter);
+					}
+				},
+				failure -> {
+					Log.warnf(failure, "Failed refilling %s reservoir, backing off for %s", this.kind, this.config.refillBackoff());
+					backOff();
+				},
+				() -> {
+					if ((needed > 0) && (found.get() == 0)) {
+						Log.debugf("The %s service had no fighters to refill the reservoir with, backing off for %s", this.kind, this.config.refillBackoff());
+						backOff();
+					}
+					else {
+						this.refilling.set(false);
+					}
+				}
+			);
+	}
+
+	private void backOff() {
+		this.nextRefillNanos = System.nanoTime() + this.config.refillBackoff().toNanos();
+		this.refilling.set(false);
+	}
+
+	/**
+	 * @param fighter Never {@code null}, since the queue can't hold {@code null}s
+	 */
+	private void add(T fighter) {
+		if (this.depth.incrementAndGet() <= this.config.highWatermark()) {
+			this.fighters.offer(fighter);
+		}
+		else {
+			this.depth.decrementAndGet();
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package io.quarkus.sample.superheroes.fight.service;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.sample.superheroes.fight.client.Hero;
+import io.quarkus.sample.superheroes.fight.client.HeroClient;
+import io.quarkus.sample.superheroes.fight.client.Villain;
+import io.quarkus.sample.superheroes.fight.client.VillainClient;
+import io.quarkus.sample.superheroes.fight.config.FightConfig;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Holds the {@link FighterReservoir}s of pre-fetched {@link Hero}s and {@link Villain}s.
+ * <p>
+ *   Only active when {@code fight.reservoir.enabled} is {@code true}. The reservoirs are filled at startup and refilled through {@link HeroClient} and {@link VillainClient}, so they get the same retries and circuit breaking as any other request.
+ * </p>
+ */
+@ApplicationScoped
+class FighterReservoirs {
+	private final boolean enabled;
+	private final FighterReservoir<Hero> heroes;
+	private final FighterReservoir<Villain> villains;
+
+	FighterReservoirs(HeroClient heroClient, VillainClient villainClient, FightConfig fightConfig, MeterRegistry meterRegistry) {
+		this.enabled = fightConfig.reservoir().enabled();
+		this.heroes = new FighterReservoir<>("hero", heroClient::findRandomHero, fightConfig.reservoir(), meterRegistry);
+		this.villains = new FighterReservoir<>("villain", villainClient::findRandomVillain, fightConfig.reservoir(), meterRegistry);
+	}
+
+	void onStart(@Observes StartupEvent startupEvent) {
+		if (this.enabled) {
+			this.heroes.refill();
+			this.villains.refill();
+		}
+	}
+
+	boolean isEnabled() {
+		return this.enabled;
+	}
+
+	/**
+	 * Takes a pre-fetched {@link Hero}, or {@code null} if there isn't one available
+	 */
+	Hero pollHero() {
+		return this.enabled ? this.heroes.poll() : null;
+	}
+
+	/**
+	 * Takes a pre-fetched {@link Villain}, or {@code null} if there isn't one available
+	 */
+	Villain pollVillain() {
+		return this.enabled ? this.villains.poll() : null;
+	}
+}
@@ -0,0 +1,62 @@
+package io.quarkus.sample.superheroes.fight.service;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoWriteException;
+import com.mongodb.WriteError;
+
+/**
+ * Tells apart the ways writing fights to MongoDB can fail
+ */
+final class MongoErrors {
+	/**
+	 * The name MongoDB gives the unique index on {@code _id}, as it appears in duplicate key messages
+	 */
+	private static final String ID_INDEX = "index: _id_ ";
+
+	private static final int INDEX_NOT_FOUND = 27;
+	private static final int INDEX_OPTIONS_CONFLICT = 85;
+	private static final int INDEX_KEY_SPECS_CONFLICT = 86;
+
+	private MongoErrors() {
+	}
+
+	/**
+	 * Whether {@code failure} is a single write that failed because a document with the same {@code _id} already exists, which means that the fight has already been written.
+	 * <p>
+	 *   A duplicate key on any other unique index is a real failure.
+	 * </p>
+	 */
+	static boolean isDuplicateId(Throwable failure) {
+		return (failure instanceof MongoWriteException) && isDuplicateId(((MongoWriteException) failure).getError());
+	}
+
+	static boolean isDuplicateId(WriteError error) {
+		return (error.getCategory() == ErrorCategory.DUPLICATE_KEY) &&
+			(error.getMessage() != null) &&
+			error.getMessage().contains(ID_INDEX);
+	}
+
+	/**
+	 * Whether {@code failure} is a bulk write that MongoDB answered, but where it rejected some of the documents
+	 */
+	static boolean isRejected(Throwable failure) {
+		return (failure instanceof MongoBulkWriteException) && !((MongoBulkWriteException) failure).getWriteErrors().isEmpty();
+	}
+
+	/**
+	 * Whether {@code failure} is an index that couldn't be created because an index with the same name or the same keys, but a different definition, already exists
+	 */
+	static boolean isIndexConflict(Throwable failure) {
+		return (failure instanceof MongoCommandException) &&
+			((((MongoCommandException) failure).getErrorCode() == INDEX_OPTIONS_CONFLICT) || (((MongoCommandException) failure).getErrorCode() == INDEX_KEY_SPECS_CONFLICT));
+	}
+
+	/**
+	 * Whether {@code failure} is an index that couldn't be dropped because it doesn't exist
+	 */
+	static boolean isIndexNotFound(Throwable failure) {
+		return (failure instanceof MongoCommandException) && (((MongoCommandException) failure).getErrorCode() == INDEX_NOT_FOUND);
+	}
+}
@@ -0,0 +1,52 @@
+package io.quarkus.sample.superheroes.fight.service;
+
+import java.util.List;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import io.quarkus.sample.superheroes.fight.Fight;
+import io.quarkus.sample.superheroes.fight.feed.FightFeed;
+import io.quarkus.sample.superheroes.fight.leaderboard.Leaderboard;
+
+/**
+ * Everything that happens once a fight has been persisted: it is cached, published to the {@link FightFeed}, counted by the {@link Leaderboard}, and callers waiting for new fights are woken (see {@link FightSignal}).
+ * <p>
+ *   Shared by {@link FightService}, {@link BlockingFightService} and {@link FightWriteBehind}, so that a fight has the same effects whichever execution mode persisted it. Fights buffered by the write-behind only have these effects once the write-behind has written them, so a fight the database rejects is never cached, published or counted.
+ * </p>
+ */
+@ApplicationScoped
+class PersistedFights {
+	private final FightCache fightCache;
+	private final FightFeed fightFeed;
+	private final FightSignal fightSignal;
+	private final Leaderboard leaderboard;
+
+	PersistedFights(FightCache fightCache, FightFeed fightFeed, FightSignal fightSignal, Leaderboard leaderboard) {
+		this.fightCache = fightCache;
+		this.fightFeed = fightFeed;
+		this.fightSignal = fightSignal;
+		this.leaderboard = leaderboard;
+	}
+
+	/**
+	 * Applies the effects of a single fight that has been written
+	 */
+	void persisted(Fight fight) {
+		apply(fight);
+		this.fightSignal.fightsPersisted();
+	}
+
+	/**
+	 * Applies the effects of fights that have all been written
+	 */
+	void written(List<Fight> fights) {
+		fights.forEach(this::apply);
+		this.fightSignal.fightsPersisted();
+	}
+
+	private void apply(Fight fight) {
+		this.fightCache.put(fight);
+		this.fightFeed.publish(fight);
+		this.leaderboard.record(fight);
+	}
+}
@@ -0,0 +1,19 @@
+package io.quarkus.sample.superheroes.fight.service;
+
+/**
+ * Source of the random numbers used to decide fights.
+ * <p>
+ *   The implementation in use is produced by {@link RandomSources}. It can be replaced by declaring an alternative {@link RandomSource} bean.
+ * </p>
+ */
+interface RandomSource {
+	/**
+	 * @return A random {@code int} between {@code 0} (inclusive) and {@code bound} (exclusive)
+	 */
+	int nextInt(int bound);
+
+	/**
+	 * @return A random {@code boolean}
+	 */
+	boolean nextBoolean();
+}
@@ -0,0 +1,79 @@
+package io.quarkus.sample.superheroes.fight.service;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+
+import io.quarkus.arc.DefaultBean;
+import io.quarkus.logging.Log;
+import io.quarkus.sample.superheroes.fight.config.FightConfig;
+
+/**
+ * Produces the {@link RandomSource} used by {@link FightService}, and holds the available implementations
+ */
+@Singleton
+class RandomSources {
+	@Produces
+	@Singleton
+	@DefaultBean
+	RandomSource randomSource(FightConfig fightConfig) {
+		var seed = fightConfig.random().seed();
+
+		if (seed.isPresent()) {
+			Log.infof("Deciding fights with a deterministic random sequence seeded with %d", seed.getAsLong());
+			return new SeededRandomSource(seed.getAsLong());
+		}
+
+		return ThreadLocalRandomSource.INSTANCE;
+	}
+
+	/**
+	 * Draws from the calling thread's own generator. There is no state shared between threads, so no contention between event loops.
+	 */
+	static final class ThreadLocalRandomSource implements RandomSource {
+		static final ThreadLocalRandomSource INSTANCE = new ThreadLocalRandomSource();
+
+		private ThreadLocalRandomSource() {
+
+		}
+
+		@Override
+		public int nextInt(int bound) {
+			return ThreadLocalRandom.current().nextInt(bound);
+		}
+
+		@Override
+		public boolean nextBoolean() {
+			return ThreadLocalRandom.current().nextBoolean();
+		}
+	}
+
+	/**
+	 * Draws from a single seeded sequence, so that replaying the same fights in the same order reproduces the same outcomes.
+	 * <p>
+	 *   Access is serialized to keep the sequence deterministic, so this is meant for replays and simulations rather than production traffic.
+	 * </p>
+	 * <p>
+	 *   Only the sequence of draws is deterministic. Concurrent fights take their draws from it in whatever order they happen to run, so outcomes are only reproduced when fights are performed one at a time, in the same order.
+	 * </p>
+	 */
+	static final class SeededRandomSource implements RandomSource {
+		private final SplittableRandom random;
+
+		SeededRandomSource(long seed) {
+			this.random = new SplittableRandom(seed);
+		}
+
+		@Override
+		public synchronized int nextInt(int bound) {
+			return this.random.nextInt(bound);
+		}
+
+		@Override
+		public synchronized boolean nextBoolean() {
+			return this.random.nextBoolean();
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package io.quarkus.sample.superheroes.fight.service;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import io.quarkus.logging.Log;
+import io.quarkus.sample.superheroes.fight.config.FightConfig;
+import io.quarkus.sample.superheroes.fight.config.FightConfig.Execution.Mode;
+
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Runs blocking work on virtual threads, one new virtual thread per call.
+ * <p>
+ *   Only active when {@code fight.execution.mode} is {@code virtual-threads}. The application is compiled for Java 11, so the executor is looked up reflectively and starting up fails on a JVM without virtual threads.
+ * </p>
+ */
+@ApplicationScoped
+class VirtualThreadExecutor {
+	private final ExecutorService executor;
+
+	VirtualThreadExecutor(FightConfig fightConfig) {
+		this.executor = (fightConfig.execution().mode() == Mode.VIRTUAL_THREADS) ? newVirtualThreadPerTaskExecutor() : null;
+
+		if (this.executor != null) {
+			Log.info("Fights are run on virtual threads");
+		}
+	}
+
+	boolean isEnabled() {
+		return this.executor != null;
+	}
+
+	/**
+	 * Calls {@code task} on a new virtual thread once the returned {@link Uni} is subscribed to. Its result, or whatever it throws, is emitted on that thread.
+	 * <p>
+	 *   A {@link CompletionException} thrown by {@code task}, such as when it waited on something that failed, is replaced by its cause, so callers see the same failures as in the {@code reactive} mode.
+	 * </p>
+	 */
+	<T> Uni<T> call(Supplier<T> task) {
+		return Uni.createFrom().item(task)
+			.onFailure(CompletionException.class).transform(VirtualThreadExecutor::unwrap)
+			.runSubscriptionOn(this.executor);
+	}
+
+	/**
+	 * @return The cause of {@code failure} if it only wraps another failure, such as the {@link CompletionException} thrown by {@link java.util.concurrent.CompletableFuture#join()}, otherwise {@code failure} itself
+	 */
+	static Throwable unwrap(Throwable failure) {
+		return ((failure instanceof CompletionException) && (failure.getCause() != null)) ? failure.getCause() : failure;
+	}
+
+	@PreDestroy
+	void close() {
+		if (this.executor != null) {
+			this.executor.shutdown();
+		}
+	}
+
+	static ExecutorService newVirtualThreadPerTaskExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		}
+		catch (NoSuchMethodException e) {
+			throw new IllegalStateException("fight.execution.mode=virtual-threads needs Java 21 or later, but this is Java " + Runtime.version(), e);
+		}
+		catch (InvocationTargetException e) {
+			// Java 19 and 20 have virtual threads only as a preview feature, so they throw unless run with --enable-preview
+			throw new IllegalStateException("Virtual threads aren't available on Java " + Runtime.version(), e.getCause());
+		}
+		catch (IllegalAccessException e) {
+			throw new IllegalStateException("Could not create a virtual thread executor", e);
+		}
+	}
+}
@@ -0,0 +1,148 @@
+package io.quarkus.sample.superheroes.fight.client;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.microprofile.faulttolerance.exceptions.CircuitBreakerOpenException;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.sample.superheroes.fight.config.FightConfig.Client.Retry;
+import io.quarkus.sample.superheroes.fight.config.FightConfigs;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.helpers.test.UniAssertSubscriber;
+
+/**
+ * Tests for {@link BudgetedRetry}
+ */
+class BudgetedRetryTests {
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	public void retriesUntilSuccess() {
+		var retry = new BudgetedRetry("test", retry(3, 10), this.meterRegistry);
+		var attempts = new AtomicInteger();
+
+		var result = retry.retry(() -> (attempts.incrementAndGet() < 3) ?
+		                               Uni.createFrom().<String>failure(new RuntimeException("Failed")) :
+		                               Uni.createFrom().item("success"))
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.awaitItem(Duration.ofSeconds(5))
+			.getItem();
+
+		assertThat(result).isEqualTo("success");
+		assertThat(attempts).hasValue(3);
+		assertThat(retryCount("retried")).isEqualTo(2);
+	}
+
+	@Test
+	public void stopsAfterMaxRetries() {
+		var retry = new BudgetedRetry("test", retry(2, 10), this.meterRegistry);
+		var attempts = new AtomicInteger();
+
+		retry.retry(() -> {
+				attempts.incrementAndGet();
+				return Uni.createFrom().<String>failure(new RuntimeException("Failed"));
+			})
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.awaitFailure(Duration.ofSeconds(5))
+			.assertFailedWith(RuntimeException.class, "Failed");
+
+		assertThat(attempts).hasValue(3);
+		assertThat(retryCount("retries_exhausted")).isEqualTo(1);
+	}
+
+	@Test
+	public void stopsWhenBudgetIsExhausted() {
+		var retry = new BudgetedRetry("test", retry(3, 1), this.meterRegistry);
+		var attempts = new AtomicInteger();
+
+		retry.retry(() -> {
+				attempts.incrementAndGet();
+				return Uni.createFrom().<String>failure(new RuntimeException("Failed"));
+			})
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.awaitFailure(Duration.ofSeconds(5))
+			.assertFailedWith(RuntimeException.class, "Failed");
+
+		assertThat(attempts).hasValue(2);
+		assertThat(retryCount("budget_exhausted")).isEqualTo(1);
+	}
+
+	@Test
+	public void doesNotRetryOpenCircuitBreaker() {
+		var retry = new BudgetedRetry("test", retry(3, 10), this.meterRegistry);
+		var attempts = new AtomicInteger();
+
+		retry.retry(() -> {
+				attempts.incrementAndGet();
+				return Uni.createFrom().<String>failure(new CircuitBreakerOpenException());
+			})
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.awaitFailure(Duration.ofSeconds(5))
+			.assertFailedWith(CircuitBreakerOpenException.class);
+
+		assertThat(attempts).hasValue(1);
+	}
+
+	@Test
+	public void stopsAtDeadline() {
+		var retry = new BudgetedRetry("test", retry(3, 10), this.meterRegistry);
+		var attempts = new AtomicInteger();
+
+		retry.retry(() -> {
+				attempts.incrementAndGet();
+				return Uni.createFrom().<String>nothing();
+			}, Deadline.after(Duration.ofMillis(50)))
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.awaitFailure(Duration.ofSeconds(5))
+			.assertFailedWith(DeadlineExceededException.class);
+
+		assertThat(attempts).hasValue(1);
+	}
+
+	@Test
+	public void doesNotAttemptAfterDeadline() {
+		var retry = new BudgetedRetry("test", retry(3, 10), this.meterRegistry);
+		var attempts = new AtomicInteger();
+
+		retry.retry(() -> {
+				attempts.incrementAndGet();
+				return Uni.createFrom().item("success");
+			}, Deadline.after(Duration.ZERO))
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.awaitFailure(Duration.ofSeconds(5))
+			.assertFailedWith(DeadlineExceededException.class);
+
+		assertThat(attempts).hasValue(0);
+	}
+
+	@Test
+	public void backoffIsJitteredAndCapped() {
+		var retry = new BudgetedRetry("test", retry(3, 10), this.meterRegistry);
+
+		for (var i = 0; i < 100; i++) {
+			assertThat(retry.backoff(1)).isBetween(Duration.ZERO, Duration.ofMillis(10));
+			assertThat(retry.backoff(2)).isBetween(Duration.ZERO, Duration.ofMillis(20));
+			assertThat(retry.backoff(40)).isBetween(Duration.ZERO, Duration.ofMillis(50));
+		}
+	}
+
+	private double retryCount(String outcome) {
+		return this.meterRegistry.counter("fights.client.retries", "upstream", "test", "outcome", outcome).count();
+	}
+
+	private static Retry retry(int maxRetries, int budgetMaxTokens) {
+		return FightConfigs.create(Map.of(
+			"fight.client.retry.max-retries", String.valueOf(maxRetries),
+			"fight.client.retry.initial-backoff", "10ms",
+			"fight.client.retry.max-backoff", "50ms",
+			"fight.client.retry.budget-percent", "0",
+			"fight.client.retry.budget-max-tokens", String.valueOf(budgetMaxTokens)
+		)).client().retry();
+	}
+}
@@ -0,0 +1,163 @@
+package io.quarkus.sample.superheroes.fight.client;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.faulttolerance.exceptions.CircuitBreakerOpenException;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.sample.superheroes.fight.config.FightConfig.Client.Limiter;
+import io.quarkus.sample.superheroes.fight.config.FightConfigs;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.helpers.test.UniAssertSubscriber;
+
+/**
+ * Tests for {@link ConcurrencyLimiter}
+ */
+class ConcurrencyLimiterTests {
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	public void rejectsRequestsOverLimit() {
+		var limiter = new ConcurrencyLimiter("test", limiter(true), this.meterRegistry);
+
+		var inFlight = limiter.limit(() -> Uni.createFrom().<String>nothing())
+			.subscribe().withSubscriber(UniAssertSubscriber.create());
+
+		limiter.limit(() -> Uni.createFrom().<String>nothing())
+			.subscribe().withSubscriber(UniAssertSubscriber.create());
+
+		limiter.limit(() -> Uni.createFrom().item("rejected"))
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.assertFailedWith(ConcurrencyLimitExceededException.class);
+
+		assertThat(limiter.getInFlight()).isEqualTo(2);
+		assertThat(this.meterRegistry.counter("fights.client.limiter.rejections", "upstream", "test").count()).isEqualTo(1);
+
+		inFlight.cancel();
+		assertThat(limiter.getInFlight()).isEqualTo(1);
+
+		var result = limiter.limit(() -> Uni.createFrom().item("accepted"))
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.awaitItem(Duration.ofSeconds(5))
+			.getItem();
+
+		assertThat(result).isEqualTo("accepted");
+		assertThat(limiter.getInFlight()).isEqualTo(1);
+	}
+
+	@Test
+	public void limitShrinksWhenLatencyRises() {
+		var limiter = new ConcurrencyLimiter("test", limiter(true), this.meterRegistry);
+
+		for (var i = 0; i < 100; i++) {
+			limiter.onSample(TimeUnit.MILLISECONDS.toNanos(10), limiter.getLimit());
+		}
+
+		var steadyLimit = limiter.getLimit();
+
+		for (var i = 0; i < 20; i++) {
+			limiter.onSample(TimeUnit.MILLISECONDS.toNanos(100), limiter.getLimit());
+		}
+
+		assertThat(steadyLimit).isGreaterThan(2);
+		assertThat(limiter.getLimit()).isLessThan(steadyLimit);
+	}
+
+	@Test
+	public void failedRequestShrinksLimit() {
+		var limiter = new ConcurrencyLimiter("test", limiter(true, 20), this.meterRegistry);
+
+		limiter.limit(() -> Uni.createFrom().<String>failure(new RuntimeException("Service unavailable")))
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.awaitFailure(Duration.ofSeconds(5));
+
+		assertThat(limiter.getLimit()).isEqualTo(18);
+		assertThat(limiter.getInFlight()).isZero();
+	}
+
+	@Test
+	public void slowRequestGivenUpOnShrinksLimit() throws InterruptedException {
+		var limiter = new ConcurrencyLimiter("test", limiter(true, 20), this.meterRegistry);
+		limiter.onSample(TimeUnit.MILLISECONDS.toNanos(10), 0);
+
+		var request = limiter.limit(() -> Uni.createFrom().<String>nothing())
+			.subscribe().withSubscriber(UniAssertSubscriber.create());
+		Thread.sleep(50);
+		request.cancel();
+
+		assertThat(limiter.getLimit()).isEqualTo(18);
+		assertThat(limiter.getInFlight()).isZero();
+	}
+
+	@Test
+	public void quickRequestGivenUpOnKeepsLimit() {
+		var limiter = new ConcurrencyLimiter("test", limiter(true, 20), this.meterRegistry);
+		limiter.onSample(TimeUnit.SECONDS.toNanos(10), 0);
+
+		limiter.limit(() -> Uni.createFrom().<String>nothing())
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.cancel();
+
+		assertThat(limiter.getLimit()).isEqualTo(20);
+		assertThat(limiter.getInFlight()).isZero();
+	}
+
+	@Test
+	public void limitDoesNotShrinkBelowMinimum() {
+		var limiter = new ConcurrencyLimiter("test", limiter(true), this.meterRegistry);
+
+		for (var i = 0; i < 10; i++) {
+			limiter.onDrop();
+		}
+
+		assertThat(limiter.getLimit()).isOne();
+	}
+
+	@Test
+	public void openCircuitBreakerDoesNotChangeLimit() {
+		var limiter = new ConcurrencyLimiter("test", limiter(true, 20), this.meterRegistry);
+
+		limiter.limit(() -> Uni.createFrom().<String>failure(new CircuitBreakerOpenException("findRandomHero")))
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.assertFailedWith(CircuitBreakerOpenException.class);
+
+		assertThat(limiter.getLimit()).isEqualTo(20);
+		assertThat(limiter.getInFlight()).isZero();
+
+		limiter.limit(() -> Uni.createFrom().<String>failure(new IllegalStateException("Boom")))
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.assertFailedWith(IllegalStateException.class);
+
+		assertThat(limiter.getLimit()).isLessThan(20);
+	}
+
+	@Test
+	public void disabledDoesNotLimit() {
+		var limiter = new ConcurrencyLimiter("test", limiter(false), this.meterRegistry);
+
+		for (var i = 0; i < 5; i++) {
+			limiter.limit(() -> Uni.createFrom().<String>nothing())
+				.subscribe().withSubscriber(UniAssertSubscriber.create())
+				.assertNotTerminated();
+		}
+	}
+
+	private static Limiter limiter(boolean enabled) {
+		return limiter(enabled, 2);
+	}
+
+	private static Limiter limiter(boolean enabled, int initialLimit) {
+		return FightConfigs.create(Map.of(
+			"fight.client.limiter.enabled", String.valueOf(enabled),
+			"fight.client.limiter.initial-limit", String.valueOf(initialLimit),
+			"fight.client.limiter.min-limit", "1",
+			"fight.client.limiter.max-limit", "100"
+		)).client().limiter();
+	}
+}
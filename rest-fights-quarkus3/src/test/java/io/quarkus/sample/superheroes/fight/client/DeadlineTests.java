@@ -0,0 +1,89 @@
+package io.quarkus.sample.superheroes.fight.client;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.helpers.test.UniAssertSubscriber;
+
+/**
+ * Tests for {@link Deadline}
+ */
+class DeadlineTests {
+	@Test
+	public void noBudgetIsNoDeadline() {
+		var deadline = Deadline.after(Optional.empty());
+		var uni = Uni.createFrom().item("fight");
+
+		assertThat(deadline.isNone()).isTrue();
+		assertThat(deadline.allows(Duration.ofDays(365))).isTrue();
+		assertThat(deadline.bound(uni)).isSameAs(uni);
+	}
+
+	@Test
+	public void remainingCountsDown() throws InterruptedException {
+		var deadline = Deadline.after(Duration.ofMillis(200));
+
+		assertThat(deadline.isNone()).isFalse();
+		assertThat(deadline.remaining()).isPositive().isLessThanOrEqualTo(Duration.ofMillis(200));
+		assertThat(deadline.allows(Duration.ofMillis(100))).isTrue();
+		assertThat(deadline.allows(Duration.ofMillis(300))).isFalse();
+
+		Thread.sleep(250);
+
+		assertThat(deadline.remaining()).isZero();
+		assertThat(deadline.allows(Duration.ZERO)).isFalse();
+	}
+
+	@Test
+	public void boundPassesItemThroughBeforeDeadline() {
+		var item = Deadline.after(Duration.ofSeconds(5))
+			.bound(Uni.createFrom().item("fight"))
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.awaitItem(Duration.ofSeconds(5))
+			.getItem();
+
+		assertThat(item).isEqualTo("fight");
+	}
+
+	@Test
+	public void boundFailsAtDeadline() {
+		Deadline.after(Duration.ofMillis(50))
+			.bound(Uni.createFrom().nothing())
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.awaitFailure(Duration.ofSeconds(5))
+			.assertFailedWith(DeadlineExceededException.class);
+	}
+
+	@Test
+	public void boundFailsWithoutSubscribingOncePassed() throws InterruptedException {
+		var deadline = Deadline.after(Duration.ofMillis(10));
+		var subscribed = new AtomicBoolean();
+		Thread.sleep(50);
+
+		deadline.bound(Uni.createFrom().item("fight").onSubscription().invoke(() -> subscribed.set(true)))
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.awaitFailure(Duration.ofSeconds(5))
+			.assertFailedWith(DeadlineExceededException.class);
+
+		assertThat(subscribed).isFalse();
+	}
+
+	@Test
+	public void boundTakesRemainingTimeOnSubscription() throws InterruptedException {
+		var deadline = Deadline.after(Duration.ofMillis(200));
+		var bounded = deadline.bound(Uni.createFrom().item("fight").onItem().delayIt().by(Duration.ofMillis(100)));
+		Thread.sleep(150);
+
+		// Only about 50ms are left by the time the bounded Uni is subscribed to, not the whole 200ms
+		bounded
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.awaitFailure(Duration.ofSeconds(5))
+			.assertFailedWith(DeadlineExceededException.class);
+	}
+}
@@ -0,0 +1,97 @@
+package io.quarkus.sample.superheroes.fight.client;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.sample.superheroes.fight.config.FightConfig.Client.Roster;
+import io.quarkus.sample.superheroes.fight.config.FightConfigs;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Tests for {@link FighterRoster}
+ */
+class FighterRosterTests {
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	public void picksFromLoadedRoster() {
+		var roster = new FighterRoster<>("test", () -> Uni.createFrom().item(List.of("hero 1", "hero 2")), roster(10), this.meterRegistry);
+
+		assertThat(roster.isLoaded()).isFalse();
+		assertThat(roster.pick()).isNull();
+
+		roster.refresh().await().atMost(Duration.ofSeconds(5));
+
+		assertThat(roster.isLoaded()).isTrue();
+		assertThat(roster.size()).isEqualTo(2);
+
+		for (var i = 0; i < 10; i++) {
+			assertThat(roster.pick()).isIn("hero 1", "hero 2");
+		}
+	}
+
+	@Test
+	public void emptyRosterIsLoaded() {
+		var roster = new FighterRoster<>("test", () -> Uni.createFrom().item(List.<String>of()), roster(10), this.meterRegistry);
+
+		roster.refresh().await().atMost(Duration.ofSeconds(5));
+
+		assertThat(roster.isLoaded()).isTrue();
+		assertThat(roster.pick()).isNull();
+	}
+
+	@Test
+	public void nullRosterIsEmpty() {
+		var roster = new FighterRoster<String>("test", () -> Uni.createFrom().nullItem(), roster(10), this.meterRegistry);
+
+		roster.refresh().await().atMost(Duration.ofSeconds(5));
+
+		assertThat(roster.isLoaded()).isTrue();
+		assertThat(roster.size()).isZero();
+		assertThat(roster.pick()).isNull();
+		assertThat(this.meterRegistry.counter("fights.client.roster.refreshes", "upstream", "test", "outcome", "success").count()).isEqualTo(1);
+	}
+
+	@Test
+	public void failedRefreshKeepsRoster() {
+		var answer = new AtomicReference<Uni<List<String>>>(Uni.createFrom().item(List.of("hero 1")));
+		var roster = new FighterRoster<>("test", answer::get, roster(10), this.meterRegistry);
+
+		roster.refresh().await().atMost(Duration.ofSeconds(5));
+		answer.set(Uni.createFrom().failure(new RuntimeException("Failed")));
+		roster.refresh().await().atMost(Duration.ofSeconds(5));
+
+		assertThat(roster.pick()).isEqualTo("hero 1");
+		assertThat(this.meterRegistry.counter("fights.client.roster.refreshes", "upstream", "test", "outcome", "failure").count()).isEqualTo(1);
+	}
+
+	@Test
+	public void samplesBigRoster() {
+		var all = IntStream.range(0, 100)
+			.mapToObj(i -> "hero " + i)
+			.collect(Collectors.toList());
+		var roster = new FighterRoster<>("test", () -> Uni.createFrom().item(all), roster(10), this.meterRegistry);
+
+		roster.refresh().await().atMost(Duration.ofSeconds(5));
+
+		assertThat(roster.size()).isEqualTo(10);
+		assertThat(roster.pick()).isIn(all);
+	}
+
+	private static Roster roster(int maxSize) {
+		return FightConfigs.create(Map.of(
+			"fight.client.roster.enabled", "true",
+			"fight.client.roster.max-size", String.valueOf(maxSize)
+		)).client().roster();
+	}
+}
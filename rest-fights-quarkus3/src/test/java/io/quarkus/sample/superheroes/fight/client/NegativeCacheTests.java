@@ -0,0 +1,148 @@
+package io.quarkus.sample.superheroes.fight.client;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.sample.superheroes.fight.config.FightConfig.Client.NotFound;
+import io.quarkus.sample.superheroes.fight.config.FightConfigs;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.helpers.test.UniAssertSubscriber;
+
+/**
+ * Tests for {@link NegativeCache}
+ */
+class NegativeCacheTests {
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	public void skipsRequestsAfterNotFound() {
+		var cache = new NegativeCache("test", notFound(true, Duration.ofMinutes(1)), this.meterRegistry);
+		var requests = new AtomicInteger();
+
+		for (var i = 0; i < 3; i++) {
+			var result = cache.guard(() -> Uni.createFrom().<String>item(() -> {
+					requests.incrementAndGet();
+					return null;
+				}))
+				.subscribe().withSubscriber(UniAssertSubscriber.create())
+				.awaitItem(Duration.ofSeconds(5))
+				.getItem();
+
+			assertThat(result).isNull();
+		}
+
+		assertThat(requests).hasValue(1);
+		assertThat(cache.isNotFound()).isTrue();
+		assertThat(cacheCount("hit")).isEqualTo(2);
+	}
+
+	@Test
+	public void probesOnceAfterTtl() throws InterruptedException {
+		var cache = new NegativeCache("test", notFound(true, Duration.ofMillis(10)), this.meterRegistry);
+		var answer = new AtomicReference<String>();
+		var requests = new AtomicInteger();
+
+		cache.guard(() -> Uni.createFrom().item(answer::get))
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.awaitItem(Duration.ofSeconds(5));
+
+		assertThat(cache.isNotFound()).isTrue();
+
+		// The service has fighters again, but only the probe should find out
+		answer.set("hero");
+		Thread.sleep(20);
+
+		var result = cache.guard(() -> Uni.createFrom().item(() -> {
+				requests.incrementAndGet();
+				return answer.get();
+			}))
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.awaitItem(Duration.ofSeconds(5))
+			.getItem();
+
+		assertThat(result).isNull();
+		assertThat(requests).hasValue(1);
+		assertThat(cacheCount("probe")).isEqualTo(1);
+		assertThat(cache.isNotFound()).isFalse();
+
+		result = cache.guard(() -> Uni.createFrom().item(answer::get))
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.awaitItem(Duration.ofSeconds(5))
+			.getItem();
+
+		assertThat(result).isEqualTo("hero");
+	}
+
+	@Test
+	public void failedProbeKeepsSkipping() throws InterruptedException {
+		var cache = new NegativeCache("test", notFound(true, Duration.ofMillis(200)), this.meterRegistry);
+		var requests = new AtomicInteger();
+
+		cache.guard(() -> Uni.createFrom().<String>nullItem())
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.awaitItem(Duration.ofSeconds(5));
+
+		Thread.sleep(250);
+
+		var result = cache.guard(() -> Uni.createFrom().<String>failure(new IllegalStateException("Boom")))
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.awaitItem(Duration.ofSeconds(5))
+			.getItem();
+
+		assertThat(result).isNull();
+		assertThat(cacheCount("probe")).isEqualTo(1);
+		assertThat(cache.isNotFound()).isTrue();
+
+		// Requests are skipped for another ttl rather than all being let through
+		for (var i = 0; i < 3; i++) {
+			result = cache.guard(() -> Uni.createFrom().item(() -> {
+					requests.incrementAndGet();
+					return "hero";
+				}))
+				.subscribe().withSubscriber(UniAssertSubscriber.create())
+				.awaitItem(Duration.ofSeconds(5))
+				.getItem();
+
+			assertThat(result).isNull();
+		}
+
+		assertThat(requests).hasValue(0);
+		assertThat(cacheCount("probe")).isEqualTo(1);
+	}
+
+	@Test
+	public void disabledDoesNotSkip() {
+		var cache = new NegativeCache("test", notFound(false, Duration.ofMinutes(1)), this.meterRegistry);
+		var requests = new AtomicInteger();
+
+		for (var i = 0; i < 3; i++) {
+			cache.guard(() -> Uni.createFrom().<String>item(() -> {
+					requests.incrementAndGet();
+					return null;
+				}))
+				.subscribe().withSubscriber(UniAssertSubscriber.create())
+				.awaitItem(Duration.ofSeconds(5));
+		}
+
+		assertThat(requests).hasValue(3);
+	}
+
+	private double cacheCount(String outcome) {
+		return this.meterRegistry.counter("fights.client.not_found.cache", "upstream", "test", "outcome", outcome).count();
+	}
+
+	private static NotFound notFound(boolean enabled, Duration ttl) {
+		return FightConfigs.create(Map.of(
+			"fight.client.not-found.enabled", String.valueOf(enabled),
+			"fight.client.not-found.ttl", ttl.toMillis() + "ms"
+		)).client().notFound();
+	}
+}
@@ -0,0 +1,182 @@
+package io.quarkus.sample.superheroes.fight.client;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.sample.superheroes.fight.config.FightConfig.Client.Hedging;
+import io.quarkus.sample.superheroes.fight.config.FightConfigs;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.helpers.test.UniAssertSubscriber;
+
+/**
+ * Tests for {@link RequestHedger}
+ */
+class RequestHedgerTests {
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	public void usesHedgedRequestWhenFirstIsSlow() {
+		var hedger = new RequestHedger("test", hedging(true, 10), this.meterRegistry);
+		var requests = new AtomicInteger();
+
+		var result = hedger.hedge(() -> (requests.incrementAndGet() == 1) ?
+		                                 Uni.createFrom().item("slow").onItem().delayIt().by(Duration.ofSeconds(10)) :
+		                                 Uni.createFrom().item("fast"))
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.awaitItem(Duration.ofSeconds(5))
+			.getItem();
+
+		assertThat(result).isEqualTo("fast");
+		assertThat(requests).hasValue(2);
+		assertThat(hedgeCount("sent")).isEqualTo(1);
+		assertThat(hedgeCount("won")).isEqualTo(1);
+	}
+
+	@Test
+	public void doesNotHedgeWhenBudgetIsExhausted() {
+		var hedger = new RequestHedger("test", hedging(true, 0), this.meterRegistry);
+		var requests = new AtomicInteger();
+
+		var result = hedger.hedge(() -> {
+				requests.incrementAndGet();
+				return Uni.createFrom().item("slow").onItem().delayIt().by(Duration.ofMillis(200));
+			})
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.awaitItem(Duration.ofSeconds(5))
+			.getItem();
+
+		assertThat(result).isEqualTo("slow");
+		assertThat(requests).hasValue(1);
+		assertThat(hedgeCount("budget_exhausted")).isEqualTo(1);
+		assertThat(hedgeCount("sent")).isZero();
+	}
+
+	@Test
+	public void ignoresFailedHedgedRequest() {
+		var hedger = new RequestHedger("test", hedging(true, 10), this.meterRegistry);
+		var requests = new AtomicInteger();
+
+		var result = hedger.hedge(() -> (requests.incrementAndGet() == 1) ?
+		                                 Uni.createFrom().item("slow").onItem().delayIt().by(Duration.ofMillis(200)) :
+		                                 Uni.createFrom().<String>failure(new RuntimeException("Hedged request failed")))
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.awaitItem(Duration.ofSeconds(5))
+			.getItem();
+
+		assertThat(result).isEqualTo("slow");
+		assertThat(requests).hasValue(2);
+	}
+
+	@Test
+	public void usesHedgedRequestWhenOriginalFails() {
+		var hedger = new RequestHedger("test", hedging(true, 10), this.meterRegistry);
+		var requests = new AtomicInteger();
+
+		var result = hedger.hedge(() -> (requests.incrementAndGet() == 1) ?
+		                                 failAfter(Duration.ofMillis(100), "Original request failed") :
+		                                 Uni.createFrom().item("hedged").onItem().delayIt().by(Duration.ofMillis(300)))
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.awaitItem(Duration.ofSeconds(5))
+			.getItem();
+
+		assertThat(result).isEqualTo("hedged");
+		assertThat(requests).hasValue(2);
+		assertThat(hedgeCount("won")).isEqualTo(1);
+	}
+
+	@Test
+	public void failsWithOriginalFailureWhenBothFail() {
+		var hedger = new RequestHedger("test", hedging(true, 10), this.meterRegistry);
+		var requests = new AtomicInteger();
+
+		hedger.hedge(() -> (requests.incrementAndGet() == 1) ?
+		                   failAfter(Duration.ofMillis(200), "Original request failed") :
+		                   Uni.createFrom().<String>failure(new RuntimeException("Hedged request failed")))
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.awaitFailure(Duration.ofSeconds(5))
+			.assertFailedWith(RuntimeException.class, "Original request failed");
+
+		assertThat(requests).hasValue(2);
+	}
+
+	@Test
+	public void failsWithoutHedgingWhenOriginalFailsFirst() {
+		var hedger = new RequestHedger("test", hedging(true, 10), this.meterRegistry);
+		var requests = new AtomicInteger();
+
+		hedger.hedge(() -> {
+				requests.incrementAndGet();
+				return Uni.createFrom().<String>failure(new RuntimeException("Original request failed"));
+			})
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.awaitFailure(Duration.ofSeconds(5))
+			.assertFailedWith(RuntimeException.class, "Original request failed");
+
+		assertThat(requests).hasValue(1);
+		assertThat(hedgeCount("sent")).isZero();
+	}
+
+	@Test
+	public void countsTimeWaitedByCancelledRequests() throws InterruptedException {
+		var windowSize = 10;
+		var hedger = new RequestHedger("test", hedging(true, 0, windowSize), this.meterRegistry);
+
+		// Requests that never answer, and are given up on after 50ms each
+		for (var i = 0; i < windowSize; i++) {
+			var subscriber = hedger.hedge(() -> Uni.createFrom().<String>nothing())
+				.subscribe().withSubscriber(UniAssertSubscriber.create());
+			Thread.sleep(50);
+			subscriber.cancel();
+		}
+
+		assertThat(hedger.getDelay()).isGreaterThanOrEqualTo(Duration.ofMillis(50));
+	}
+
+	@Test
+	public void disabledMakesSingleRequest() {
+		var hedger = new RequestHedger("test", hedging(false, 10), this.meterRegistry);
+		var requests = new AtomicInteger();
+
+		var result = hedger.hedge(() -> {
+				requests.incrementAndGet();
+				return Uni.createFrom().item("slow").onItem().delayIt().by(Duration.ofMillis(200));
+			})
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.awaitItem(Duration.ofSeconds(5))
+			.getItem();
+
+		assertThat(result).isEqualTo("slow");
+		assertThat(requests).hasValue(1);
+	}
+
+	private double hedgeCount(String outcome) {
+		return this.meterRegistry.counter("fights.client.hedges", "upstream", "test", "outcome", outcome).count();
+	}
+
+	private static Uni<String> failAfter(Duration delay, String message) {
+		return Uni.createFrom().voidItem()
+			.onItem().delayIt().by(delay)
+			.onItem().transformToUni(ignored -> Uni.createFrom().<String>failure(new RuntimeException(message)));
+	}
+
+	private static Hedging hedging(boolean enabled, int budgetMaxTokens) {
+		return hedging(enabled, budgetMaxTokens, 100);
+	}
+
+	private static Hedging hedging(boolean enabled, int budgetMaxTokens, int windowSize) {
+		return FightConfigs.create(Map.of(
+			"fight.client.hedging.enabled", String.valueOf(enabled),
+			"fight.client.hedging.window-size", String.valueOf(windowSize),
+			"fight.client.hedging.initial-delay", "20ms",
+			"fight.client.hedging.budget-percent", "0",
+			"fight.client.hedging.budget-max-tokens", String.valueOf(budgetMaxTokens)
+		)).client().hedging();
+	}
+}
@@ -0,0 +1,131 @@
+package io.quarkus.sample.superheroes.fight.client;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.sample.superheroes.fight.config.FightConfig.Client.Hello;
+import io.quarkus.sample.superheroes.fight.config.FightConfigs;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.helpers.test.UniAssertSubscriber;
+import io.smallrye.mutiny.subscription.UniEmitter;
+
+/**
+ * Tests for {@link SingleFlight}
+ */
+class SingleFlightTests {
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	public void concurrentCallersShareOneCall() {
+		var calls = new AtomicInteger();
+		var emitter = new AtomicReference<UniEmitter<? super String>>();
+		var singleFlight = new SingleFlight<>("test", () -> {
+			calls.incrementAndGet();
+			return Uni.createFrom().<String>emitter(emitter::set);
+		}, hello(Duration.ofMinutes(1)), this.meterRegistry);
+
+		var first = singleFlight.get().subscribe().withSubscriber(UniAssertSubscriber.create());
+		var second = singleFlight.get().subscribe().withSubscriber(UniAssertSubscriber.create());
+
+		first.assertNotTerminated();
+		second.assertNotTerminated();
+
+		// A caller giving up doesn't cancel the shared call
+		first.cancel();
+		emitter.get().complete("hello");
+
+		assertThat(second.awaitItem(Duration.ofSeconds(5)).getItem()).isEqualTo("hello");
+		assertThat(calls).hasValue(1);
+		assertThat(helloCount("coalesced")).isEqualTo(1);
+	}
+
+	@Test
+	public void reusesOutcomeWithinTtl() {
+		var calls = new AtomicInteger();
+		var singleFlight = new SingleFlight<>("test", () -> Uni.createFrom().item(() -> "hello " + calls.incrementAndGet()), hello(Duration.ofMinutes(1)), this.meterRegistry);
+
+		for (var i = 0; i < 3; i++) {
+			var result = singleFlight.get()
+				.subscribe().withSubscriber(UniAssertSubscriber.create())
+				.awaitItem(Duration.ofSeconds(5))
+				.getItem();
+
+			assertThat(result).isEqualTo("hello 1");
+		}
+
+		assertThat(calls).hasValue(1);
+		assertThat(helloCount("cached")).isEqualTo(2);
+	}
+
+	@Test
+	public void callsAgainWithoutTtl() {
+		var calls = new AtomicInteger();
+		var singleFlight = new SingleFlight<>("test", () -> Uni.createFrom().item(() -> "hello " + calls.incrementAndGet()), hello(Duration.ZERO), this.meterRegistry);
+
+		for (var i = 1; i <= 3; i++) {
+			var result = singleFlight.get()
+				.subscribe().withSubscriber(UniAssertSubscriber.create())
+				.awaitItem(Duration.ofSeconds(5))
+				.getItem();
+
+			assertThat(result).isEqualTo("hello " + i);
+		}
+
+		assertThat(calls).hasValue(3);
+		assertThat(helloCount("called")).isEqualTo(3);
+	}
+
+	@Test
+	public void doesNotReuseFailure() {
+		var calls = new AtomicInteger();
+		var singleFlight = new SingleFlight<>("test", () -> (calls.incrementAndGet() == 1) ?
+		                                              Uni.createFrom().<String>failure(new RuntimeException("Service unavailable")) :
+		                                              Uni.createFrom().item("hello " + calls.get()), hello(Duration.ofMinutes(1)), this.meterRegistry);
+
+		singleFlight.get()
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.awaitFailure(Duration.ofSeconds(5))
+			.assertFailedWith(RuntimeException.class, "Service unavailable");
+
+		var result = singleFlight.get()
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.awaitItem(Duration.ofSeconds(5))
+			.getItem();
+
+		assertThat(result).isEqualTo("hello 2");
+		assertThat(calls).hasValue(2);
+		assertThat(helloCount("cached")).isZero();
+	}
+
+	@Test
+	public void sharedCallTimesOut() {
+		var singleFlight = new SingleFlight<>("test", () -> Uni.createFrom().<String>nothing(), hello(Duration.ZERO, Duration.ofMillis(50)), this.meterRegistry);
+
+		singleFlight.get()
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.awaitFailure(Duration.ofSeconds(5));
+	}
+
+	private double helloCount(String outcome) {
+		return this.meterRegistry.counter("fights.client.hello", "upstream", "test", "outcome", outcome).count();
+	}
+
+	private static Hello hello(Duration ttl) {
+		return hello(ttl, Duration.ofSeconds(5));
+	}
+
+	private static Hello hello(Duration ttl, Duration timeout) {
+		return FightConfigs.create(Map.of(
+			"fight.client.hello.ttl", ttl.toMillis() + "ms",
+			"fight.client.hello.timeout", timeout.toMillis() + "ms"
+		)).client().hello();
+	}
+}
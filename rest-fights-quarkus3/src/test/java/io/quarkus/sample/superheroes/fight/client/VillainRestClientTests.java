@@ -0,0 +1,183 @@
+package io.quarkus.sample.superheroes.fight.client;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.sample.superheroes.fight.config.FightConfig.Villain.Http;
+import io.quarkus.sample.superheroes.fight.config.FightConfigs;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.helpers.test.UniAssertSubscriber;
+import io.vertx.mutiny.core.Vertx;
+import io.vertx.mutiny.core.http.HttpServer;
+import io.vertx.mutiny.core.http.HttpServerRequest;
+
+/**
+ * Tests for {@link VillainRestClient}, against a stub Villain service
+ */
+class VillainRestClientTests {
+	private static final String VILLAIN_JSON = "{\"id\":1,\"name\":\"Darth Vader\",\"level\":100,\"picture\":\"darth_vader.png\",\"powers\":\"Light sabre\"}";
+	private static final int POOL_SIZE = 4;
+
+	private final AtomicInteger connections = new AtomicInteger();
+	private final AtomicInteger requests = new AtomicInteger();
+	private Vertx vertx;
+	private HttpServer server;
+	private volatile int status = 200;
+	private volatile boolean emptyBody = false;
+	private volatile long delayMillis = 0;
+
+	@BeforeEach
+	public void startStub() {
+		this.vertx = Vertx.vertx();
+		this.server = this.vertx.createHttpServer()
+			.connectionHandler(connection -> this.connections.incrementAndGet())
+			.requestHandler(this::handle)
+			.listen(0)
+			.await().atMost(Duration.ofSeconds(5));
+	}
+
+	@AfterEach
+	public void stopStub() {
+		this.vertx.close().await().atMost(Duration.ofSeconds(5));
+	}
+
+	@Test
+	public void findsRandomVillain() {
+		var villain = createClient(Duration.ofSeconds(5)).findRandomVillain()
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.awaitItem(Duration.ofSeconds(5))
+			.getItem();
+
+		assertThat(villain)
+			.isNotNull()
+			.extracting(
+				Villain::getName,
+				Villain::getLevel,
+				Villain::getPicture,
+				Villain::getPowers
+			)
+			.containsExactly(
+				"Darth Vader",
+				100,
+				"darth_vader.png",
+				"Light sabre"
+			);
+	}
+
+	@Test
+	public void findsAllVillains() {
+		var villains = createClient(Duration.ofSeconds(5)).findAllVillains()
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.awaitItem(Duration.ofSeconds(5))
+			.getItem();
+
+		assertThat(villains)
+			.singleElement()
+			.extracting(Villain::getName, Villain::getLevel)
+			.containsExactly("Darth Vader", 100);
+	}
+
+	@Test
+	public void notFoundIs404() {
+		this.status = 404;
+
+		var failure = createClient(Duration.ofSeconds(5)).findRandomVillain()
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.awaitFailure(Duration.ofSeconds(5))
+			.getFailure();
+
+		assertThat(failure).isInstanceOf(UnexpectedStatusException.class);
+		assertThat(Is404Exception.IS_404.test(failure)).isTrue();
+	}
+
+	@Test
+	public void emptyBodyIsNotFound() {
+		this.emptyBody = true;
+		var client = createClient(Duration.ofSeconds(5));
+
+		client.findRandomVillain()
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.awaitItem(Duration.ofSeconds(5))
+			.assertItem(null);
+
+		var villains = client.findAllVillains()
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.awaitItem(Duration.ofSeconds(5))
+			.getItem();
+
+		assertThat(villains).isEmpty();
+	}
+
+	@Test
+	public void slowAnswerTimesOut() {
+		this.delayMillis = 1000;
+
+		var failure = createClient(Duration.ofMillis(100)).findRandomVillain()
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.awaitFailure(Duration.ofSeconds(5))
+			.getFailure();
+
+		assertThat(Is404Exception.IS_404.test(failure)).isFalse();
+	}
+
+	@Test
+	public void reusesConnectionsUnderConcurrency() {
+		// Slow enough that every pooled connection is busy and requests have to wait for one
+		this.delayMillis = 10;
+		var client = createClient(Duration.ofSeconds(10));
+		var concurrency = 50;
+		var total = 500;
+
+		var villains = Multi.createFrom().range(0, total)
+			.onItem().transformToUni(i -> client.findRandomVillain()).merge(concurrency)
+			.collect().asList()
+			.await().atMost(Duration.ofSeconds(30));
+
+		assertThat(villains)
+			.hasSize(total)
+			.allSatisfy(villain -> assertThat(villain.getName()).isEqualTo("Darth Vader"));
+		assertThat(this.requests).hasValue(total);
+		assertThat(this.connections.get()).isBetween(1, POOL_SIZE);
+	}
+
+	private void handle(HttpServerRequest request) {
+		this.requests.incrementAndGet();
+
+		if (this.delayMillis > 0) {
+			this.vertx.setTimer(this.delayMillis, id -> respond(request));
+		}
+		else {
+			respond(request);
+		}
+	}
+
+	private void respond(HttpServerRequest request) {
+		if ((this.status != 200) || this.emptyBody) {
+			request.response().setStatusCode(this.status).endAndForget();
+		}
+		else {
+			request.response()
+				.putHeader("Content-Type", "application/json")
+				.endAndForget("/api/villains".equals(request.path()) ? "[" + VILLAIN_JSON + "]" : VILLAIN_JSON);
+		}
+	}
+
+	private VillainRestClient createClient(Duration requestTimeout) {
+		return new VillainRestClient(this.vertx, "http://localhost:" + this.server.actualPort(), http(requestTimeout));
+	}
+
+	private static Http http(Duration requestTimeout) {
+		return FightConfigs.create(Map.of(
+			"fight.villain.http.max-pool-size", String.valueOf(POOL_SIZE),
+			"fight.villain.http.request-timeout", requestTimeout.toMillis() + "ms"
+		)).villain().http();
+	}
+}
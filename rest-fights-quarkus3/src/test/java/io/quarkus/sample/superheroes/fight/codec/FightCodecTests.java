@@ -0,0 +1,125 @@
+package io.quarkus.sample.superheroes.fight.codec;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonInt64;
+import org.bson.BsonNull;
+import org.bson.BsonString;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.pojo.PojoCodecProvider;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.sample.superheroes.fight.Fight;
+
+import com.mongodb.MongoClientSettings;
+
+/**
+ * Tests for {@link FightCodec}, mainly that it stays wire-compatible with the POJO codec it replaces
+ */
+class FightCodecTests {
+	private static final Codec<Fight> POJO_CODEC = CodecRegistries.fromRegistries(
+		MongoClientSettings.getDefaultCodecRegistry(),
+		CodecRegistries.fromProviders(PojoCodecProvider.builder().automatic(true).build())
+	).get(Fight.class);
+
+	private final FightCodec fightCodec = new FightCodec();
+
+	@Test
+	public void encodesSameDocumentAsPojoCodec() {
+		var fight = createFight();
+
+		assertThat(encode(this.fightCodec, fight))
+			.isEqualTo(encode(POJO_CODEC, fight));
+	}
+
+	@Test
+	public void decodesPojoCodecDocument() {
+		var fight = createFight();
+		var decoded = decode(this.fightCodec, encode(POJO_CODEC, fight));
+
+		assertThat(decoded)
+			.usingRecursiveComparison()
+			.isEqualTo(fight);
+	}
+
+	@Test
+	public void pojoCodecDecodesEncodedDocument() {
+		var fight = createFight();
+		var decoded = decode(POJO_CODEC, encode(this.fightCodec, fight));
+
+		assertThat(decoded)
+			.usingRecursiveComparison()
+			.isEqualTo(fight);
+	}
+
+	@Test
+	public void omitsNullFields() {
+		var fight = new Fight();
+		fight.winnerName = "Super Baguette";
+
+		assertThat(encode(this.fightCodec, fight))
+			.isEqualTo(new BsonDocument("winnerName", new BsonString("Super Baguette")));
+	}
+
+	@Test
+	public void decodeToleratesNullsWidenedLevelsAndUnknownFields() {
+		var document = new BsonDocument("winnerName", new BsonNull())
+			.append("winnerLevel", new BsonInt64(42))
+			.append("someOtherField", new BsonString("ignored"));
+
+		var fight = decode(this.fightCodec, document);
+
+		assertThat(fight.winnerName).isNull();
+		assertThat(fight.winnerLevel).isEqualTo(42);
+	}
+
+	@Test
+	public void generatesIdWhenEncodingCollectibleDocument() {
+		var fight = createFight();
+		fight.id = null;
+
+		var document = new BsonDocument();
+		this.fightCodec.encode(new BsonDocumentWriter(document), fight, EncoderContext.builder().isEncodingCollectibleDocument(true).build());
+
+		assertThat(fight.id).isNotNull();
+		assertThat(document.getObjectId("_id").getValue()).isEqualTo(fight.id);
+		assertThat(this.fightCodec.getDocumentId(fight).asObjectId().getValue()).isEqualTo(fight.id);
+	}
+
+	private static BsonDocument encode(Codec<Fight> codec, Fight fight) {
+		var document = new BsonDocument();
+		codec.encode(new BsonDocumentWriter(document), fight, EncoderContext.builder().build());
+
+		return document;
+	}
+
+	private static Fight decode(Codec<Fight> codec, BsonDocument document) {
+		return codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+	}
+
+	private static Fight createFight() {
+		var fight = new Fight();
+		fight.id = new ObjectId();
+		fight.fightDate = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+		fight.winnerName = "Super Baguette";
+		fight.winnerLevel = 42;
+		fight.winnerPicture = "super_baguette.png";
+		fight.loserName = "Super Chocolatine";
+		fight.loserLevel = 42;
+		fight.loserPicture = "super_chocolatine.png";
+		fight.winnerTeam = "heroes";
+		fight.loserTeam = "villains";
+
+		return fight;
+	}
+}
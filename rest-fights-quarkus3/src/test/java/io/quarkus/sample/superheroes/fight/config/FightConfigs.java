@@ -0,0 +1,46 @@
+package io.quarkus.sample.superheroes.fight.config;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import io.quarkus.runtime.configuration.DurationConverter;
+
+import io.smallrye.config.PropertiesConfigSource;
+import io.smallrye.config.SmallRyeConfigBuilder;
+
+/**
+ * Builds {@link FightConfig} outside of Quarkus, for tests and benchmarks that create beans by hand
+ */
+public final class FightConfigs {
+	private FightConfigs() {
+	}
+
+	/**
+	 * The configuration from {@code application.properties}, with every other property at its default
+	 */
+	public static FightConfig create() {
+		return create(Map.of());
+	}
+
+	/**
+	 * @param overrides Properties, such as {@code fight.client.hedging.enabled}, that take precedence over {@code application.properties}
+	 */
+	public static FightConfig create(Map<String, String> overrides) {
+		try {
+			return new SmallRyeConfigBuilder()
+				.withSources(new PropertiesConfigSource(FightConfigs.class.getResource("/application.properties"), 250))
+				.withSources(new PropertiesConfigSource(overrides, "overrides", 400))
+				.withConverter(Duration.class, 100, new DurationConverter())
+				.withConverter(Path.class, 100, Path::of)
+				.withMapping(FightConfig.class)
+				.build()
+				.getConfigMapping(FightConfig.class);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,238 @@
+package io.quarkus.sample.superheroes.fight.feed;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.sample.superheroes.fight.Fight;
+import io.quarkus.sample.superheroes.fight.config.FightConfigs;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.streams.WriteStream;
+import io.vertx.ext.web.Router;
+
+/**
+ * Tests for {@link FightFeed} and {@link FightFeedRoutes}, against a real HTTP server
+ */
+class FightFeedTests {
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private Vertx vertx;
+	private HttpServer server;
+	private HttpClient client;
+	private FightFeed fightFeed;
+
+	@BeforeEach
+	public void startServer() throws Exception {
+		this.vertx = Vertx.vertx();
+		this.fightFeed = new FightFeed(FightConfigs.create(Map.of(
+			"fight.feed.enabled", "true",
+			"fight.feed.max-subscribers", "2"
+		)), this.meterRegistry);
+
+		var router = Router.router(this.vertx);
+		new FightFeedRoutes(this.fightFeed).register(router);
+
+		this.server = this.vertx.createHttpServer()
+			.requestHandler(router)
+			.listen(0)
+			.toCompletionStage().toCompletableFuture()
+			.get();
+		this.client = this.vertx.createHttpClient();
+	}
+
+	@AfterEach
+	public void stopServer() throws Exception {
+		this.vertx.close().toCompletionStage().toCompletableFuture().get();
+	}
+
+	@Test
+	public void serverSentEventsReceiveFights() throws Exception {
+		var body = new StringBuffer();
+		var response = subscribeToServerSentEvents();
+		response.handler(body::append);
+		awaitUntil(() -> this.fightFeed.subscriberCount() == 1);
+
+		var fight = createFight("Super Baguette");
+		this.fightFeed.publish(fight);
+
+		awaitUntil(() -> body.toString().contains("data: "));
+
+		assertThat(response.statusCode()).isEqualTo(200);
+		assertThat(response.getHeader("Content-Type")).isEqualTo("text/event-stream");
+		assertThat(body.toString())
+			.contains("id: " + fight.id.toHexString() + "\n")
+			.contains("event: fight\n")
+			.contains("\"winnerName\":\"Super Baguette\"");
+	}
+
+	@Test
+	public void webSocketReceivesFights() throws Exception {
+		var messages = new CopyOnWriteArrayList<String>();
+		this.client.webSocket(this.server.actualPort(), "localhost", FightFeedRoutes.WEBSOCKET_PATH)
+			.toCompletionStage().toCompletableFuture()
+			.get()
+			.textMessageHandler(messages::add);
+		awaitUntil(() -> this.fightFeed.subscriberCount() == 1);
+
+		this.fightFeed.publish(createFight("Super Baguette"));
+		this.fightFeed.publish(createFight("Super Chocolatine"));
+
+		awaitUntil(() -> messages.size() == 2);
+
+		assertThat(messages)
+			.satisfiesExactly(
+				message -> assertThat(message).contains("\"winnerName\":\"Super Baguette\""),
+				message -> assertThat(message).contains("\"winnerName\":\"Super Chocolatine\"")
+			);
+	}
+
+	@Test
+	public void closedSubscribersAreRemoved() throws Exception {
+		var response = subscribeToServerSentEvents();
+		awaitUntil(() -> this.fightFeed.subscriberCount() == 1);
+
+		response.request().connection().close();
+
+		awaitUntil(() -> this.fightFeed.subscriberCount() == 0);
+	}
+
+	@Test
+	public void tooManySubscribersAreTurnedAway() throws Exception {
+		subscribeToServerSentEvents();
+		subscribeToServerSentEvents();
+		awaitUntil(() -> this.fightFeed.subscriberCount() == 2);
+
+		assertThat(subscribeToServerSentEvents().statusCode()).isEqualTo(503);
+		assertThat(this.meterRegistry.counter("fights.feed.rejected").count()).isOne();
+	}
+
+	@Test
+	public void slowSubscriberDropsOldestFights() throws Exception {
+		var connection = new StalledConnection();
+		var written = new CopyOnWriteArrayList<FeedEvent>();
+		var subscriber = new FeedSubscriber(this.vertx.getOrCreateContext(), connection, 2) {
+			@Override
+			void write(FeedEvent event) {
+				written.add(event);
+			}
+		};
+		var events = List.of(
+			FeedEvent.of(createFight("Fight 1")),
+			FeedEvent.of(createFight("Fight 2")),
+			FeedEvent.of(createFight("Fight 3"))
+		);
+
+		assertThat(subscriber.offer(events.get(0))).isFalse();
+		awaitUntil(() -> connection.drainHandler != null);
+		assertThat(subscriber.offer(events.get(1))).isFalse();
+		assertThat(subscriber.offer(events.get(2))).isTrue();
+		assertThat(written).isEmpty();
+
+		connection.full = false;
+		connection.drainHandler.handle(null);
+
+		assertThat(written).containsExactly(events.get(1), events.get(2));
+	}
+
+	private HttpClientResponse subscribeToServerSentEvents() throws Exception {
+		return this.client.request(HttpMethod.GET, this.server.actualPort(), "localhost", FightFeedRoutes.SERVER_SENT_EVENTS_PATH)
+			.compose(request -> request.send())
+			.toCompletionStage().toCompletableFuture()
+			.get();
+	}
+
+	private static Fight createFight(String winnerName) {
+		var fight = new Fight();
+		fight.id = new ObjectId();
+		fight.fightDate = Instant.now();
+		fight.winnerName = winnerName;
+		fight.winnerLevel = 42;
+		fight.winnerPicture = "winner.png";
+		fight.loserName = "Loser";
+		fight.loserLevel = 1;
+		fight.loserPicture = "loser.png";
+		fight.winnerTeam = "heroes";
+		fight.loserTeam = "villains";
+
+		return fight;
+	}
+
+	private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+		var deadline = System.nanoTime() + TIMEOUT.toNanos();
+
+		while (!condition.getAsBoolean()) {
+			assertThat(System.nanoTime()).as("Timed out waiting").isLessThan(deadline);
+			Thread.sleep(10);
+		}
+	}
+
+	/**
+	 * A connection that can't take any more writes until it is told to drain
+	 */
+	private static final class StalledConnection implements WriteStream<Buffer> {
+		private volatile boolean full = true;
+		private volatile Handler<Void> drainHandler;
+
+		@Override
+		public WriteStream<Buffer> exceptionHandler(Handler<Throwable> handler) {
+			return this;
+		}
+
+		@Override
+		public Future<Void> write(Buffer data) {
+			return Future.succeededFuture();
+		}
+
+		@Override
+		public void write(Buffer data, Handler<AsyncResult<Void>> handler) {
+			handler.handle(Future.succeededFuture());
+		}
+
+		@Override
+		public Future<Void> end() {
+			return Future.succeededFuture();
+		}
+
+		@Override
+		public void end(Handler<AsyncResult<Void>> handler) {
+			handler.handle(Future.succeededFuture());
+		}
+
+		@Override
+		public WriteStream<Buffer> setWriteQueueMaxSize(int maxSize) {
+			return this;
+		}
+
+		@Override
+		public boolean writeQueueFull() {
+			return this.full;
+		}
+
+		@Override
+		public WriteStream<Buffer> drainHandler(Handler<Void> handler) {
+			this.drainHandler = handler;
+			return this;
+		}
+	}
+}
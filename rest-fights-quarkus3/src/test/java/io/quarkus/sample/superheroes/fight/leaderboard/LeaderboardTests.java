@@ -0,0 +1,141 @@
+package io.quarkus.sample.superheroes.fight.leaderboard;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.quarkus.sample.superheroes.fight.config.FightConfigs;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests for {@link Leaderboard} and {@link SpaceSaving}
+ */
+class LeaderboardTests {
+	@TempDir
+	Path snapshots;
+
+	@Test
+	public void countsAreExactWhileEveryFighterFits() {
+		var leaderboard = createLeaderboard(10, 2);
+		record(leaderboard, "Super Baguette", 5);
+		record(leaderboard, "Super Chocolatine", 3);
+		record(leaderboard, "Super Fromage", 1);
+
+		assertThat(leaderboard.top(2))
+			.extracting(FighterWins::name, FighterWins::wins, FighterWins::error)
+			.containsExactly(
+				tuple("Super Baguette", 5L, 0L),
+				tuple("Super Chocolatine", 3L, 0L)
+			);
+		assertThat(leaderboard.wins("Super Fromage").wins()).isEqualTo(1);
+		assertThat(leaderboard.wins("Nobody").wins()).isZero();
+	}
+
+	@Test
+	public void leadersKeepCountingAcrossReranks() {
+		var leaderboard = createLeaderboard(10, 1);
+		record(leaderboard, "Super Baguette", 2);
+		record(leaderboard, "Super Chocolatine", 1);
+		leaderboard.rerank();
+
+		record(leaderboard, "Super Chocolatine", 3);
+		leaderboard.rerank();
+		record(leaderboard, "Super Baguette", 1);
+
+		assertThat(leaderboard.top(10))
+			.extracting(FighterWins::name, FighterWins::wins)
+			.containsExactly(
+				tuple("Super Chocolatine", 4L),
+				tuple("Super Baguette", 3L)
+			);
+		assertThat(leaderboard.countedFighters()).isEqualTo(2);
+	}
+
+	@Test
+	public void demotedLeaderTakesPromotedFighterCounter() {
+		var leaderboard = createLeaderboard(2, 1);
+		record(leaderboard, "Super Baguette", 1);
+		leaderboard.rerank();
+
+		// Fills the sketch, so demoting Super Baguette before promoting Super Chocolatine would push Super Fromage out
+		record(leaderboard, "Super Chocolatine", 5);
+		record(leaderboard, "Super Fromage", 1);
+		leaderboard.rerank();
+
+		assertThat(leaderboard.top(10))
+			.extracting(FighterWins::name, FighterWins::wins, FighterWins::error)
+			.containsExactlyInAnyOrder(
+				tuple("Super Chocolatine", 5L, 0L),
+				tuple("Super Baguette", 1L, 0L),
+				tuple("Super Fromage", 1L, 0L)
+			);
+		assertThat(leaderboard.countedFighters()).isEqualTo(3);
+	}
+
+	@Test
+	public void frequentWinnersAreNeverPushedOut() {
+		var sketch = new SpaceSaving(3);
+
+		// One fighter wins every other fight, against a stream of fighters who only ever win once
+		IntStream.range(0, 1000).forEach(i -> {
+			sketch.add("Super Baguette");
+			sketch.add("Fighter " + i);
+		});
+
+		var top = sketch.top(1).get(0);
+
+		assertThat(sketch.size()).isEqualTo(3);
+		assertThat(top.name()).isEqualTo("Super Baguette");
+		assertThat(top.wins()).isGreaterThanOrEqualTo(1000);
+		assertThat(top.wins() - top.error()).isLessThanOrEqualTo(1000);
+	}
+
+	@Test
+	public void restoresFromSnapshot() {
+		var snapshot = this.snapshots.resolve("leaderboard.json");
+		var leaderboard = createLeaderboard(10, 1);
+		record(leaderboard, "Super Baguette", 5);
+		record(leaderboard, "Super Chocolatine", 3);
+		leaderboard.rerank();
+		leaderboard.save(snapshot);
+
+		var restored = createLeaderboard(10, 1);
+		restored.restore(snapshot);
+		record(restored, "Super Chocolatine", 1);
+
+		assertThat(restored.top(10))
+			.extracting(FighterWins::name, FighterWins::wins)
+			.containsExactly(
+				tuple("Super Baguette", 5L),
+				tuple("Super Chocolatine", 4L)
+			);
+	}
+
+	@Test
+	public void missingSnapshotStartsEmpty() {
+		var leaderboard = createLeaderboard(10, 1);
+		leaderboard.restore(this.snapshots.resolve("missing.json"));
+
+		assertThat(leaderboard.top(10)).isEmpty();
+	}
+
+	private static void record(Leaderboard leaderboard, String name, int wins) {
+		IntStream.range(0, wins).forEach(i -> leaderboard.record(name));
+	}
+
+	private static Leaderboard createLeaderboard(int capacity, int leaders) {
+		var fightConfig = FightConfigs.create(Map.of(
+			"fight.leaderboard.enabled", "true",
+			"fight.leaderboard.capacity", String.valueOf(capacity),
+			"fight.leaderboard.leaders", String.valueOf(leaders)
+		));
+
+		return new Leaderboard(fightConfig, new SimpleMeterRegistry());
+	}
+}
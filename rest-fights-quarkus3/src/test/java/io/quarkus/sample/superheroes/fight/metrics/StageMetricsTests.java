@@ -0,0 +1,93 @@
+package io.quarkus.sample.superheroes.fight.metrics;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.sample.superheroes.fight.metrics.StageTimer.Outcome;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.helpers.test.UniAssertSubscriber;
+
+/**
+ * Tests for {@link StageMetrics} and {@link StageTimer}
+ */
+class StageMetricsTests {
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final StageTimer stageTimer = new StageMetrics(this.meterRegistry)
+		.stage("test", Outcome.SUCCESS, Outcome.NOT_FOUND, Outcome.FAILURE);
+
+	@Test
+	public void registersEveryOutcomeUpFront() {
+		assertThat(timer(Outcome.SUCCESS).count()).isZero();
+		assertThat(timer(Outcome.NOT_FOUND).count()).isZero();
+		assertThat(timer(Outcome.FAILURE).count()).isZero();
+		assertThat(this.meterRegistry.find(StageMetrics.METRIC_NAME).tag(StageMetrics.OUTCOME_TAG, Outcome.FALLBACK.getTagValue()).timer()).isNull();
+	}
+
+	@Test
+	public void recordsEachOutcomeOnItsOwnTimer() {
+		this.stageTimer.record(Outcome.SUCCESS, System.nanoTime());
+		this.stageTimer.record(Outcome.SUCCESS, System.nanoTime());
+		this.stageTimer.record(Outcome.NOT_FOUND, System.nanoTime());
+
+		assertThat(timer(Outcome.SUCCESS).count()).isEqualTo(2);
+		assertThat(timer(Outcome.NOT_FOUND).count()).isOne();
+		assertThat(timer(Outcome.FAILURE).count()).isZero();
+	}
+
+	@Test
+	public void timesItemsNullItemsAndFailures() {
+		time(Uni.createFrom().item("fight"));
+		time(Uni.createFrom().nullItem());
+		this.stageTimer.time(() -> Uni.createFrom().failure(new IllegalStateException("Boom")), Outcome.SUCCESS, Outcome.NOT_FOUND, Outcome.FAILURE)
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.awaitFailure(TIMEOUT);
+
+		assertThat(timer(Outcome.SUCCESS).count()).isOne();
+		assertThat(timer(Outcome.NOT_FOUND).count()).isOne();
+		assertThat(timer(Outcome.FAILURE).count()).isOne();
+	}
+
+	@Test
+	public void dropsUnregisteredOutcome() {
+		assertThatNoException()
+			.isThrownBy(() -> this.stageTimer.record(Outcome.FALLBACK, System.nanoTime()));
+
+		assertThat(timer(Outcome.SUCCESS).count()).isZero();
+		assertThat(timer(Outcome.NOT_FOUND).count()).isZero();
+		assertThat(timer(Outcome.FAILURE).count()).isZero();
+	}
+
+	@Test
+	public void publishesPercentileHistogram() {
+		this.stageTimer.record(Outcome.SUCCESS, System.nanoTime());
+
+		var buckets = timer(Outcome.SUCCESS).takeSnapshot().histogramCounts();
+
+		assertThat(buckets).hasSizeGreaterThan(1);
+		assertThat(buckets[0].bucket(TimeUnit.NANOSECONDS)).isGreaterThanOrEqualTo(StageMetrics.MINIMUM_EXPECTED_DURATION.toNanos());
+		assertThat(buckets[buckets.length - 1].bucket(TimeUnit.NANOSECONDS)).isLessThanOrEqualTo(StageMetrics.MAXIMUM_EXPECTED_DURATION.toNanos());
+		assertThat(buckets).anyMatch(bucket -> bucket.count() > 0);
+	}
+
+	private <T> void time(Uni<T> uni) {
+		this.stageTimer.time(() -> uni, Outcome.SUCCESS, Outcome.NOT_FOUND, Outcome.FAILURE)
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.awaitItem(TIMEOUT);
+	}
+
+	private Timer timer(Outcome outcome) {
+		return this.meterRegistry.get(StageMetrics.METRIC_NAME)
+			.tag(StageMetrics.STAGE_TAG, "test")
+			.tag(StageMetrics.OUTCOME_TAG, outcome.getTagValue())
+			.timer();
+	}
+}
@@ -0,0 +1,206 @@
+package io.quarkus.sample.superheroes.fight.service;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.sample.superheroes.fight.Fight;
+import io.quarkus.sample.superheroes.fight.Fighters;
+import io.quarkus.sample.superheroes.fight.client.Deadline;
+import io.quarkus.sample.superheroes.fight.client.Hero;
+import io.quarkus.sample.superheroes.fight.client.HeroClient;
+import io.quarkus.sample.superheroes.fight.client.Villain;
+import io.quarkus.sample.superheroes.fight.client.VillainClient;
+import io.quarkus.sample.superheroes.fight.config.FightConfig;
+import io.quarkus.sample.superheroes.fight.config.FightConfigs;
+import io.quarkus.sample.superheroes.fight.feed.FightFeed;
+import io.quarkus.sample.superheroes.fight.leaderboard.Leaderboard;
+import io.quarkus.sample.superheroes.fight.metrics.StageMetrics;
+import io.quarkus.sample.superheroes.fight.metrics.StageTimer.Outcome;
+import io.quarkus.sample.superheroes.fight.service.RandomSources.ThreadLocalRandomSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Tests for {@link BlockingFightService}, with the Hero and Villain services and the database replaced by stubs
+ */
+class BlockingFightServiceTests {
+	private static final Hero HERO = new Hero("Super Baguette", 42, "super_baguette.png", "eats baguette really quickly");
+	private static final Villain VILLAIN = new Villain("Super Chocolatine", 42, "super_chocolatine.png", "does not eat pain au chocolat");
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final StageMetrics stageMetrics = new StageMetrics(this.meterRegistry);
+	private final FightConfig fightConfig = FightConfigs.create(Map.of(
+		"fight.fallback-pool.enabled", "true",
+		"fight.cache.enabled", "true"
+	));
+	private final StubHeroClient heroClient = new StubHeroClient(this.stageMetrics, this.fightConfig, this.meterRegistry);
+	private final StubVillainClient villainClient = new StubVillainClient(this.stageMetrics, this.fightConfig, this.meterRegistry);
+	private final FallbackFighters fallbackFighters = new FallbackFighters(this.fightConfig, ThreadLocalRandomSource.INSTANCE, this.meterRegistry);
+	private final FightCache fightCache = new FightCache(this.fightConfig, this.meterRegistry);
+	private final FightSignal fightSignal = new FightSignal();
+	private final TestBlockingFightService blockingFightService = new TestBlockingFightService();
+
+	@Test
+	public void findsFighters() {
+		this.heroClient.hero = Uni.createFrom().item(HERO);
+		this.villainClient.villain = Uni.createFrom().item(VILLAIN);
+
+		assertThat(this.blockingFightService.findRandomFighters())
+			.usingRecursiveComparison()
+			.isEqualTo(new Fighters(HERO, VILLAIN));
+	}
+
+	@Test
+	public void usesConfiguredFightersWhenNoneFound() {
+		this.heroClient.hero = Uni.createFrom().nullItem();
+		this.villainClient.villain = Uni.createFrom().nullItem();
+
+		assertThat(this.blockingFightService.findRandomFighters())
+			.usingRecursiveComparison()
+			.isEqualTo(new Fighters(this.fallbackFighters.configuredHero(), this.fallbackFighters.configuredVillain()));
+	}
+
+	@Test
+	public void fallsBackWhenSearchFails() {
+		this.heroClient.hero = Uni.createFrom().item(HERO);
+		this.villainClient.villain = Uni.createFrom().item(VILLAIN);
+		this.blockingFightService.findRandomFighters();
+
+		// Fighters found earlier are fallen back on before the configured ones
+		this.heroClient.hero = Uni.createFrom().failure(new IllegalStateException("Heroes unavailable"));
+		this.villainClient.villain = Uni.createFrom().failure(new IllegalStateException("Villains unavailable"));
+
+		assertThat(this.blockingFightService.findRandomFighters())
+			.usingRecursiveComparison()
+			.isEqualTo(new Fighters(HERO, VILLAIN));
+	}
+
+	@Test
+	public void fallsBackWhenSearchIsCancelled() {
+		this.heroClient.hero = Uni.createFrom().failure(new CancellationException());
+		this.villainClient.villain = Uni.createFrom().item(VILLAIN);
+
+		assertThat(this.blockingFightService.findRandomFighters())
+			.usingRecursiveComparison()
+			.isEqualTo(new Fighters(this.fallbackFighters.configuredHero(), VILLAIN));
+	}
+
+	@Test
+	public void recordsFetchStages() {
+		this.heroClient.hero = Uni.createFrom().item(HERO);
+		this.villainClient.villain = Uni.createFrom().nullItem();
+		this.blockingFightService.findRandomFighters();
+
+		this.villainClient.villain = Uni.createFrom().failure(new IllegalStateException("Villains unavailable"));
+		this.blockingFightService.findRandomFighters();
+
+		assertThat(fetchCount("hero.fetch", Outcome.SUCCESS)).isEqualTo(2);
+		assertThat(fetchCount("villain.fetch", Outcome.NOT_FOUND)).isOne();
+		assertThat(fetchCount("villain.fetch", Outcome.FALLBACK)).isOne();
+	}
+
+	@Test
+	public void persistsFight() {
+		var fight = new Fight();
+		var signal = this.fightSignal.next();
+
+		var persisted = this.blockingFightService.performFight(new Fighters(HERO, VILLAIN), fighters -> fight);
+
+		assertThat(persisted).isSameAs(fight);
+		assertThat(this.blockingFightService.inserted).containsExactly(fight);
+		assertThat(this.fightCache.get(fight.id)).isSameAs(fight);
+		assertThat(signal).isCompleted();
+	}
+
+	@Test
+	public void failedWriteHasNoSideEffects() {
+		var fight = new Fight();
+		fight.id = new ObjectId();
+		var signal = this.fightSignal.next();
+		this.blockingFightService.failing = true;
+
+		assertThatIllegalStateException()
+			.isThrownBy(() -> this.blockingFightService.performFight(new Fighters(HERO, VILLAIN), fighters -> fight))
+			.withMessage("Database unavailable");
+
+		assertThat(this.fightCache.get(fight.id)).isNull();
+		assertThat(signal).isNotDone();
+	}
+
+	private long fetchCount(String stage, Outcome outcome) {
+		return this.meterRegistry.get(StageMetrics.METRIC_NAME)
+			.tag(StageMetrics.STAGE_TAG, stage)
+			.tag(StageMetrics.OUTCOME_TAG, outcome.getTagValue())
+			.timer()
+			.count();
+	}
+
+	private final class TestBlockingFightService extends BlockingFightService {
+		private final List<Fight> inserted = new CopyOnWriteArrayList<>();
+		private volatile boolean failing;
+
+		private TestBlockingFightService() {
+			this(new PersistedFights(fightCache, new FightFeed(fightConfig, meterRegistry), fightSignal, new Leaderboard(fightConfig, meterRegistry)));
+		}
+
+		private TestBlockingFightService(PersistedFights persistedFights) {
+			super(
+				heroClient,
+				villainClient,
+				fightConfig,
+				new FightWriteBehind(fightConfig, persistedFights, meterRegistry),
+				new FighterReservoirs(heroClient, villainClient, fightConfig, meterRegistry),
+				fallbackFighters,
+				fightCache,
+				persistedFights,
+				null,
+				stageMetrics
+			);
+		}
+
+		@Override
+		void insert(Fight fight) {
+			if (this.failing) {
+				throw new IllegalStateException("Database unavailable");
+			}
+
+			fight.id = new ObjectId();
+			this.inserted.add(fight);
+		}
+	}
+
+	private static final class StubHeroClient extends HeroClient {
+		private volatile Uni<Hero> hero;
+
+		private StubHeroClient(StageMetrics stageMetrics, FightConfig fightConfig, MeterRegistry meterRegistry) {
+			super(null, stageMetrics, fightConfig, meterRegistry);
+		}
+
+		@Override
+		public Uni<Hero> findRandomHero(Deadline deadline) {
+			return this.hero;
+		}
+	}
+
+	private static final class StubVillainClient extends VillainClient {
+		private volatile Uni<Villain> villain;
+
+		private StubVillainClient(StageMetrics stageMetrics, FightConfig fightConfig, MeterRegistry meterRegistry) {
+			super(null, stageMetrics, fightConfig, meterRegistry);
+		}
+
+		@Override
+		public Uni<Villain> findRandomVillain(Deadline deadline) {
+			return this.villain;
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package io.quarkus.sample.superheroes.fight.service;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Instant;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.sample.superheroes.fight.Fight;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Tests for {@link EncodedFight}
+ */
+class EncodedFightTests {
+	private static final ObjectId FIGHT_ID = new ObjectId();
+	private static final Instant FIGHT_DATE = Instant.parse("2023-03-14T10:15:30.123Z");
+
+	@Test
+	public void encodesFightAsJson() {
+		var json = new JsonObject(EncodedFight.of(createFight("Super Baguette")).json());
+
+		assertThat(json.getString("id")).isEqualTo(FIGHT_ID.toHexString());
+		assertThat(json.getString("fightDate")).isEqualTo("2023-03-14T10:15:30.123Z");
+		assertThat(json.getString("winnerName")).isEqualTo("Super Baguette");
+		assertThat(json.getInteger("winnerLevel")).isEqualTo(42);
+		assertThat(json.getString("loserTeam")).isEqualTo("villains");
+	}
+
+	@Test
+	public void etagOnlyChangesWithJson() {
+		var etag = EncodedFight.of(createFight("Super Baguette")).etag();
+
+		assertThat(etag)
+			.startsWith("\"")
+			.endsWith("\"")
+			.hasSize(34)
+			.isEqualTo(EncodedFight.of(createFight("Super Baguette")).etag())
+			.isNotEqualTo(EncodedFight.of(createFight("Super Chocolatine")).etag());
+	}
+
+	@Test
+	public void matchesIfNoneMatch() {
+		var encodedFight = EncodedFight.of(createFight("Super Baguette"));
+		var etag = encodedFight.etag();
+
+		assertThat(encodedFight.matches(null)).isFalse();
+		assertThat(encodedFight.matches("\"something else\"")).isFalse();
+		assertThat(encodedFight.matches(etag)).isTrue();
+		assertThat(encodedFight.matches("W/" + etag)).isTrue();
+		assertThat(encodedFight.matches("\"something else\", " + etag)).isTrue();
+		assertThat(encodedFight.matches("*")).isTrue();
+	}
+
+	private static Fight createFight(String winnerName) {
+		var fight = new Fight();
+		fight.id = FIGHT_ID;
+		fight.fightDate = FIGHT_DATE;
+		fight.winnerName = winnerName;
+		fight.winnerLevel = 42;
+		fight.winnerPicture = "winner.png";
+		fight.loserName = "Loser";
+		fight.loserLevel = 1;
+		fight.loserPicture = "loser.png";
+		fight.winnerTeam = "heroes";
+		fight.loserTeam = "villains";
+
+		return fight;
+	}
+}
@@ -0,0 +1,119 @@
+package io.quarkus.sample.superheroes.fight.service;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.sample.superheroes.fight.service.RandomSources.ThreadLocalRandomSource;
+
+/**
+ * Tests for {@link FallbackPool}
+ */
+class FallbackPoolTests {
+	@Test
+	public void emptyPoolPicksNothing() {
+		var pool = new FallbackPool<String>(3);
+
+		assertThat(pool.size()).isZero();
+		assertThat(pool.pick(ThreadLocalRandomSource.INSTANCE)).isNull();
+	}
+
+	@Test
+	public void picksWithoutRemoving() {
+		var pool = new FallbackPool<String>(3);
+		pool.add("hero");
+
+		for (var i = 0; i < 5; i++) {
+			assertThat(pool.pick(ThreadLocalRandomSource.INSTANCE)).isEqualTo("hero");
+		}
+
+		assertThat(pool.size()).isOne();
+	}
+
+	@Test
+	public void replacesOldestWhenFull() {
+		var pool = new FallbackPool<String>(3);
+
+		for (var i = 1; i <= 5; i++) {
+			pool.add("hero " + i);
+		}
+
+		pool.add(null);
+
+		var picked = new HashSet<String>();
+
+		for (var i = 0; i < 3; i++) {
+			var index = i;
+			picked.add(pool.pick(new RandomSource() {
+				@Override
+				public int nextInt(int bound) {
+					return index;
+				}
+
+				@Override
+				public boolean nextBoolean() {
+					return false;
+				}
+			}));
+		}
+
+		assertThat(pool.size()).isEqualTo(3);
+		assertThat(picked).containsExactlyInAnyOrder("hero 3", "hero 4", "hero 5");
+	}
+
+	@Test
+	public void neverPicksUnwrittenSlotWhileFilling() throws InterruptedException {
+		var threads = 4;
+		var executor = Executors.newFixedThreadPool(threads + 1);
+		var misses = new AtomicInteger();
+
+		try {
+			for (var round = 0; round < 200; round++) {
+				var pool = new FallbackPool<String>(1000);
+				var start = new CountDownLatch(1);
+				var done = new CountDownLatch(threads);
+
+				for (var thread = 0; thread < threads; thread++) {
+					executor.execute(() -> {
+						try {
+							start.await();
+
+							for (var i = 0; i < 250; i++) {
+								pool.add("hero");
+							}
+						}
+						catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+						finally {
+							done.countDown();
+						}
+					});
+				}
+
+				executor.execute(() -> {
+					while (done.getCount() > 0) {
+						if ((pool.size() > 0) && (pool.pick(ThreadLocalRandomSource.INSTANCE) == null)) {
+							misses.incrementAndGet();
+						}
+					}
+				});
+
+				start.countDown();
+				assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+				assertThat(pool.size()).isEqualTo(1000);
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(misses).hasValue(0);
+	}
+}
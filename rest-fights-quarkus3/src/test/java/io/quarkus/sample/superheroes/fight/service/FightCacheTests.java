@@ -0,0 +1,163 @@
+package io.quarkus.sample.superheroes.fight.service;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.sample.superheroes.fight.Fight;
+import io.quarkus.sample.superheroes.fight.config.FightConfigs;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests for {@link FightCache}
+ */
+class FightCacheTests {
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	public void hit() {
+		var fightCache = createFightCache(Map.of());
+		var fight = createFight(Instant.now());
+
+		fightCache.put(fight);
+
+		assertThat(fightCache.get(fight.id)).isSameAs(fight);
+		assertThat(gets("hit")).isOne();
+		assertThat(gets("miss")).isZero();
+	}
+
+	@Test
+	public void miss() {
+		var fightCache = createFightCache(Map.of());
+
+		assertThat(fightCache.get(new ObjectId())).isNull();
+		assertThat(gets("hit")).isZero();
+		assertThat(gets("miss")).isOne();
+	}
+
+	@Test
+	public void ignoresFightsWithoutId() {
+		var fightCache = createFightCache(Map.of());
+		var fight = createFight(Instant.now());
+		fight.id = null;
+
+		fightCache.put(fight);
+		fightCache.put(null);
+		fightCache.cleanUp();
+
+		assertThat(size()).isZero();
+	}
+
+	@Test
+	public void disabledCacheAlwaysMisses() {
+		var fightCache = new FightCache(FightConfigs.create(), this.meterRegistry);
+		var fight = createFight(Instant.now());
+
+		fightCache.put(fight);
+
+		assertThat(fightCache.get(fight.id)).isNull();
+		assertThat(this.meterRegistry.find("cache.gets").meters()).isEmpty();
+	}
+
+	@Test
+	public void evictsBeyondMaxSize() {
+		var fightCache = createFightCache(Map.of("fight.cache.max-size", "10"));
+		var fights = new ArrayList<Fight>();
+
+		for (var i = 0; i < 50; i++) {
+			var fight = createFight(Instant.now());
+			fights.add(fight);
+			fightCache.put(fight);
+		}
+
+		fightCache.cleanUp();
+
+		assertThat(fights).filteredOn(fight -> fightCache.get(fight.id) != null).hasSize(10);
+		assertThat(evictions()).isEqualTo(40);
+	}
+
+	@Test
+	public void evictsBeyondMaxWeight() {
+		var fight = createFight(Instant.now());
+		var fightCache = createFightCache(Map.of("fight.cache.max-weight", String.valueOf(FightCache.weigh(fight.id, fight) - 1)));
+
+		fightCache.put(fight);
+		fightCache.cleanUp();
+
+		assertThat(fightCache.get(fight.id)).isNull();
+		assertThat(evictions()).isOne();
+	}
+
+	@Test
+	public void expiresFightsWithDatabase() {
+		var fightCache = createFightCache(Map.of(
+			"fight.cache.encoded.enabled", "true",
+			"fight.indexes.fight-ttl", "1h"
+		));
+		var expired = createFight(Instant.now().minus(Duration.ofHours(2)));
+		var current = createFight(Instant.now());
+
+		fightCache.put(expired);
+		fightCache.put(current);
+		fightCache.encode(expired);
+		fightCache.encode(current);
+
+		assertThat(fightCache.get(expired.id)).isNull();
+		assertThat(fightCache.getEncoded(expired.id)).isNull();
+		assertThat(fightCache.get(current.id)).isSameAs(current);
+		assertThat(fightCache.getEncoded(current.id)).isNotNull();
+	}
+
+	@Test
+	public void keepsFightsWithoutTtl() {
+		var fightCache = createFightCache(Map.of());
+		var fight = createFight(Instant.now().minus(Duration.ofDays(3650)));
+
+		fightCache.put(fight);
+
+		assertThat(fightCache.get(fight.id)).isSameAs(fight);
+	}
+
+	private double gets(String result) {
+		return this.meterRegistry.get("cache.gets").tags("cache", "fights", "result", result).functionCounter().count();
+	}
+
+	private double evictions() {
+		return this.meterRegistry.get("cache.evictions").tags("cache", "fights").functionCounter().count();
+	}
+
+	private double size() {
+		return this.meterRegistry.get("cache.size").tags("cache", "fights").gauge().value();
+	}
+
+	private FightCache createFightCache(Map<String, String> properties) {
+		var config = new HashMap<>(properties);
+		config.put("fight.cache.enabled", "true");
+
+		return new FightCache(FightConfigs.create(config), this.meterRegistry);
+	}
+
+	private static Fight createFight(Instant fightDate) {
+		var fight = new Fight();
+		fight.id = new ObjectId();
+		fight.fightDate = fightDate;
+		fight.winnerName = "Super Baguette";
+		fight.winnerLevel = 42;
+		fight.winnerPicture = "super_baguette.png";
+		fight.loserName = "Super Chocolatine";
+		fight.loserLevel = 6;
+		fight.loserPicture = "super_chocolatine.png";
+		fight.winnerTeam = "heroes";
+		fight.loserTeam = "villains";
+
+		return fight;
+	}
+}
@@ -0,0 +1,229 @@
+package io.quarkus.sample.superheroes.fight.service;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import io.quarkus.mongodb.reactive.ReactiveMongoCollection;
+import io.quarkus.sample.superheroes.fight.Fight;
+import io.quarkus.sample.superheroes.fight.config.FightConfigs;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.IndexOptions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Tests for {@link FightIndexes}, with the {@code Fights} collection replaced by a mock
+ */
+class FightIndexesTests {
+	private static final String FIGHT_DATE_ID = FightIndexes.MANAGED_PREFIX + "fightDate_1__id_1";
+	private static final String WINNER_NAME = FightIndexes.MANAGED_PREFIX + "winnerName_1_fightDate_-1";
+	private static final String LOSER_NAME = FightIndexes.MANAGED_PREFIX + "loserName_1_fightDate_-1";
+	private static final String FIGHT_DATE_TTL = FightIndexes.MANAGED_PREFIX + "fightDate_1";
+
+	private final FightIndexes fightIndexes = new FightIndexes(FightConfigs.create(Map.of("fight.indexes.enabled", "true")), new SimpleMeterRegistry());
+	private final ReactiveMongoCollection<Fight> collection = mock(ReactiveMongoCollection.class);
+
+	@Test
+	public void disabledByDefault() {
+		var disabled = new FightIndexes(FightConfigs.create(), new SimpleMeterRegistry());
+
+		disabled.onStart(null);
+
+		assertThat(disabled.getStatus()).isEqualTo(FightIndexes.Status.DISABLED);
+	}
+
+	@Test
+	public void createsMissingIndexes() {
+		givenIndexes(index("_id_", new Document("_id", 1)));
+
+		reconcile();
+
+		verify(this.collection, never()).dropIndex(anyString());
+		assertThat(createdIndexes()).containsExactlyInAnyOrder(FIGHT_DATE_ID, WINNER_NAME, LOSER_NAME);
+	}
+
+	@Test
+	public void leavesMatchingIndexesAlone() {
+		givenIndexes(
+			index("_id_", new Document("_id", 1)),
+			index(FIGHT_DATE_ID, new Document("fightDate", 1).append("_id", 1)),
+			index(WINNER_NAME, new Document("winnerName", 1).append("fightDate", -1)),
+			index(LOSER_NAME, new Document("loserName", 1).append("fightDate", -1))
+		);
+
+		reconcile();
+
+		verify(this.collection, never()).dropIndex(anyString());
+		verify(this.collection, never()).createIndexes(anyList());
+	}
+
+	@Test
+	public void createsReplacementBeforeDroppingIndexWhoseKeysChanged() {
+		var outdated = FightIndexes.MANAGED_PREFIX + "fightDate_-1__id_1";
+		givenIndexes(
+			index(outdated, new Document("fightDate", -1).append("_id", 1)),
+			index(WINNER_NAME, new Document("winnerName", 1).append("fightDate", -1)),
+			index(LOSER_NAME, new Document("loserName", 1).append("fightDate", -1))
+		);
+
+		reconcile();
+
+		var inOrder = inOrder(this.collection);
+		inOrder.verify(this.collection).createIndexes(anyList());
+		inOrder.verify(this.collection).dropIndex(outdated);
+		verify(this.collection, times(1)).dropIndex(anyString());
+		assertThat(createdIndexes()).containsExactly(FIGHT_DATE_ID);
+	}
+
+	@Test
+	public void matchesIndexesByKeysRatherThanName() {
+		givenIndexes(
+			index("fightDate_1__id_1", new Document("fightDate", 1).append("_id", 1)),
+			index(FightIndexes.MANAGED_PREFIX + "winnerName_fightDate", new Document("winnerName", 1).append("fightDate", -1)),
+			index(LOSER_NAME, new Document("loserName", 1).append("fightDate", -1))
+		);
+
+		reconcile();
+
+		verify(this.collection, never()).dropIndex(anyString());
+		verify(this.collection, never()).createIndexes(anyList());
+	}
+
+	@Test
+	public void replacesIndexWhoseTtlChanged() {
+		var fightIndexes = new FightIndexes(FightConfigs.create(Map.of("fight.indexes.enabled", "true", "fight.indexes.fight-ttl", "1h")), new SimpleMeterRegistry());
+		givenIndexes(
+			index(FIGHT_DATE_ID, new Document("fightDate", 1).append("_id", 1)),
+			index(WINNER_NAME, new Document("winnerName", 1).append("fightDate", -1)),
+			index(LOSER_NAME, new Document("loserName", 1).append("fightDate", -1)),
+			index(FIGHT_DATE_TTL, new Document("fightDate", 1)).append("expireAfterSeconds", 60)
+		);
+
+		fightIndexes.reconcile(this.collection)
+			.await().atMost(Duration.ofSeconds(5));
+
+		var inOrder = inOrder(this.collection);
+		inOrder.verify(this.collection).dropIndex(FIGHT_DATE_TTL);
+		inOrder.verify(this.collection).createIndexes(anyList());
+		assertThat(createdIndexes()).containsExactly(FIGHT_DATE_TTL);
+	}
+
+	@Test
+	public void skipsIndexThatConflicts() {
+		givenIndexes(index("_id_", new Document("_id", 1)));
+		when(this.collection.createIndexes(anyList())).thenReturn(Uni.createFrom().failure(conflict()));
+		when(this.collection.createIndex(any(Bson.class), any(IndexOptions.class))).thenAnswer(invocation -> {
+			var name = invocation.<IndexOptions>getArgument(1).getName();
+
+			return WINNER_NAME.equals(name) ?
+			       Uni.createFrom().failure(conflict()) :
+			       Uni.createFrom().item(name);
+		});
+
+		var created = this.fightIndexes.reconcile(this.collection)
+			.await().atMost(Duration.ofSeconds(5));
+
+		assertThat(created).containsExactlyInAnyOrder(FIGHT_DATE_ID, LOSER_NAME);
+	}
+
+	@Test
+	public void ignoresIndexAlreadyDropped() {
+		var undeclared = FightIndexes.MANAGED_PREFIX + "winnerLevel_1";
+		givenIndexes(
+			index(undeclared, new Document("winnerLevel", 1)),
+			index(FIGHT_DATE_ID, new Document("fightDate", 1).append("_id", 1)),
+			index(WINNER_NAME, new Document("winnerName", 1).append("fightDate", -1)),
+			index(LOSER_NAME, new Document("loserName", 1).append("fightDate", -1))
+		);
+		when(this.collection.dropIndex(undeclared)).thenReturn(Uni.createFrom().failure(commandFailure(27, "index not found with name [" + undeclared + "]")));
+
+		assertThatNoException().isThrownBy(this::reconcile);
+	}
+
+	@Test
+	public void dropsManagedIndexThatIsNoLongerDeclared() {
+		var undeclared = FightIndexes.MANAGED_PREFIX + "winnerLevel_1";
+		givenIndexes(
+			index(undeclared, new Document("winnerLevel", 1)),
+			index(FIGHT_DATE_ID, new Document("fightDate", 1).append("_id", 1)),
+			index(WINNER_NAME, new Document("winnerName", 1).append("fightDate", -1)),
+			index(LOSER_NAME, new Document("loserName", 1).append("fightDate", -1))
+		);
+
+		reconcile();
+
+		verify(this.collection).dropIndex(undeclared);
+		verify(this.collection, never()).createIndexes(anyList());
+	}
+
+	@Test
+	public void leavesUnmanagedIndexesAlone() {
+		givenIndexes(
+			index("_id_", new Document("_id", 1)),
+			index("winnerLevel_1", new Document("winnerLevel", 1))
+		);
+
+		reconcile();
+
+		verify(this.collection, never()).dropIndex(anyString());
+		assertThat(createdIndexes()).doesNotContain("winnerLevel_1");
+	}
+
+	private void givenIndexes(Document... indexes) {
+		when(this.collection.listIndexes()).thenReturn(Multi.createFrom().items(indexes));
+		when(this.collection.dropIndex(anyString())).thenReturn(Uni.createFrom().voidItem());
+		when(this.collection.createIndexes(anyList())).thenAnswer(invocation -> Uni.createFrom().item(
+			invocation.<List<IndexModel>>getArgument(0).stream()
+				.map(model -> model.getOptions().getName())
+				.collect(Collectors.toList())
+		));
+	}
+
+	private void reconcile() {
+		this.fightIndexes.reconcile(this.collection)
+			.await().atMost(Duration.ofSeconds(5));
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<String> createdIndexes() {
+		ArgumentCaptor<List<IndexModel>> created = ArgumentCaptor.forClass(List.class);
+		verify(this.collection).createIndexes(created.capture());
+
+		return created.getValue().stream()
+			.map(model -> model.getOptions().getName())
+			.collect(Collectors.toList());
+	}
+
+	private static MongoCommandException conflict() {
+		return commandFailure(85, "Index already exists with a different name");
+	}
+
+	private static MongoCommandException commandFailure(int code, String message) {
+		var response = new BsonDocument("ok", new BsonInt32(0))
+			.append("code", new BsonInt32(code))
+			.append("errmsg", new BsonString(message));
+
+		return new MongoCommandException(response, new ServerAddress());
+	}
+
+	private static Document index(String name, Document keys) {
+		return new Document("v", 2).append("key", keys).append("name", name);
+	}
+}
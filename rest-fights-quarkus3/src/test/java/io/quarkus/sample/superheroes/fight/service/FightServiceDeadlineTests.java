@@ -0,0 +1,224 @@
+package io.quarkus.sample.superheroes.fight.service;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import jakarta.validation.Validation;
+
+import org.bson.types.ObjectId;
+import org.hibernate.validator.messageinterpolation.ParameterMessageInterpolator;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.sample.superheroes.fight.Fight;
+import io.quarkus.sample.superheroes.fight.Fighters;
+import io.quarkus.sample.superheroes.fight.client.Deadline;
+import io.quarkus.sample.superheroes.fight.client.DeadlineExceededException;
+import io.quarkus.sample.superheroes.fight.client.Hero;
+import io.quarkus.sample.superheroes.fight.client.HeroClient;
+import io.quarkus.sample.superheroes.fight.client.Villain;
+import io.quarkus.sample.superheroes.fight.client.VillainClient;
+import io.quarkus.sample.superheroes.fight.config.FightConfig;
+import io.quarkus.sample.superheroes.fight.config.FightConfigs;
+import io.quarkus.sample.superheroes.fight.feed.FightFeed;
+import io.quarkus.sample.superheroes.fight.leaderboard.Leaderboard;
+import io.quarkus.sample.superheroes.fight.metrics.StageMetrics;
+import io.quarkus.sample.superheroes.fight.service.RandomSources.ThreadLocalRandomSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.helpers.test.UniAssertSubscriber;
+
+/**
+ * Tests for the {@code fight.deadlines.*} paths of {@link FightService}. The service is built by hand, so that each test can have its own deadlines, and its {@link org.eclipse.microprofile.faulttolerance.Fallback}s don't apply.
+ */
+class FightServiceDeadlineTests {
+	private static final Hero HERO = new Hero("Super Baguette", 42, "super_baguette.png", "eats baguette really quickly");
+	private static final Villain VILLAIN = new Villain("Super Chocolatine", 42, "super_chocolatine.png", "does not eat pain au chocolat");
+	private static final Duration DEADLINE = Duration.ofMillis(100);
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final FightSignal fightSignal = new FightSignal();
+
+	@Test
+	public void performsFightWithinDeadline() {
+		var fightService = createFightService(Uni.createFrom().item(HERO), Uni.createFrom().item(VILLAIN));
+		var signal = this.fightSignal.next();
+
+		var fight = performFight(fightService)
+			.awaitItem(Duration.ofSeconds(5))
+			.getItem();
+
+		assertThat(fightService.inserted).containsExactly(fight);
+		assertThat(signal).isCompleted();
+	}
+
+	@Test
+	public void doesNotPersistFightDecidedPastDeadline() {
+		var fightService = createFightService(Uni.createFrom().item(HERO), Uni.createFrom().item(VILLAIN));
+		fightService.decisionTime = DEADLINE.multipliedBy(2);
+		var signal = this.fightSignal.next();
+
+		performFight(fightService)
+			.awaitFailure(Duration.ofSeconds(5))
+			.assertFailedWith(DeadlineExceededException.class);
+
+		assertThat(fightService.inserted).isEmpty();
+		assertThat(signal).isNotDone();
+	}
+
+	@Test
+	public void letsStartedPersistFinish() {
+		var fightService = createFightService(Uni.createFrom().item(HERO), Uni.createFrom().item(VILLAIN));
+		fightService.insertTime = DEADLINE.multipliedBy(2);
+		var signal = this.fightSignal.next();
+
+		var fight = performFight(fightService)
+			.awaitItem(Duration.ofSeconds(5))
+			.getItem();
+
+		assertThat(fightService.inserted).containsExactly(fight);
+		assertThat(signal).isCompleted();
+	}
+
+	@Test
+	public void findsFightersWithinDeadline() {
+		var fightService = createFightService(Uni.createFrom().item(HERO), Uni.createFrom().item(VILLAIN));
+
+		var fighters = findRandomFighters(fightService)
+			.awaitItem(Duration.ofSeconds(5))
+			.getItem();
+
+		assertThat(fighters)
+			.usingRecursiveComparison()
+			.isEqualTo(new Fighters(HERO, VILLAIN));
+	}
+
+	@Test
+	public void stopsWaitingForFighterAtDeadline() {
+		// Without Quarkus the @Fallback doesn't replace the hero, so the search fails instead
+		var fightService = createFightService(Uni.createFrom().nothing(), Uni.createFrom().item(VILLAIN));
+
+		findRandomFighters(fightService)
+			.awaitFailure(Duration.ofSeconds(5))
+			.assertFailedWith(DeadlineExceededException.class);
+	}
+
+	private static UniAssertSubscriber<Fight> performFight(FightService fightService) {
+		return fightService.performFight(new Fighters(HERO, VILLAIN))
+			.subscribe().withSubscriber(UniAssertSubscriber.create());
+	}
+
+	private static UniAssertSubscriber<Fighters> findRandomFighters(FightService fightService) {
+		return fightService.findRandomFighters()
+			.subscribe().withSubscriber(UniAssertSubscriber.create());
+	}
+
+	private TestFightService createFightService(Uni<Hero> hero, Uni<Villain> villain) {
+		var fightConfig = FightConfigs.create(Map.of(
+			"fight.deadlines.random-fighters", DEADLINE.toMillis() + "ms",
+			"fight.deadlines.fight", DEADLINE.toMillis() + "ms"
+		));
+		var stageMetrics = new StageMetrics(this.meterRegistry);
+		var heroClient = new StubHeroClient(hero, stageMetrics, fightConfig, this.meterRegistry);
+		var villainClient = new StubVillainClient(villain, stageMetrics, fightConfig, this.meterRegistry);
+		var fighterReservoirs = new FighterReservoirs(heroClient, villainClient, fightConfig, this.meterRegistry);
+		var fallbackFighters = new FallbackFighters(fightConfig, ThreadLocalRandomSource.INSTANCE, this.meterRegistry);
+		var fightCache = new FightCache(fightConfig, this.meterRegistry);
+		var persistedFights = new PersistedFights(fightCache, new FightFeed(fightConfig, this.meterRegistry), this.fightSignal, new Leaderboard(fightConfig, this.meterRegistry));
+		var fightWriteBehind = new FightWriteBehind(fightConfig, persistedFights, this.meterRegistry);
+
+		return new TestFightService(
+			heroClient,
+			villainClient,
+			fightConfig,
+			fightWriteBehind,
+			fighterReservoirs,
+			fallbackFighters,
+			fightCache,
+			persistedFights,
+			new BlockingFightService(heroClient, villainClient, fightConfig, fightWriteBehind, fighterReservoirs, fallbackFighters, fightCache, persistedFights, null, stageMetrics),
+			new VirtualThreadExecutor(fightConfig),
+			stageMetrics
+		);
+	}
+
+	private final class TestFightService extends FightService {
+		private final List<Fight> inserted = new CopyOnWriteArrayList<>();
+		private volatile Duration decisionTime = Duration.ZERO;
+		private volatile Duration insertTime = Duration.ZERO;
+
+		private TestFightService(HeroClient heroClient, VillainClient villainClient, FightConfig fightConfig, FightWriteBehind fightWriteBehind, FighterReservoirs fighterReservoirs, FallbackFighters fallbackFighters, FightCache fightCache, PersistedFights persistedFights, BlockingFightService blockingFightService, VirtualThreadExecutor virtualThreadExecutor, StageMetrics stageMetrics) {
+			super(
+				heroClient,
+				villainClient,
+				fightConfig,
+				fightWriteBehind,
+				fighterReservoirs,
+				fallbackFighters,
+				fightCache,
+				fightSignal,
+				persistedFights,
+				blockingFightService,
+				virtualThreadExecutor,
+				ThreadLocalRandomSource.INSTANCE,
+				Validation.byDefaultProvider()
+					.configure()
+					.messageInterpolator(new ParameterMessageInterpolator())
+					.buildValidatorFactory()
+					.getValidator(),
+				stageMetrics
+			);
+		}
+
+		@Override
+		Uni<Fight> determineWinner(Fighters fighters) {
+			return delayed(super.determineWinner(fighters), this.decisionTime);
+		}
+
+		@Override
+		Uni<Fight> insert(Fight fight) {
+			return delayed(Uni.createFrom().item(fight), this.insertTime)
+				.invoke(() -> {
+					fight.id = new ObjectId();
+					this.inserted.add(fight);
+				});
+		}
+
+		private <T> Uni<T> delayed(Uni<T> uni, Duration delay) {
+			return delay.isZero() ? uni : uni.onItem().delayIt().by(delay);
+		}
+	}
+
+	private static final class StubHeroClient extends HeroClient {
+		private final Uni<Hero> hero;
+
+		private StubHeroClient(Uni<Hero> hero, StageMetrics stageMetrics, FightConfig fightConfig, MeterRegistry meterRegistry) {
+			super(null, stageMetrics, fightConfig, meterRegistry);
+			this.hero = hero;
+		}
+
+		@Override
+		public Uni<Hero> findRandomHero(Deadline deadline) {
+			return this.hero;
+		}
+	}
+
+	private static final class StubVillainClient extends VillainClient {
+		private final Uni<Villain> villain;
+
+		private StubVillainClient(Uni<Villain> villain, StageMetrics stageMetrics, FightConfig fightConfig, MeterRegistry meterRegistry) {
+			super(null, stageMetrics, fightConfig, meterRegistry);
+			this.villain = villain;
+		}
+
+		@Override
+		public Uni<Villain> findRandomVillain(Deadline deadline) {
+			return this.villain;
+		}
+	}
+}
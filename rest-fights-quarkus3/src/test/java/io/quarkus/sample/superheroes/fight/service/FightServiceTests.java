@@ -5,20 +5,33 @@ import static org.mockito.Mockito.*;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.Date;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import jakarta.inject.Inject;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.ws.rs.InternalServerErrorException;
 
+import org.bson.BsonDocument;
+import org.bson.Document;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatcher;
 
+import io.quarkus.mongodb.panache.reactive.ReactivePanacheQuery;
 import io.quarkus.panache.mock.PanacheMock;
 import io.quarkus.sample.superheroes.fight.Fight;
+import io.quarkus.sample.superheroes.fight.FightDelta;
+import io.quarkus.sample.superheroes.fight.FightPage;
+import io.quarkus.sample.superheroes.fight.FightResult;
 import io.quarkus.sample.superheroes.fight.Fighters;
 import io.quarkus.sample.superheroes.fight.client.Hero;
 import io.quarkus.sample.superheroes.fight.client.HeroClient;
@@ -29,7 +42,12 @@ import io.quarkus.test.junit.QuarkusTest;
 import io.quarkus.test.junit.mockito.InjectMock;
 import io.quarkus.test.junit.mockito.InjectSpy;
 
+import com.mongodb.MongoWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.WriteError;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.helpers.test.AssertSubscriber;
 import io.smallrye.mutiny.helpers.test.UniAssertSubscriber;
 
 /**
@@ -131,6 +149,161 @@ class FightServiceTests {
 		PanacheMock.verifyNoMoreInteractions(Fight.class);
 	}
 
+	@Test
+	public void streamAllFights() {
+		PanacheMock.mock(Fight.class);
+		when(Fight.streamAll())
+			.thenReturn(Multi.createFrom().items(createFightHeroWon(), createFightVillainWon()));
+
+		var allFights = this.fightService.streamAllFights()
+			.subscribe().withSubscriber(AssertSubscriber.create(Long.MAX_VALUE))
+			.awaitCompletion(Duration.ofSeconds(5))
+			.getItems();
+
+		assertThat(allFights)
+			.isNotNull()
+			.hasSize(2)
+			.extracting("winnerName")
+			.containsExactly(DEFAULT_HERO_NAME, DEFAULT_VILLAIN_NAME);
+
+		PanacheMock.verify(Fight.class).streamAll();
+		PanacheMock.verifyNoMoreInteractions(Fight.class);
+	}
+
+	@Test
+	public void findFightsPageFirstPage() {
+		ReactivePanacheQuery<Fight> query = mock(ReactivePanacheQuery.class);
+		when(query.page(0, 1)).thenReturn((ReactivePanacheQuery) query);
+		when(query.list()).thenReturn(Uni.createFrom().item(List.of(createFightHeroWon())));
+
+		PanacheMock.mock(Fight.class);
+		when(Fight.find(eq(new Document()), any(Document.class)))
+			.thenReturn((ReactivePanacheQuery) query);
+
+		var page = this.fightService.findFightsPage(null, 1)
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.assertSubscribed()
+			.awaitItem(Duration.ofSeconds(5))
+			.getItem();
+
+		assertThat(page)
+			.isNotNull();
+
+		assertThat(page.getFights())
+			.hasSize(1)
+			.extracting("id")
+			.containsExactly(DEFAULT_FIGHT_ID);
+
+		assertThat(FightCursor.decode(page.getNextCursor()))
+			.extracting(FightCursor::getId, FightCursor::getFightDate)
+			.containsExactly(DEFAULT_FIGHT_ID, DEFAULT_FIGHT_DATE.truncatedTo(ChronoUnit.MILLIS));
+
+		PanacheMock.verify(Fight.class).find(eq(new Document()), any(Document.class));
+		PanacheMock.verifyNoMoreInteractions(Fight.class);
+	}
+
+	@Test
+	public void findFightsPageLastPage() {
+		var cursor = FightCursor.after(createFightHeroWon());
+		ReactivePanacheQuery<Fight> query = mock(ReactivePanacheQuery.class);
+		when(query.page(0, 10)).thenReturn((ReactivePanacheQuery) query);
+		when(query.list()).thenReturn(Uni.createFrom().item(List.of(createFightVillainWon())));
+
+		PanacheMock.mock(Fight.class);
+		when(Fight.find(eq(cursor.toQuery()), any(Document.class)))
+			.thenReturn((ReactivePanacheQuery) query);
+
+		var page = this.fightService.findFightsPage(cursor.encode(), 10)
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.assertSubscribed()
+			.awaitItem(Duration.ofSeconds(5))
+			.getItem();
+
+		assertThat(page)
+			.isNotNull()
+			.extracting(FightPage::getNextCursor)
+			.isNull();
+
+		assertThat(page.getFights())
+			.hasSize(1);
+
+		PanacheMock.verify(Fight.class).find(eq(cursor.toQuery()), any(Document.class));
+		PanacheMock.verifyNoMoreInteractions(Fight.class);
+	}
+
+	@Test
+	public void findFightsPageInvalidCursor() {
+		PanacheMock.mock(Fight.class);
+
+		// Fails the returned Uni rather than throwing
+		this.fightService.findFightsPage("not-a-cursor", 10)
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.assertSubscribed()
+			.awaitFailure(Duration.ofSeconds(5))
+			.assertFailedWith(IllegalArgumentException.class, "Invalid fight cursor: not-a-cursor");
+
+		PanacheMock.verifyNoInteractions(Fight.class);
+	}
+
+	@Test
+	public void findFightsSinceInvalidCursor() {
+		PanacheMock.mock(Fight.class);
+
+		// Fails the returned Uni rather than throwing
+		this.fightService.findFightsSince("not-a-cursor", 10, Duration.ZERO)
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.assertSubscribed()
+			.awaitFailure(Duration.ofSeconds(5))
+			.assertFailedWith(IllegalArgumentException.class, "Invalid fight cursor: not-a-cursor");
+
+		PanacheMock.verifyNoInteractions(Fight.class);
+	}
+
+	@Test
+	public void findFightsSinceDoesNotSkipFightsCommittedOutOfOrder() throws InterruptedException {
+		// The first fight is dated before the second one, but only committed after it, as happens with write-behind or several instances
+		var committed = new CopyOnWriteArrayList<Fight>();
+		var now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+		var first = createFight(now.minusMillis(600));
+		var second = createFight(now.minusMillis(500));
+		committed.add(second);
+		mockFindFights(committed);
+
+		var delta = findFightsSince(null);
+
+		assertThat(delta.getFights()).isEmpty();
+		assertThat(delta.getCursor()).isNull();
+
+		committed.add(first);
+		Thread.sleep(this.fightConfig.delta().settleTime().toMillis());
+		delta = findFightsSince(delta.getCursor());
+
+		assertThat(delta.getFights())
+			.extracting("id")
+			.containsExactly(first.id, second.id);
+
+		assertThat(findFightsSince(delta.getCursor()).getFights())
+			.isEmpty();
+	}
+
+	@Test
+	public void findFightsSinceTimesOutWithoutSettling() {
+		mockFindFights(List.of());
+		var wait = Duration.ofMillis(100);
+		var start = System.nanoTime();
+
+		var delta = this.fightService.findFightsSince(null, 10, wait)
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.assertSubscribed()
+			.awaitItem(Duration.ofSeconds(5))
+			.getItem();
+
+		assertThat(delta.getFights()).isEmpty();
+		assertThat(Duration.ofNanos(System.nanoTime() - start))
+			.isGreaterThanOrEqualTo(wait)
+			.isLessThan(this.fightConfig.delta().settleTime());
+	}
+
 	@Test
 	public void findFightByIdFound() {
 		PanacheMock.mock(Fight.class);
@@ -591,6 +764,167 @@ class FightServiceTests {
 		PanacheMock.verifyNoMoreInteractions(Fight.class);
 	}
 
+	@Test
+	public void performFightsReportsInvalidFightersInOrder() {
+		PanacheMock.mock(Fight.class);
+		PanacheMock.doReturn(Uni.createFrom().voidItem())
+			.when(Fight.class)
+			.persist(any(Iterable.class));
+
+		doReturn(true)
+			.when(this.fightService)
+			.shouldHeroWin(any(Fighters.class));
+
+		var results = this.fightService.performFights(List.of(createDefaultFighters(), new Fighters(null, createDefaultVillain()), createDefaultFighters()))
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.assertSubscribed()
+			.awaitItem(Duration.ofSeconds(5))
+			.getItem();
+
+		assertThat(results)
+			.isNotNull()
+			.extracting(FightResult::isSuccessful, FightResult::getError)
+			.containsExactly(
+				tuple(true, null),
+				tuple(false, "hero: must not be null"),
+				tuple(true, null)
+			);
+
+		assertThat(results.get(0).getFight())
+			.isNotNull()
+			.extracting(fight -> fight.winnerName, fight -> fight.loserName)
+			.containsExactly(DEFAULT_HERO_NAME, DEFAULT_VILLAIN_NAME);
+
+		verify(this.fightService, times(2)).heroWonFight(argThat(fightersMatcher(createDefaultFighters())));
+		verify(this.fightService, never()).persistFight(any(Fight.class));
+		PanacheMock.verify(Fight.class).persist(any(Iterable.class));
+		PanacheMock.verifyNoMoreInteractions(Fight.class);
+	}
+
+	@Test
+	public void performFightsBulkWriteFailure() {
+		var otherHeroName = "Other hero";
+		var otherFighters = new Fighters(new Hero(otherHeroName, DEFAULT_HERO_LEVEL, DEFAULT_HERO_PICTURE, DEFAULT_HERO_POWERS), createDefaultVillain());
+
+		PanacheMock.mock(Fight.class);
+		PanacheMock.doReturn(Uni.createFrom().failure(new RuntimeException("Bulk write failed")))
+			.when(Fight.class)
+			.persist(any(Iterable.class));
+
+		PanacheMock.doReturn(Uni.createFrom().voidItem())
+			.when(Fight.class)
+			.persist(argThat((Fight fight) -> DEFAULT_HERO_NAME.equals(fight.winnerName)), any());
+
+		PanacheMock.doReturn(Uni.createFrom().failure(new RuntimeException("Write failed")))
+			.when(Fight.class)
+			.persist(argThat((Fight fight) -> otherHeroName.equals(fight.winnerName)), any());
+
+		doReturn(true)
+			.when(this.fightService)
+			.shouldHeroWin(any(Fighters.class));
+
+		var results = this.fightService.performFights(List.of(createDefaultFighters(), otherFighters))
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.assertSubscribed()
+			.awaitItem(Duration.ofSeconds(5))
+			.getItem();
+
+		assertThat(results)
+			.isNotNull()
+			.extracting(FightResult::isSuccessful, FightResult::getError)
+			.containsExactly(
+				tuple(true, null),
+				tuple(false, "Write failed")
+			);
+
+		PanacheMock.verify(Fight.class).persist(any(Iterable.class));
+		PanacheMock.verify(Fight.class, times(2)).persist(any(Fight.class), any());
+		PanacheMock.verifyNoMoreInteractions(Fight.class);
+	}
+
+	@Test
+	public void performFightsDuplicateIdCountsAsWritten() {
+		var otherHeroName = "Other hero";
+		var otherFighters = new Fighters(new Hero(otherHeroName, DEFAULT_HERO_LEVEL, DEFAULT_HERO_PICTURE, DEFAULT_HERO_POWERS), createDefaultVillain());
+
+		PanacheMock.mock(Fight.class);
+		PanacheMock.doReturn(Uni.createFrom().failure(new RuntimeException("Bulk write failed")))
+			.when(Fight.class)
+			.persist(any(Iterable.class));
+
+		// Already written by the failed bulk write
+		PanacheMock.doReturn(Uni.createFrom().failure(duplicateKey("_id_")))
+			.when(Fight.class)
+			.persist(argThat((Fight fight) -> DEFAULT_HERO_NAME.equals(fight.winnerName)), any());
+
+		// Clashes with another fight on a different unique index
+		PanacheMock.doReturn(Uni.createFrom().failure(duplicateKey("winnerName_1")))
+			.when(Fight.class)
+			.persist(argThat((Fight fight) -> otherHeroName.equals(fight.winnerName)), any());
+
+		doReturn(true)
+			.when(this.fightService)
+			.shouldHeroWin(any(Fighters.class));
+
+		var results = this.fightService.performFights(List.of(createDefaultFighters(), otherFighters))
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.assertSubscribed()
+			.awaitItem(Duration.ofSeconds(5))
+			.getItem();
+
+		assertThat(results)
+			.isNotNull()
+			.extracting(FightResult::isSuccessful)
+			.containsExactly(true, false);
+	}
+
+	@Test
+	public void performFightsIsLazy() {
+		PanacheMock.mock(Fight.class);
+		PanacheMock.doReturn(Uni.createFrom().voidItem())
+			.when(Fight.class)
+			.persist(any(Iterable.class));
+
+		var results = this.fightService.performFights(List.of(createDefaultFighters()));
+
+		verify(this.fightService, never()).decideWinner(any(Fighters.class));
+		PanacheMock.verifyNoInteractions(Fight.class);
+
+		results
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.awaitItem(Duration.ofSeconds(5));
+
+		verify(this.fightService).decideWinner(any(Fighters.class));
+		PanacheMock.verify(Fight.class).persist(any(Iterable.class));
+	}
+
+	@Test
+	public void performFightsStream() {
+		PanacheMock.mock(Fight.class);
+		PanacheMock.doReturn(Uni.createFrom().voidItem())
+			.when(Fight.class)
+			.persist(any(Iterable.class));
+
+		doReturn(true)
+			.when(this.fightService)
+			.shouldHeroWin(any(Fighters.class));
+
+		var results = this.fightService.performFights(Multi.createFrom().items(createDefaultFighters(), new Fighters(createDefaultHero(), null)))
+			.subscribe().withSubscriber(AssertSubscriber.create(Long.MAX_VALUE))
+			.awaitCompletion(Duration.ofSeconds(5))
+			.getItems();
+
+		assertThat(results)
+			.extracting(FightResult::isSuccessful, FightResult::getError)
+			.containsExactly(
+				tuple(true, null),
+				tuple(false, "villain: must not be null")
+			);
+
+		PanacheMock.verify(Fight.class).persist(any(Iterable.class));
+		PanacheMock.verifyNoMoreInteractions(Fight.class);
+	}
+
 	@Test
 	public void didHeroWinTrue() {
 		var fighters = createDefaultFighters();
@@ -840,6 +1174,14 @@ class FightServiceTests {
 		return fight;
 	}
 
+	private static Fight createFight(Instant fightDate) {
+		var fight = createFightHeroWon();
+		fight.id = new ObjectId();
+		fight.fightDate = fightDate;
+
+		return fight;
+	}
+
 	private static Fight createFightVillainWon() {
 		var fight = new Fight();
 		fight.id = DEFAULT_FIGHT_ID;
@@ -856,6 +1198,85 @@ class FightServiceTests {
 		return fight;
 	}
 
+	private FightDelta findFightsSince(String cursor) {
+		return this.fightService.findFightsSince(cursor, 10, Duration.ZERO)
+			.subscribe().withSubscriber(UniAssertSubscriber.create())
+			.assertSubscribed()
+			.awaitItem(Duration.ofSeconds(5))
+			.getItem();
+	}
+
+	/**
+	 * Answers {@link Fight#find(Document, Document)} from the {@code committed} fights, as Mongo would
+	 */
+	private static void mockFindFights(List<Fight> committed) {
+		var lastQuery = new AtomicReference<Document>();
+		ReactivePanacheQuery<Fight> query = mock(ReactivePanacheQuery.class);
+		when(query.page(anyInt(), anyInt())).thenReturn((ReactivePanacheQuery) query);
+		when(query.list()).thenAnswer(invocation -> Uni.createFrom().item(
+			committed.stream()
+				.filter(matches(lastQuery.get()))
+				.sorted(Comparator.<Fight, Instant>comparing(fight -> fight.fightDate).thenComparing(fight -> fight.id))
+				.collect(Collectors.toList())
+		));
+
+		PanacheMock.mock(Fight.class);
+		when(Fight.find(any(Document.class), any(Document.class)))
+			.thenAnswer(invocation -> {
+				lastQuery.set(invocation.getArgument(0));
+				return query;
+			});
+	}
+
+	private static Predicate<Fight> matches(Document query) {
+		return fight -> query.entrySet().stream()
+			.allMatch(condition -> matches(fight, condition.getKey(), condition.getValue()));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static boolean matches(Fight fight, String field, Object condition) {
+		switch (field) {
+			case "$and":
+				return ((List<Document>) condition).stream().allMatch(query -> matches(query).test(fight));
+			case "$or":
+				return ((List<Document>) condition).stream().anyMatch(query -> matches(query).test(fight));
+			case "fightDate":
+				return compare(Date.from(fight.fightDate), condition);
+			case "_id":
+				return compare(fight.id, condition);
+			default:
+				throw new IllegalArgumentException("Unsupported query field: " + field);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T extends Comparable<T>> boolean compare(T value, Object condition) {
+		if (!(condition instanceof Document)) {
+			return value.equals(condition);
+		}
+
+		return ((Document) condition).entrySet().stream()
+			.allMatch(operator -> {
+				var comparison = value.compareTo((T) operator.getValue());
+
+				switch (operator.getKey()) {
+					case "$gt":
+						return comparison > 0;
+					case "$lte":
+						return comparison <= 0;
+					default:
+						throw new IllegalArgumentException("Unsupported query operator: " + operator.getKey());
+				}
+			});
+	}
+
+	private static MongoWriteException duplicateKey(String index) {
+		return new MongoWriteException(
+			new WriteError(11000, String.format("E11000 duplicate key error collection: fights.Fights index: %s dup key: { }", index), new BsonDocument()),
+			new ServerAddress()
+		);
+	}
+
 	private static ArgumentMatcher<Hero> heroMatcher(Hero hero) {
 		return h -> (hero == h) || (
 			(hero != null) &&
@@ -0,0 +1,49 @@
+package io.quarkus.sample.superheroes.fight.service;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link FightSignal}
+ */
+class FightSignalTests {
+	private final FightSignal fightSignal = new FightSignal();
+
+	@Test
+	public void awaitEndsWhenFightsArePersisted() {
+		var waiter = FightSignal.await(this.fightSignal.next(), Duration.ofMinutes(1))
+			.subscribeAsCompletionStage();
+
+		assertThat(waiter).isNotDone();
+
+		this.fightSignal.fightsPersisted();
+
+		assertThat(waiter).isCompleted();
+	}
+
+	@Test
+	public void awaitEndsAfterTimeout() {
+		var signal = this.fightSignal.next();
+
+		FightSignal.await(signal, Duration.ofMillis(10))
+			.await().atMost(Duration.ofSeconds(5));
+
+		// Timing out doesn't cancel the signal for anyone else waiting on it
+		assertThat(signal).isNotDone();
+		this.fightSignal.fightsPersisted();
+		assertThat(signal).isCompleted();
+	}
+
+	@Test
+	public void signalsAreOnlyCompletedOnce() {
+		var first = this.fightSignal.next();
+		this.fightSignal.fightsPersisted();
+		var second = this.fightSignal.next();
+
+		assertThat(first).isCompleted();
+		assertThat(second).isNotSameAs(first).isNotDone();
+	}
+}
@@ -0,0 +1,303 @@
+package io.quarkus.sample.superheroes.fight.service;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.sample.superheroes.fight.Fight;
+import io.quarkus.sample.superheroes.fight.config.FightConfig;
+import io.quarkus.sample.superheroes.fight.config.FightConfigs;
+import io.quarkus.sample.superheroes.fight.feed.FightFeed;
+import io.quarkus.sample.superheroes.fight.leaderboard.Leaderboard;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Tests for {@link FightWriteBehind}, with the database replaced by a list of written fights
+ */
+class FightWriteBehindTests {
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final FightSignal fightSignal = new FightSignal();
+	private FightCache fightCache;
+	private RecordingPersistedFights persistedFights;
+	private TestWriteBehind writeBehind;
+
+	@AfterEach
+	public void stop() {
+		if (this.writeBehind != null) {
+			this.writeBehind.onStop(null);
+		}
+	}
+
+	@Test
+	public void flushesFullBatch() {
+		this.writeBehind = createWriteBehind("1h", 3, 10);
+		var fights = createFights(3);
+
+		fights.forEach(this::write);
+
+		assertThat(this.writeBehind.batches).containsExactly(fights);
+		assertThat(this.meterRegistry.summary("fights.persistence.flush.size").totalAmount()).isEqualTo(3);
+	}
+
+	@Test
+	public void flushesOnInterval() throws InterruptedException {
+		this.writeBehind = createWriteBehind("10ms", 100, 10);
+		this.writeBehind.onStart(null);
+		var fight = createFights(1).get(0);
+
+		write(fight);
+
+		awaitUntil(() -> this.writeBehind.batches.contains(List.of(fight)));
+	}
+
+	@Test
+	public void writesDirectlyWhenBufferIsFull() {
+		this.writeBehind = createWriteBehind("1h", 100, 2);
+		var fights = createFights(3);
+
+		fights.forEach(this::write);
+
+		assertThat(this.writeBehind.batches).isEmpty();
+		assertThat(this.writeBehind.singles).containsExactly(fights.get(2));
+		assertThat(this.meterRegistry.counter("fights.persistence.buffer.overflows").count()).isOne();
+	}
+
+	@Test
+	public void keepsFailedBatchAndTriesAgain() throws InterruptedException {
+		this.writeBehind = createWriteBehind("10ms", 100, 10);
+		var fights = createFights(2);
+		fights.forEach(this::write);
+		this.writeBehind.failing = true;
+
+		this.writeBehind.flush().await().atMost(TIMEOUT);
+
+		assertThat(this.writeBehind.batches).isEmpty();
+		assertThat(this.meterRegistry.counter("fights.persistence.retried").count()).isEqualTo(2);
+		assertThat(this.meterRegistry.counter("fights.persistence.lost").count()).isZero();
+
+		// Too soon after the failure to try again
+		this.writeBehind.failing = false;
+		this.writeBehind.flush().await().atMost(TIMEOUT);
+		assertThat(this.writeBehind.batches).isEmpty();
+
+		awaitUntil(() -> {
+			this.writeBehind.flush().await().atMost(TIMEOUT);
+			return !this.writeBehind.batches.isEmpty();
+		});
+
+		assertThat(this.writeBehind.batches).containsExactly(fights);
+	}
+
+	@Test
+	public void signalsOnlyOnceFightsAreWritten() {
+		this.writeBehind = createWriteBehind("1h", 100, 10);
+		var signal = this.fightSignal.next();
+
+		write(createFights(1).get(0));
+		assertThat(signal).isNotDone();
+
+		this.writeBehind.failing = true;
+		this.writeBehind.flush().await().atMost(TIMEOUT);
+		assertThat(signal).isNotDone();
+
+		this.writeBehind.failing = false;
+		this.writeBehind.onStop(null);
+		assertThat(signal).isCompleted();
+	}
+
+	@Test
+	public void rejectedFightsHaveNoSideEffects() {
+		this.writeBehind = createWriteBehind("1h", 100, 10);
+		var fights = createFights(3);
+		fights.forEach(this::write);
+		var signal = this.fightSignal.next();
+
+		// The database writes the first fight, rejects the second, and never gets to the third
+		this.writeBehind.rejectedIndex = 1;
+		this.writeBehind.flush().await().atMost(TIMEOUT);
+
+		assertThat(this.persistedFights.fights).containsExactly(fights.get(0));
+		assertThat(this.fightCache.get(fights.get(0).id)).isSameAs(fights.get(0));
+		assertThat(this.fightCache.get(fights.get(1).id)).isNull();
+		assertThat(this.fightCache.get(fights.get(2).id)).isNull();
+		assertThat(signal).isCompleted();
+		assertThat(this.meterRegistry.counter("fights.persistence.lost").count()).isOne();
+
+		this.writeBehind.rejectedIndex = -1;
+		this.writeBehind.onStop(null);
+
+		assertThat(this.persistedFights.fights).containsExactly(fights.get(0), fights.get(2));
+		assertThat(this.fightCache.get(fights.get(1).id)).isNull();
+	}
+
+	@Test
+	public void failedBatchHasNoSideEffects() {
+		this.writeBehind = createWriteBehind("1h", 100, 10);
+		var fight = createFights(1).get(0);
+		write(fight);
+
+		this.writeBehind.failing = true;
+		this.writeBehind.flush().await().atMost(TIMEOUT);
+
+		assertThat(this.persistedFights.fights).isEmpty();
+		assertThat(this.fightCache.get(fight.id)).isNull();
+	}
+
+	@Test
+	public void flushIsLazy() {
+		this.writeBehind = createWriteBehind("1h", 100, 10);
+		write(createFights(1).get(0));
+
+		var flush = this.writeBehind.flush();
+
+		assertThat(this.writeBehind.batches).isEmpty();
+		flush.await().atMost(TIMEOUT);
+		assertThat(this.writeBehind.batches).hasSize(1);
+	}
+
+	@Test
+	public void drainsBufferOnShutdown() {
+		this.writeBehind = createWriteBehind("1h", 2, 10);
+		var fights = createFights(5);
+		this.writeBehind.failing = true;
+		fights.forEach(this::write);
+		this.writeBehind.failing = false;
+
+		this.writeBehind.onStop(null);
+
+		assertThat(this.writeBehind.batches.stream().flatMap(List::stream).collect(Collectors.toList()))
+			.containsExactlyInAnyOrderElementsOf(fights);
+		assertThat(this.meterRegistry.counter("fights.persistence.lost").count()).isZero();
+	}
+
+	@Test
+	public void countsFightsLostOnShutdown() {
+		this.writeBehind = createWriteBehind("1h", 100, 10, "50ms");
+		createFights(3).forEach(this::write);
+		this.writeBehind.failing = true;
+
+		this.writeBehind.onStop(null);
+
+		assertThat(this.writeBehind.batches).isEmpty();
+		assertThat(this.meterRegistry.counter("fights.persistence.lost").count()).isEqualTo(3);
+	}
+
+	private void write(Fight fight) {
+		this.writeBehind.write(fight).await().atMost(TIMEOUT);
+	}
+
+	private TestWriteBehind createWriteBehind(String flushInterval, int batchSize, int bufferCapacity) {
+		return createWriteBehind(flushInterval, batchSize, bufferCapacity, "5s");
+	}
+
+	private TestWriteBehind createWriteBehind(String flushInterval, int batchSize, int bufferCapacity, String shutdownTimeout) {
+		var fightConfig = FightConfigs.create(Map.of(
+			"fight.persistence.write-behind.enabled", "true",
+			"fight.persistence.write-behind.flush-interval", flushInterval,
+			"fight.persistence.write-behind.batch-size", String.valueOf(batchSize),
+			"fight.persistence.write-behind.buffer-capacity", String.valueOf(bufferCapacity),
+			"fight.persistence.write-behind.max-retry-backoff", "50ms",
+			"fight.persistence.write-behind.shutdown-timeout", shutdownTimeout,
+			"fight.cache.enabled", "true"
+		));
+
+		this.fightCache = new FightCache(fightConfig, this.meterRegistry);
+		this.persistedFights = new RecordingPersistedFights(this.fightCache, new FightFeed(fightConfig, this.meterRegistry), this.fightSignal, new Leaderboard(fightConfig, this.meterRegistry));
+
+		return new TestWriteBehind(fightConfig, this.persistedFights, this.meterRegistry);
+	}
+
+	private static List<Fight> createFights(int count) {
+		return IntStream.range(0, count)
+			.mapToObj(i -> {
+				var fight = new Fight();
+				fight.winnerName = "Winner " + i;
+				fight.loserName = "Loser " + i;
+				return fight;
+			})
+			.collect(Collectors.toList());
+	}
+
+	private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+		var deadline = System.nanoTime() + TIMEOUT.toNanos();
+
+		while (!condition.getAsBoolean()) {
+			assertThat(System.nanoTime()).as("Timed out waiting").isLessThan(deadline);
+			Thread.sleep(10);
+		}
+	}
+
+	private static final class TestWriteBehind extends FightWriteBehind {
+		private final List<List<Fight>> batches = new CopyOnWriteArrayList<>();
+		private final List<Fight> singles = new CopyOnWriteArrayList<>();
+		private volatile boolean failing;
+		private volatile int rejectedIndex = -1;
+
+		private TestWriteBehind(FightConfig fightConfig, PersistedFights persistedFights, SimpleMeterRegistry meterRegistry) {
+			super(fightConfig, persistedFights, meterRegistry);
+		}
+
+		@Override
+		Uni<Void> insert(List<Fight> batch) {
+			if (this.failing) {
+				return Uni.createFrom().failure(new RuntimeException("Database unavailable"));
+			}
+
+			if ((this.rejectedIndex >= 0) && (this.rejectedIndex < batch.size())) {
+				// Like an ordered bulk write, everything before the rejected fight is written
+				this.batches.add(List.copyOf(batch.subList(0, this.rejectedIndex)));
+				var error = new BulkWriteError(121, "Document failed validation", new BsonDocument(), this.rejectedIndex);
+
+				return Uni.createFrom().failure(new MongoBulkWriteException(BulkWriteResult.unacknowledged(), List.of(error), null, new ServerAddress(), Set.of()));
+			}
+
+			this.batches.add(List.copyOf(batch));
+			return Uni.createFrom().voidItem();
+		}
+
+		@Override
+		Uni<Fight> insert(Fight fight) {
+			this.singles.add(fight);
+			return Uni.createFrom().item(fight);
+		}
+	}
+
+	private static final class RecordingPersistedFights extends PersistedFights {
+		private final List<Fight> fights = new CopyOnWriteArrayList<>();
+
+		private RecordingPersistedFights(FightCache fightCache, FightFeed fightFeed, FightSignal fightSignal, Leaderboard leaderboard) {
+			super(fightCache, fightFeed, fightSignal, leaderboard);
+		}
+
+		@Override
+		void persisted(Fight fight) {
+			this.fights.add(fight);
+			super.persisted(fight);
+		}
+
+		@Override
+		void written(List<Fight> fights) {
+			this.fights.addAll(fights);
+			super.written(fights);
+		}
+	}
+}
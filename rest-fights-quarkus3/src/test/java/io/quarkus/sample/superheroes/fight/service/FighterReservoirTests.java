@@ -0,0 +1,126 @@
+package io.quarkus.sample.superheroes.fight.service;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.sample.superheroes.fight.config.FightConfigs;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Tests for {@link FighterReservoir}, with fighters fetched synchronously so that refills finish before they return
+ */
+class FighterReservoirTests {
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final AtomicInteger fetches = new AtomicInteger();
+
+	@Test
+	public void refillsToHighWatermark() {
+		var reservoir = createReservoir(() -> Uni.createFrom().item("Fighter " + this.fetches.incrementAndGet()), "1h");
+
+		reservoir.refill();
+
+		assertThat(this.fetches).hasValue(5);
+		assertThat(reservoir.poll()).isEqualTo("Fighter 1");
+		assertThat(takes("hit")).isOne();
+		assertThat(depth()).isEqualTo(4);
+	}
+
+	@Test
+	public void refillsOnceBelowLowWatermark() {
+		var reservoir = createReservoir(() -> Uni.createFrom().item("Fighter " + this.fetches.incrementAndGet()), "1h");
+		reservoir.refill();
+
+		reservoir.poll();
+		reservoir.poll();
+		reservoir.poll();
+		assertThat(this.fetches).hasValue(5);
+
+		// Only 1 left, below the low watermark of 2
+		reservoir.poll();
+		assertThat(this.fetches).hasValue(9);
+		assertThat(depth()).isEqualTo(5);
+	}
+
+	@Test
+	public void emptyReservoirMisses() {
+		var reservoir = createReservoir(() -> {
+			this.fetches.incrementAndGet();
+			return Uni.createFrom().failure(new RuntimeException("Service unavailable"));
+		}, "1h");
+
+		assertThat(reservoir.poll()).isNull();
+		assertThat(reservoir.poll()).isNull();
+
+		assertThat(takes("miss")).isEqualTo(2);
+		// The failed refill backs off instead of being tried again on the next miss
+		assertThat(this.fetches).hasValue(1);
+	}
+
+	@Test
+	public void skipsFightersThatWereNotFound() {
+		var reservoir = createReservoir(() -> (this.fetches.incrementAndGet() % 2 == 0) ?
+		                                       Uni.createFrom().item("Fighter " + this.fetches.get()) :
+		                                       Uni.createFrom().nullItem(), "1h");
+
+		reservoir.refill();
+
+		assertThat(depth()).isEqualTo(2);
+		assertThat(reservoir.poll()).isEqualTo("Fighter 2");
+		assertThat(reservoir.poll()).isEqualTo("Fighter 4");
+	}
+
+	@Test
+	public void backsOffWhenNoFightersAreFound() {
+		var reservoir = createReservoir(() -> {
+			this.fetches.incrementAndGet();
+			return Uni.createFrom().nullItem();
+		}, "1h");
+
+		assertThat(reservoir.poll()).isNull();
+		assertThat(reservoir.poll()).isNull();
+
+		assertThat(depth()).isZero();
+		assertThat(this.fetches).hasValue(5);
+	}
+
+	@Test
+	public void refillsAgainOnceFightersAreFound() {
+		var found = new AtomicInteger();
+		var reservoir = createReservoir(() -> (found.get() > 0) ?
+		                                       Uni.createFrom().item("Fighter " + found.incrementAndGet()) :
+		                                       Uni.createFrom().nullItem(), "0s");
+
+		assertThat(reservoir.poll()).isNull();
+
+		found.set(1);
+		assertThat(reservoir.poll()).isNull();
+		assertThat(reservoir.poll()).isEqualTo("Fighter 2");
+	}
+
+	private double takes(String outcome) {
+		return this.meterRegistry.counter("fights.reservoir.takes", "fighter", "test", "outcome", outcome).count();
+	}
+
+	private double depth() {
+		return this.meterRegistry.get("fights.reservoir.depth").gauge().value();
+	}
+
+	private FighterReservoir<String> createReservoir(Supplier<Uni<String>> fetcher, String refillBackoff) {
+		var config = FightConfigs.create(Map.of(
+			"fight.reservoir.enabled", "true",
+			"fight.reservoir.low-watermark", "2",
+			"fight.reservoir.high-watermark", "5",
+			"fight.reservoir.refill-concurrency", "1",
+			"fight.reservoir.refill-backoff", refillBackoff
+		)).reservoir();
+
+		return new FighterReservoir<>("test", fetcher, config, this.meterRegistry);
+	}
+}
@@ -0,0 +1,89 @@
+package io.quarkus.sample.superheroes.fight.service;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.sample.superheroes.fight.Fighters;
+import io.quarkus.sample.superheroes.fight.client.Hero;
+import io.quarkus.sample.superheroes.fight.client.Villain;
+import io.quarkus.sample.superheroes.fight.config.FightConfig;
+import io.quarkus.sample.superheroes.fight.config.FightConfigs;
+import io.quarkus.sample.superheroes.fight.metrics.StageMetrics;
+import io.quarkus.sample.superheroes.fight.service.RandomSources.SeededRandomSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests for {@link RandomSources}, replaying fights one at a time as a seeded replay requires
+ */
+class RandomSourcesTests {
+	private static final int DRAWS = 50;
+	private static final Fighters FIGHTERS = new Fighters(
+		new Hero("Super Baguette", 42, "super_baguette.png", "eats baguette really quickly"),
+		new Villain("Super Chocolatine", 42, "super_chocolatine.png", "does not eat pain au chocolat")
+	);
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	public void producesSeededSourceWhenSeedIsSet() {
+		var randomSource = new RandomSources().randomSource(createFightConfig(42));
+
+		assertThat(randomSource).isInstanceOf(SeededRandomSource.class);
+	}
+
+	@Test
+	public void sameSeedDecidesSameWinners() {
+		var winners = decideWinners(42);
+
+		assertThat(decideWinners(42)).isEqualTo(winners);
+		assertThat(winners).contains(FIGHTERS.getHero().getName(), FIGHTERS.getVillain().getName());
+		assertThat(decideWinners(43)).isNotEqualTo(winners);
+	}
+
+	@Test
+	public void sameSeedPicksSameFighters() {
+		var heroes = pickHeroes(42);
+
+		assertThat(pickHeroes(42)).isEqualTo(heroes);
+		assertThat(Set.copyOf(heroes)).hasSizeGreaterThan(1);
+		assertThat(pickHeroes(43)).isNotEqualTo(heroes);
+	}
+
+	private List<String> decideWinners(long seed) {
+		var fightConfig = createFightConfig(seed);
+		var fightService = new FightService(null, null, fightConfig, null, null, null, null, null, null, null, null, new RandomSources().randomSource(fightConfig), null, new StageMetrics(this.meterRegistry));
+
+		return IntStream.range(0, DRAWS)
+			.mapToObj(i -> fightService.decideWinner(FIGHTERS))
+			.map(fight -> fight.winnerName)
+			.collect(Collectors.toList());
+	}
+
+	private List<String> pickHeroes(long seed) {
+		var fightConfig = createFightConfig(seed);
+		var fallbackFighters = new FallbackFighters(fightConfig, new RandomSources().randomSource(fightConfig), this.meterRegistry);
+		IntStream.range(0, 10)
+			.mapToObj(i -> new Hero("Hero " + i, i, "hero_" + i + ".png", "power " + i))
+			.forEach(fallbackFighters::addHero);
+
+		return IntStream.range(0, DRAWS)
+			.mapToObj(i -> fallbackFighters.pickHero().getName())
+			.collect(Collectors.toList());
+	}
+
+	private static FightConfig createFightConfig(long seed) {
+		return FightConfigs.create(Map.of(
+			"fight.random.seed", String.valueOf(seed),
+			"fight.fallback-pool.enabled", "true",
+			"fight.fallback-pool.size", "10"
+		));
+	}
+}
@@ -0,0 +1,88 @@
+package io.quarkus.sample.superheroes.fight.service;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.*;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.sample.superheroes.fight.config.FightConfigs;
+
+import io.smallrye.mutiny.helpers.test.UniAssertSubscriber;
+
+/**
+ * Tests for {@link VirtualThreadExecutor}. The tests that run work on virtual threads are skipped before Java 21.
+ */
+class VirtualThreadExecutorTests {
+	private static final boolean VIRTUAL_THREADS = Runtime.version().feature() >= 21;
+
+	@Test
+	public void disabledInReactiveMode() {
+		var executor = new VirtualThreadExecutor(FightConfigs.create(Map.of("fight.execution.mode", "reactive")));
+
+		assertThat(executor.isEnabled()).isFalse();
+	}
+
+	@Test
+	public void failsToStartWithoutVirtualThreads() {
+		assumeFalse(VIRTUAL_THREADS);
+
+		assertThatIllegalStateException()
+			.isThrownBy(this::createExecutor);
+	}
+
+	@Test
+	public void callsTaskOnAnotherThread() {
+		assumeTrue(VIRTUAL_THREADS);
+		var executor = createExecutor();
+
+		try {
+			var thread = executor.call(Thread::currentThread)
+				.subscribe().withSubscriber(UniAssertSubscriber.create())
+				.awaitItem(Duration.ofSeconds(5))
+				.getItem();
+
+			assertThat(thread).isNotSameAs(Thread.currentThread());
+		}
+		finally {
+			executor.close();
+		}
+	}
+
+	@Test
+	public void failsWithCauseOfCompletionException() {
+		assumeTrue(VIRTUAL_THREADS);
+		var executor = createExecutor();
+
+		try {
+			executor.call(() -> {
+					throw new CompletionException(new IllegalStateException("Database unavailable"));
+				})
+				.subscribe().withSubscriber(UniAssertSubscriber.create())
+				.awaitFailure(Duration.ofSeconds(5))
+				.assertFailedWith(IllegalStateException.class, "Database unavailable");
+		}
+		finally {
+			executor.close();
+		}
+	}
+
+	@Test
+	public void unwrapsOnlyCompletionExceptions() {
+		var cause = new IllegalStateException("Database unavailable");
+		var cancellation = new CancellationException();
+		var withoutCause = new CompletionException("No cause", null);
+
+		assertThat(VirtualThreadExecutor.unwrap(new CompletionException(cause))).isSameAs(cause);
+		assertThat(VirtualThreadExecutor.unwrap(cancellation)).isSameAs(cancellation);
+		assertThat(VirtualThreadExecutor.unwrap(withoutCause)).isSameAs(withoutCause);
+	}
+
+	private VirtualThreadExecutor createExecutor() {
+		return new VirtualThreadExecutor(FightConfigs.create(Map.of("fight.execution.mode", "virtual-threads")));
+	}
+}